@@ -0,0 +1,280 @@
+package io.quarkiverse.bonjova.benchmarks;
+
+import io.quarkiverse.bonjova.compiler.BytecodeGenerator;
+import io.quarkiverse.bonjova.compiler.CodeGenerator;
+import io.quarkiverse.bonjova.compiler.ConstantFolding;
+import io.quarkiverse.bonjova.compiler.DynamicOperatorRewriter;
+import io.quarkiverse.bonjova.compiler.Program;
+import io.quarkiverse.bonjova.compiler.ProgramParser;
+import io.quarkiverse.bonjova.compiler.grammar.PrattParser;
+import io.quarkiverse.bonjova.compiler.grammar.UnsupportedSyntaxException;
+import io.quarkus.gizmo.ClassCreator;
+import io.quarkus.gizmo.ClassOutput;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ListTokenSource;
+import org.antlr.v4.runtime.Token;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import rock.Rockstar;
+import rock.RockstarLexer;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Times each stage of compiling a Rockstar program, since dev mode does all of them on every reload. The stages are
+ * lexing, parsing, building our own program tree (including constant folding), generating the code, and writing the
+ * class file. Each stage starts from the output of the one before, worked out in advance, so only that stage gets
+ * timed. Writing can't be separated from generating without a fresh class for each invocation, so it gets generated
+ * in an invocation-level setup, which JMH doesn't time. The hand-written front end lexes as it parses, so it gets
+ * one benchmark for both.
+ * <p>
+ * As well as the usual ops/s, every benchmark counts the lines it compiled, so the lines figure is the throughput in
+ * lines per second. Run with -prof gc and divide gc.alloc.rate.norm by the lines per operation (printed during setup)
+ * for the allocation per compiled line.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompilerBenchmarks {
+
+    // The pom copies in all the compiler's test programs, and these are the ones which don't compile yet
+    private static final Set<String> NOT_COMPILING = Set.of("complex-hello-world.rock", "factorization.rock");
+    private static final String CORPUS_DIRECTORY = "/corpus/";
+    private static final String SYNTHETIC = "synthetic-";
+    private static final String CLASS_NAME = "rock.benchmark";
+
+    @State(Scope.Benchmark)
+    public static class Sources {
+
+        // Either the whole corpus, or a generated program with the given number of lines
+        @Param({ "corpus", "synthetic-1000", "synthetic-10000" })
+        public String programs;
+
+        List<String> sources;
+        List<List<? extends Token>> tokens;
+        List<Rockstar.ProgramContext> trees;
+        List<Program> programTrees;
+        int lines;
+        // Only what the hand-written parser takes on itself, so its benchmark doesn't quietly time ANTLR as well
+        List<String> prattSources;
+        int prattLines;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            sources = new ArrayList<>();
+            if (programs.startsWith(SYNTHETIC)) {
+                sources.add(SyntheticPrograms.generate(Integer.parseInt(programs.substring(SYNTHETIC.length()))));
+            } else {
+                sources.addAll(readCorpus());
+            }
+
+            tokens = new ArrayList<>();
+            trees = new ArrayList<>();
+            programTrees = new ArrayList<>();
+            prattSources = new ArrayList<>();
+            for (String source : sources) {
+                int sourceLines = (int) source.lines().count();
+                lines += sourceLines;
+                if (isLeftToAntlr(source)) {
+                    System.out.printf("%nLeaving a %d line program out of prattParse, which leaves it to ANTLR%n",
+                            sourceLines);
+                } else {
+                    prattSources.add(source);
+                    prattLines += sourceLines;
+                }
+                List<? extends Token> sourceTokens = lex(source);
+                tokens.add(sourceTokens);
+                Rockstar.ProgramContext tree = parse(sourceTokens);
+                trees.add(tree);
+                programTrees.add(buildTree(tree));
+            }
+            System.out.printf("%n%s: %d lines per operation, %d for prattParse%n", programs, lines, prattLines);
+        }
+    }
+
+    // Everything in the corpus directory, whether it's on disk or in the benchmarks jar
+    static List<String> readCorpus() throws IOException {
+        URI directory;
+        try {
+            directory = CompilerBenchmarks.class.getResource(CORPUS_DIRECTORY).toURI();
+        } catch (URISyntaxException e) {
+            throw new IOException(e);
+        }
+        if ("jar".equals(directory.getScheme())) {
+            try (FileSystem jar = FileSystems.newFileSystem(directory, Map.of())) {
+                return readPrograms(jar.getPath(CORPUS_DIRECTORY));
+            }
+        }
+        return readPrograms(Path.of(directory));
+    }
+
+    private static List<String> readPrograms(Path directory) throws IOException {
+        List<String> programs = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.sorted().toList()) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(".rock") && !NOT_COMPILING.contains(name)) {
+                    programs.add(Files.readString(file, StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return programs;
+    }
+
+    @State(Scope.Thread)
+    public static class Generated {
+
+        List<ClassCreator> creators;
+
+        @Setup(Level.Invocation)
+        public void setUp(Sources sources, Blackhole blackhole) {
+            creators = new ArrayList<>();
+            for (Program program : sources.programTrees) {
+                ClassCreator creator = newClassCreator(blackhole);
+                new CodeGenerator(creator).generate(program);
+                creators.add(creator);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Lines {
+
+        public long lines;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            lines = 0;
+        }
+    }
+
+    @Benchmark
+    public void lex(Sources sources, Lines lines, Blackhole blackhole) {
+        for (String source : sources.sources) {
+            blackhole.consume(lex(source));
+        }
+        lines.lines += sources.lines;
+    }
+
+    @Benchmark
+    public void parse(Sources sources, Lines lines, Blackhole blackhole) {
+        for (List<? extends Token> tokens : sources.tokens) {
+            blackhole.consume(parse(tokens));
+        }
+        lines.lines += sources.lines;
+    }
+
+    // Lexing and parsing in one, since that's how the hand-written front end works; compare its lines per second with
+    // lex plus parse
+    @Benchmark
+    public void prattParse(Sources sources, Lines lines, Blackhole blackhole) {
+        for (String source : sources.prattSources) {
+            blackhole.consume(prattParse(source));
+        }
+        lines.lines += sources.prattLines;
+    }
+
+    @Benchmark
+    public void buildTree(Sources sources, Lines lines, Blackhole blackhole) {
+        for (Rockstar.ProgramContext tree : sources.trees) {
+            blackhole.consume(buildTree(tree));
+        }
+        lines.lines += sources.lines;
+    }
+
+    @Benchmark
+    public void generate(Sources sources, Lines lines, Blackhole blackhole) {
+        for (Program program : sources.programTrees) {
+            // Never closed, so the class never gets written
+            ClassCreator creator = newClassCreator(blackhole);
+            new CodeGenerator(creator).generate(program);
+            blackhole.consume(creator);
+        }
+        lines.lines += sources.lines;
+    }
+
+    @Benchmark
+    public void write(Sources sources, Generated generated, Lines lines) {
+        for (ClassCreator creator : generated.creators) {
+            creator.close();
+        }
+        lines.lines += sources.lines;
+    }
+
+    @Benchmark
+    public void compile(Sources sources, Lines lines, Blackhole blackhole) throws IOException {
+        for (String source : sources.sources) {
+            new BytecodeGenerator().generateBytecode(new ByteArrayInputStream(source.getBytes(StandardCharsets.UTF_8)),
+                    CLASS_NAME, blackholeOutput(blackhole));
+        }
+        lines.lines += sources.lines;
+    }
+
+    static List<? extends Token> lex(String source) {
+        return new RockstarLexer(CharStreams.fromString(source)).getAllTokens();
+    }
+
+    static Rockstar.ProgramContext parse(List<? extends Token> tokens) {
+        return ProgramParser.parse(new CommonTokenStream(new ListTokenSource(tokens)));
+    }
+
+    static Rockstar.ProgramContext prattParse(String source) {
+        return PrattParser.parse(CharStreams.fromString(source));
+    }
+
+    private static boolean isLeftToAntlr(String source) {
+        try {
+            prattParse(source);
+            return false;
+        } catch (UnsupportedSyntaxException e) {
+            return true;
+        }
+    }
+
+    static Program buildTree(Rockstar.ProgramContext tree) {
+        Program program = new Program(tree);
+        ConstantFolding.fold(program);
+        return program;
+    }
+
+    private static ClassCreator newClassCreator(Blackhole blackhole) {
+        return ClassCreator.builder()
+                .classOutput(new DynamicOperatorRewriter(blackholeOutput(blackhole)))
+                .className(CLASS_NAME)
+                .build();
+    }
+
+    private static ClassOutput blackholeOutput(Blackhole blackhole) {
+        return (name, bytes) -> blackhole.consume(bytes);
+    }
+}
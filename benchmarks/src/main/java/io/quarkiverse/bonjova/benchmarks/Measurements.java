@@ -0,0 +1,78 @@
+package io.quarkiverse.bonjova.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Makes measurement files in the same shape as the one billion row challenge's: one station;temperature reading per
+ * line, with temperatures spread around each station's mean and given to one decimal place. The same row count always
+ * makes the same file, so results can be compared from run to run.
+ */
+public class Measurements {
+
+    private static final String STATIONS = "/weather-stations.txt";
+    private static final long SEED = 1984;
+    private static final double STANDARD_DEVIATION = 10;
+    private static final double LIMIT = 99.9;
+
+    private final List<String> names = new ArrayList<>();
+    private final List<Double> means = new ArrayList<>();
+
+    public Measurements() throws IOException {
+        try (InputStream stream = Measurements.class.getResourceAsStream(STATIONS);
+                BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int separator = line.lastIndexOf(';');
+                names.add(line.substring(0, separator));
+                means.add(Double.parseDouble(line.substring(separator + 1)));
+            }
+        }
+    }
+
+    /**
+     * Returns a file of the given number of rows in the directory, only generating it if it is not already there.
+     */
+    public Path getOrCreate(Path directory, long rows) throws IOException {
+        Path file = directory.resolve("measurements-" + rows + ".txt");
+        if (!Files.exists(file)) {
+            Files.createDirectories(directory);
+            // Write somewhere else first, so a run which gets interrupted doesn't leave a short file behind
+            Path partial = directory.resolve(file.getFileName() + ".partial");
+            write(partial, rows);
+            Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return file;
+    }
+
+    void write(Path file, long rows) throws IOException {
+        Random random = new Random(SEED);
+        StringBuilder line = new StringBuilder();
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (long i = 0; i < rows; i++) {
+                int station = random.nextInt(names.size());
+                double temperature = means.get(station) + random.nextGaussian() * STANDARD_DEVIATION;
+                long tenths = Math.round(Math.max(-LIMIT, Math.min(LIMIT, temperature)) * 10);
+
+                line.setLength(0);
+                line.append(names.get(station)).append(';');
+                if (tenths < 0) {
+                    line.append('-');
+                    tenths = -tenths;
+                }
+                line.append(tenths / 10).append('.').append(tenths % 10).append('\n');
+                writer.append(line);
+            }
+        }
+    }
+}
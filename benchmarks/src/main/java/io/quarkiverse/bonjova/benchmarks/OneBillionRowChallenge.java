@@ -0,0 +1,123 @@
+package io.quarkiverse.bonjova.benchmarks;
+
+import com.sun.management.ThreadMXBean;
+import io.quarkiverse.bonjova.compiler.RockFileCompiler;
+import io.quarkiverse.bonjova.support.RockstarInput;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the one billion row challenge, written in Rockstar, over generated measurement files, and reports how fast it
+ * went and how much garbage it made doing it. The program is compiled with {@link RockFileCompiler}, just as a user's
+ * would be, and run in this JVM so we can see the allocation and GC figures.
+ * <p>
+ * Arguments are the row counts to try, such as 1000000 10000000 100000000. The number of runs for each (the first of
+ * which is only warm-up) comes from the runs system property, and the data files go in the directory named by the dir
+ * system property.
+ */
+public class OneBillionRowChallenge {
+
+    private static final String PROGRAM = "/1brc.rock";
+    private static final String CLASS_NAME = "onebrc";
+    private static final long DEFAULT_ROWS = 1_000_000;
+
+    public static void main(String[] args) throws Exception {
+        List<Long> rowCounts = new ArrayList<>();
+        for (String arg : args) {
+            for (String rows : arg.trim().split("\\s+")) {
+                rowCounts.add(Long.parseLong(rows.replace("_", "")));
+            }
+        }
+        if (rowCounts.isEmpty()) {
+            rowCounts.add(DEFAULT_ROWS);
+        }
+        int runs = Integer.getInteger("runs", 3);
+        Path dataDirectory = Path.of(System.getProperty("dir", "target/1brc"));
+
+        Method program = compile();
+        Measurements measurements = new Measurements();
+        for (long rows : rowCounts) {
+            System.out.printf("Generating %,d rows...%n", rows);
+            Path file = measurements.getOrCreate(dataDirectory, rows);
+            for (int run = 0; run < runs; run++) {
+                Result result = run(program, file, rows);
+                System.out.println((run == 0 ? "warm-up " : "run " + run + "   ") + result);
+            }
+        }
+    }
+
+    private static Method compile() throws IOException, ReflectiveOperationException {
+        Path directory = Files.createTempDirectory("bonjova-1brc");
+        File classFile = directory.resolve(CLASS_NAME + RockFileCompiler.DOT_CLASS).toFile();
+        try (InputStream stream = OneBillionRowChallenge.class.getResourceAsStream(PROGRAM)) {
+            new RockFileCompiler().compile(stream, classFile);
+        }
+        // The support classes come from our own class path, so only the program itself needs loading from the directory
+        URLClassLoader loader = new URLClassLoader(new URL[] { directory.toUri().toURL() },
+                OneBillionRowChallenge.class.getClassLoader());
+        return loader.loadClass(CLASS_NAME).getMethod("main", String[].class);
+    }
+
+    private static Result run(Method program, Path file, long rows) throws ReflectiveOperationException {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        PrintStream console = System.out;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        System.setProperty(RockstarInput.INPUT_PROPERTY, file.toString());
+        System.setOut(new PrintStream(output, false, StandardCharsets.UTF_8));
+        long gcTimeBefore = gcTime();
+        long gcCountBefore = gcCount();
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        try {
+            program.invoke(null, (Object) new String[0]);
+        } finally {
+            System.setOut(console);
+            System.clearProperty(RockstarInput.INPUT_PROPERTY);
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+        long stations = output.toString(StandardCharsets.UTF_8).lines().count();
+        return new Result(rows, stations, elapsed, allocated, gcTime() - gcTimeBefore, gcCount() - gcCountBefore);
+    }
+
+    private static long gcTime() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime)
+                .filter(time -> time > 0)
+                .sum();
+    }
+
+    private static long gcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionCount)
+                .filter(count -> count > 0)
+                .sum();
+    }
+
+    record Result(long rows, long stations, long nanos, long allocatedBytes, long gcMillis, long gcCount) {
+
+        @Override
+        public String toString() {
+            double seconds = nanos / 1e9;
+            return String.format("%,d rows, %d stations in %.2fs: %,.0f rows/s, allocated %,.0f MB (%,.0f MB/s), "
+                    + "%d GCs taking %,d ms", rows, stations, seconds, rows / seconds, allocatedBytes / 1e6,
+                    allocatedBytes / 1e6 / seconds, gcCount, gcMillis);
+        }
+    }
+}
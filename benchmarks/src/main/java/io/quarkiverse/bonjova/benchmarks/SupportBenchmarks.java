@@ -0,0 +1,250 @@
+package io.quarkiverse.bonjova.benchmarks;
+
+import io.quarkiverse.bonjova.support.Nothing;
+import io.quarkiverse.bonjova.support.NumberFormatter;
+import io.quarkiverse.bonjova.support.RockstarArray;
+import io.quarkiverse.bonjova.support.RockstarOps;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the support classes which every compiled program leans on at run time: arrays, nothing, truthiness, and
+ * number formatting. Array benchmarks do a whole array's worth of work per operation, so the size matters; divide by
+ * it for the cost of a single call. Running this class directly turns on the GC profiler, so allocation per operation
+ * shows up next to the timings.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SupportBenchmarks {
+
+    @State(Scope.Thread)
+    public static class Arrays {
+
+        @Param({ "16", "1024" })
+        public int size;
+
+        // Already filled, for the reads
+        RockstarArray numbers;
+        RockstarArray strings;
+        // Keys are made in advance, so the benchmarks don't time string concatenation
+        String[] stringKeys;
+        String[] numericStringKeys;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            numbers = new RockstarArray();
+            strings = new RockstarArray();
+            stringKeys = new String[size];
+            numericStringKeys = new String[size];
+            for (int i = 0; i < size; i++) {
+                stringKeys[i] = "key " + i;
+                numericStringKeys[i] = Integer.toString(i);
+                numbers.add((double) i);
+                strings.add(stringKeys[i], (double) i);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Values {
+
+        // Fields rather than constants, so the JIT can't fold them away
+        Object number = 42d;
+        Object zero = 0d;
+        Object string = "Tommy";
+        Object bool = true;
+        Object mysterious = null;
+        Nothing nothing = Nothing.NOTHING;
+        double integer = 1984;
+        double fraction = 3.14159;
+        double awkwardFraction = 0.0000000015;
+    }
+
+    @Benchmark
+    public void arrayGetByNumber(Arrays arrays, Blackhole blackhole) {
+        RockstarArray array = arrays.numbers;
+        for (int i = 0; i < arrays.size; i++) {
+            blackhole.consume(array.get((double) i));
+        }
+    }
+
+    @Benchmark
+    public void arrayGetNumberByNumber(Arrays arrays, Blackhole blackhole) {
+        RockstarArray array = arrays.numbers;
+        for (int i = 0; i < arrays.size; i++) {
+            blackhole.consume(array.getNumber(i));
+        }
+    }
+
+    @Benchmark
+    public void arrayGetByBoxedNumber(Arrays arrays, Blackhole blackhole) {
+        RockstarArray array = arrays.numbers;
+        for (int i = 0; i < arrays.size; i++) {
+            blackhole.consume(array.get((Object) (double) i));
+        }
+    }
+
+    @Benchmark
+    public void arrayGetByNumericString(Arrays arrays, Blackhole blackhole) {
+        RockstarArray array = arrays.numbers;
+        for (String key : arrays.numericStringKeys) {
+            blackhole.consume(array.get(key));
+        }
+    }
+
+    @Benchmark
+    public void arrayGetByString(Arrays arrays, Blackhole blackhole) {
+        RockstarArray array = arrays.strings;
+        for (String key : arrays.stringKeys) {
+            blackhole.consume(array.get(key));
+        }
+    }
+
+    @Benchmark
+    public RockstarArray arrayPush(Arrays arrays) {
+        RockstarArray array = new RockstarArray();
+        for (int i = 0; i < arrays.size; i++) {
+            array.add(arrays.stringKeys[i]);
+        }
+        return array;
+    }
+
+    @Benchmark
+    public RockstarArray arrayPushNumbers(Arrays arrays) {
+        // These stay unboxed all the way into the array
+        RockstarArray array = new RockstarArray();
+        for (int i = 0; i < arrays.size; i++) {
+            array.add((double) i);
+        }
+        return array;
+    }
+
+    @Benchmark
+    public RockstarArray arrayAddByNumber(Arrays arrays) {
+        RockstarArray array = new RockstarArray();
+        for (int i = 0; i < arrays.size; i++) {
+            array.add((double) i, arrays.stringKeys[i]);
+        }
+        return array;
+    }
+
+    @Benchmark
+    public RockstarArray arrayAddByString(Arrays arrays) {
+        RockstarArray array = new RockstarArray();
+        for (String key : arrays.stringKeys) {
+            array.add((Object) key, key);
+        }
+        return array;
+    }
+
+    @Benchmark
+    public RockstarArray arrayAddByNumericString(Arrays arrays) {
+        RockstarArray array = new RockstarArray();
+        for (String key : arrays.numericStringKeys) {
+            array.add((Object) key, key);
+        }
+        return array;
+    }
+
+    @Benchmark
+    public void arrayPushThenPop(Arrays arrays, Blackhole blackhole) {
+        // Pop empties the array, so it has to be filled each time
+        RockstarArray array = new RockstarArray();
+        for (int i = 0; i < arrays.size; i++) {
+            array.add(arrays.stringKeys[i]);
+        }
+        for (int i = 0; i < arrays.size; i++) {
+            blackhole.consume(array.pop());
+        }
+    }
+
+    @Benchmark
+    public String arrayJoin(Arrays arrays) {
+        return arrays.numbers.join(", ");
+    }
+
+    @Benchmark
+    public void nothingCoerce(Values values, Blackhole blackhole) {
+        Nothing nothing = values.nothing;
+        blackhole.consume(nothing.coerce(values.number));
+        blackhole.consume(nothing.coerce(values.string));
+        blackhole.consume(nothing.coerce(values.bool));
+        blackhole.consume(nothing.coerce(values.mysterious));
+    }
+
+    @Benchmark
+    public void nothingCoerceWithVisibleNulls(Values values, Blackhole blackhole) {
+        Nothing nothing = values.nothing;
+        blackhole.consume(nothing.coerceWithVisibleNulls(values.number));
+        blackhole.consume(nothing.coerceWithVisibleNulls(values.string));
+        blackhole.consume(nothing.coerceWithVisibleNulls(values.bool));
+        blackhole.consume(nothing.coerceWithVisibleNulls(values.mysterious));
+    }
+
+    @Benchmark
+    public void opsCoerceNothing(Values values, Blackhole blackhole) {
+        // The generated code goes through these, which check for nothing first
+        blackhole.consume(RockstarOps.coerceNothing(values.nothing, values.number));
+        blackhole.consume(RockstarOps.coerceNothing(values.number, values.nothing));
+        blackhole.consume(RockstarOps.coerceNothingToString(values.nothing));
+        blackhole.consume(RockstarOps.coerceNothingToNumber(values.nothing));
+        blackhole.consume(RockstarOps.coerceNothingToBoolean(values.string));
+    }
+
+    @Benchmark
+    public void truthy(Values values, Blackhole blackhole) {
+        blackhole.consume(RockstarOps.truthy(values.number));
+        blackhole.consume(RockstarOps.truthy(values.zero));
+        blackhole.consume(RockstarOps.truthy(values.string));
+        blackhole.consume(RockstarOps.truthy(values.bool));
+        blackhole.consume(RockstarOps.truthy(values.mysterious));
+    }
+
+    @Benchmark
+    public String formatInteger(Values values) {
+        return NumberFormatter.format(values.integer);
+    }
+
+    @Benchmark
+    public String formatFraction(Values values) {
+        return NumberFormatter.format(values.fraction);
+    }
+
+    @Benchmark
+    public String formatNearlyHalfway(Values values) {
+        // This one has to go the slow way, through DecimalFormat
+        return NumberFormatter.format(values.awkwardFraction);
+    }
+
+    @Benchmark
+    public String toRockString(Values values) {
+        return RockstarOps.toRockString(values.number);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SupportBenchmarks.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,81 @@
+package io.quarkiverse.bonjova.benchmarks;
+
+/**
+ * Writes big Rockstar programs for the compiler to chew on, since nobody has written one by hand yet. Programs are
+ * made of functions which use most of the language (arithmetic, strings, arrays, conditions, loops, and calls), with
+ * some top-level statements calling them every so often. The same size always gives the same program.
+ */
+public class SyntheticPrograms {
+
+    // Rockstar variable names can't have digits in, so number things with letters instead
+    private static final String LETTERS = "abcdefghijklmnopqrstuvwxyz";
+    // ... and a single letter could be a keyword, like "a"
+    private static final String SUFFIX = "ville";
+    // All the top-level statements go in one method, which mustn't get too big for the JVM
+    private static final int TOP_LEVEL_EVERY = 10;
+
+    private SyntheticPrograms() {
+    }
+
+    /**
+     * Returns a program of roughly the given number of lines.
+     */
+    public static String generate(int lines) {
+        StringBuilder program = new StringBuilder();
+        program.append("Rock the crowd\n");
+        int written = 1;
+        for (int i = 0; written < lines; i++) {
+            int start = program.length();
+            appendFunction(program, i);
+            // Only count the new bit, or a big program would take quadratic time to write
+            for (int c = start; c < program.length(); c++) {
+                if (program.charAt(c) == '\n') {
+                    written++;
+                }
+            }
+        }
+        return program.toString();
+    }
+
+    private static void appendFunction(StringBuilder program, int i) {
+        String function = "Song " + name(i);
+        String local = "the verse";
+        program.append(function).append(" takes the input and the chorus\n")
+                .append("let ").append(local).append(" be the input times ").append(i % 7 + 1).append('\n')
+                .append("put ").append(local).append(" plus the chorus into the bridge\n")
+                .append("build the bridge up\n")
+                .append("let the lyric be \"").append(name(i)).append(" \" with the bridge\n")
+                .append("rock the lyric into the crowd\n")
+                .append("let the crowd at \"").append(name(i)).append("\" be the bridge\n")
+                .append("if the bridge is greater than ").append(i % 50).append('\n')
+                .append("    let the bridge be the bridge over 2\n")
+                .append("    turn the bridge round\n")
+                .append("give back the bridge\n")
+                .append('\n');
+
+        if (i % TOP_LEVEL_EVERY != 0) {
+            return;
+        }
+        String result = "Tour " + name(i);
+        program.append(result).append(" was a lovestruck ladykiller\n")
+                .append("let ").append(result).append(" be ").append(function).append(" taking ")
+                .append(result).append(", ").append(i).append('\n')
+                .append("say ").append(result).append('\n')
+                // Blank lines don't close blocks, so the loop has to come last
+                .append("while ").append(result).append(" is less than ").append(i % 5 + 10).append('\n')
+                .append("    build ").append(result).append(" up\n")
+                .append("    knock ").append(result).append(" down, down\n")
+                .append("    build ").append(result).append(" up, up, up\n")
+                .append('\n');
+    }
+
+    static String name(int i) {
+        StringBuilder name = new StringBuilder();
+        do {
+            name.append(LETTERS.charAt(i % LETTERS.length()));
+            i /= LETTERS.length();
+        } while (i > 0);
+        name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+        return name.append(SUFFIX).toString();
+    }
+}
@@ -10,25 +10,29 @@ import rock.Rockstar;
 
 import java.util.List;
 
-import static io.quarkiverse.bonjova.compiler.BytecodeGeneratingListener.isNumber;
 import static io.quarkiverse.bonjova.compiler.Constant.coerceNothingIntoType;
 
-public class Array {
+public final class Array implements Statement {
     public static final Class<?> TYPE_CLASS = RockstarArray.class;
     static final MethodDescriptor CONSTRUCTOR = MethodDescriptor.ofConstructor(TYPE_CLASS);
     static final MethodDescriptor ADD_METHOD = MethodDescriptor.ofMethod(TYPE_CLASS, "add", void.class, Object.class);
+    private static final MethodDescriptor ADD_NUMBER_METHOD = MethodDescriptor.ofMethod(TYPE_CLASS, "add", void.class,
+            double.class);
     static final MethodDescriptor ADD_AT_NUMERIC_INDEX_METHOD = MethodDescriptor.ofMethod(TYPE_CLASS, "add", void.class,
             double.class, Object.class);
     static final MethodDescriptor ADD_AT_INDEX_METHOD = MethodDescriptor.ofMethod(TYPE_CLASS, "add", void.class, Object.class,
             Object.class);
+    private static final MethodDescriptor ADD_NUMBER_AT_NUMERIC_INDEX_METHOD = MethodDescriptor.ofMethod(TYPE_CLASS, "add",
+            void.class, double.class, double.class);
+    private static final MethodDescriptor ADD_NUMBER_AT_INDEX_METHOD = MethodDescriptor.ofMethod(TYPE_CLASS, "add",
+            void.class, Object.class, double.class);
     private static final MethodDescriptor GET_METHOD = MethodDescriptor.ofMethod(TYPE_CLASS, "get", Object.class, double.class);
+    private static final MethodDescriptor GET_NUMBER_METHOD = MethodDescriptor.ofMethod(TYPE_CLASS, "getNumber",
+            double.class, double.class);
     private static final MethodDescriptor MAP_GET_METHOD = MethodDescriptor.ofMethod(TYPE_CLASS, "get", Object.class,
             Object.class);
     private static final MethodDescriptor REMOVE_METHOD = MethodDescriptor.ofMethod(TYPE_CLASS, "pop", Object.class);
     private static final MethodDescriptor LENGTH_METHOD = MethodDescriptor.ofMethod(TYPE_CLASS, "size", double.class);
-    private static final MethodDescriptor JOIN_METHOD = MethodDescriptor.ofMethod(TYPE_CLASS, "join", String.class);
-    private static final MethodDescriptor JOIN_WITH_DELIMITER_METHOD = MethodDescriptor.ofMethod(TYPE_CLASS, "join",
-            String.class, String.class);
 
     private final Class<?> variableClass;
     private final Variable variable;
@@ -56,35 +60,24 @@ public class Array {
         variableClass = variable.getVariableClass();
     }
 
-    public static void join(Rockstar.JoinStmtContext ctx, Block block) {
-        Variable oldVar = new Variable(ctx.variable().get(0));
-        BytecodeCreator currentCreator = block.method();
-        ResultHandle oldVal = oldVar.getResultHandle(block);
-
-        // Tolerate casting things that aren't strings
-        ResultHandle isString = currentCreator.instanceOf(oldVal, TYPE_CLASS);
-        BranchResult br = currentCreator.ifTrue(isString);
-        AssignableResultHandle newVal = currentCreator.createVariable(Object.class);
-        BytecodeCreator isStringBranch = br.trueBranch();
-        if (ctx.KW_WITH() != null) {
-            ResultHandle delimiter = new Expression(ctx.expression()).getResultHandle(block);
-            isStringBranch.assign(newVal, isStringBranch.invokeVirtualMethod(JOIN_WITH_DELIMITER_METHOD, oldVal, delimiter));
-        } else {
-            isStringBranch.assign(newVal, isStringBranch.invokeVirtualMethod(JOIN_METHOD, oldVal));
-        }
-        br.falseBranch().throwException(IllegalArgumentException.class, "No, we can't join that.");
+    public String getVariableName() {
+        return variable.getVariableName();
+    }
 
-        Variable newVar;
-        if (ctx.KW_INTO() != null) {
-            newVar = new Variable(ctx.variable().get(1), String.class);
-        } else {
-            newVar = new Variable(ctx.variable().get(0), String.class);
-        }
-        newVar.write(block, newVal);
+    public Variable getVariable() {
+        return variable;
     }
 
-    public String getVariableName() {
-        return variable.getVariableName();
+    public List<Expression> getInitialContents() {
+        return initialContents;
+    }
+
+    public Expression getIndex() {
+        return index;
+    }
+
+    public Expression getPlacedValue() {
+        return placedValue;
     }
 
     public static ResultHandle toScalarContext(Variable variable, Block block) {
@@ -97,21 +90,34 @@ public class Array {
     }
 
     public ResultHandle read(Expression arrayAccessIndex, Block block) {
-        ResultHandle index;
+        return read(arrayAccessIndex, block, false).handle();
+    }
+
+    /**
+     * Reads an element which is only going to be used as a number, so numeric arrays don't have to box it.
+     */
+    public TypedHandle readNumber(Expression arrayAccessIndex, Block block) {
+        return read(arrayAccessIndex, block, true);
+    }
+
+    private TypedHandle read(Expression arrayAccessIndex, Block block, boolean asNumber) {
+        TypedHandle index;
         if (arrayAccessIndex.isNothing()) { // TODO this check is not needed? or perhaps we need two, one for when we know the value, the other for an expression
-            index = coerceNothingIntoType(block, arrayAccessIndex.getResultHandle(block),
+            index = coerceNothingIntoType(block, arrayAccessIndex.getTypedHandle(block, Expression.Context.NORMAL),
                     Expression.Context.SCALAR);
         } else {
-            index = arrayAccessIndex.getResultHandle(block);
+            index = arrayAccessIndex.getTypedHandle(block, Expression.Context.NORMAL);
             // This could still be a null, so do another check
             index = Constant.coerceNothingIntoType(block, index, Expression.Context.SCALAR);
         }
         // Short circuit this logic if we know we are dealing with a number
         ResultHandle rh = variable.getResultHandle(block);
-        if (isNumber(index)) {
-            return block.method().invokeVirtualMethod(GET_METHOD, rh, index);
+        if (index.isNumber() && asNumber) {
+            return new TypedHandle(block.method().invokeVirtualMethod(GET_NUMBER_METHOD, rh, index.handle()), double.class);
+        } else if (index.isNumber()) {
+            return TypedHandle.object(block.method().invokeVirtualMethod(GET_METHOD, rh, index.handle()));
         } else {
-            return block.method().invokeVirtualMethod(MAP_GET_METHOD, rh, index);
+            return TypedHandle.object(block.method().invokeVirtualMethod(MAP_GET_METHOD, rh, index.handle()));
         }
     }
 
@@ -139,20 +145,25 @@ public class Array {
 
         if (initialContents != null) {
             for (Expression c : initialContents) {
-                block.method().invokeVirtualMethod(ADD_METHOD, rh, c.getResultHandle(block));
+                // Numbers we know are numbers can go in without being boxed
+                TypedHandle element = c.getTypedHandle(block, Expression.Context.NORMAL);
+                block.method().invokeVirtualMethod(element.isNumber() ? ADD_NUMBER_METHOD : ADD_METHOD, rh,
+                        element.handle());
             }
         }
 
         if (index != null) {
-            ResultHandle placedRh = placedValue.getResultHandle(block);
+            TypedHandle placedRh = placedValue.getTypedHandle(block, Expression.Context.NORMAL);
 
-            // Short circuit this logic if we know we are dealing with a number
-            ResultHandle indexRh = index.getResultHandle(block);
-            if (isNumber(indexRh)) {
-                block.method().invokeVirtualMethod(ADD_AT_NUMERIC_INDEX_METHOD, rh, indexRh, placedRh);
+            // Short circuit this logic if we know we are dealing with a number, for the index and the value
+            TypedHandle indexRh = index.getTypedHandle(block, Expression.Context.NORMAL);
+            MethodDescriptor add;
+            if (indexRh.isNumber()) {
+                add = placedRh.isNumber() ? ADD_NUMBER_AT_NUMERIC_INDEX_METHOD : ADD_AT_NUMERIC_INDEX_METHOD;
             } else {
-                block.method().invokeVirtualMethod(ADD_AT_INDEX_METHOD, rh, indexRh, placedRh);
+                add = placedRh.isNumber() ? ADD_NUMBER_AT_INDEX_METHOD : ADD_AT_INDEX_METHOD;
             }
+            block.method().invokeVirtualMethod(add, rh, indexRh.handle(), placedRh.handle());
         }
 
         // Return the result handle for ease of testing
@@ -9,7 +9,7 @@ import rock.Rockstar;
 
 import static io.quarkiverse.bonjova.support.Nothing.NOTHING;
 
-public class Assignment {
+public final class Assignment implements Statement {
     private final String originalName;
     private final Object value;
     private final Class<?> variableClass;
@@ -85,6 +85,14 @@ public class Assignment {
         return variableClass;
     }
 
+    public Expression getExpression() {
+        return expression;
+    }
+
+    public Array getArrayAccess() {
+        return arrayAccess;
+    }
+
     // TODO make argument order consistent across related classes
     public void toCode(Block block) {
 
@@ -7,7 +7,7 @@ import io.quarkus.gizmo.MethodDescriptor;
 import io.quarkus.gizmo.ResultHandle;
 import rock.Rockstar;
 
-public class Cast {
+public final class Cast implements Statement {
     private static final MethodDescriptor VALUE_OF_METHOD = MethodDescriptor.ofMethod(Double.class, "valueOf", Double.class,
             String.class);
     private static final MethodDescriptor DOUBLE_FROM_INTEGER_METHOD = MethodDescriptor.ofMethod(Integer.class, "doubleValue",
@@ -19,61 +19,84 @@ public class Cast {
     private static final MethodDescriptor INTVALUE_METHOD = MethodDescriptor.ofMethod(Double.class, "intValue", int.class);
     private static final MethodDescriptor STRING_FROM_CHARS_METHOD = MethodDescriptor.ofConstructor(String.class, char[].class);
 
-    private final Rockstar.CastStmtContext ctx;
+    private final Expression source;
+    private Expression radix;
+    private Variable target;
 
     public Cast(Rockstar.CastStmtContext ctx) {
-        // For now, just save the ctx rather than unpacking it here
-        this.ctx = ctx;
+        Rockstar.ExpressionContext sourceExpression = ctx.expression().get(0);
+        source = new Expression(sourceExpression);
+
+        if (ctx.KW_WITH() != null) {
+            radix = new Expression(ctx.expression(1));
+        }
+
+        if (ctx.KW_INTO() != null) {
+            target = new Variable(ctx.variable(), double.class);
+        } else if (sourceExpression.variable() != null) {
+            target = new Variable(sourceExpression.variable());
+        }
     }
 
     public ResultHandle toCode(Block block) {
 
-        Rockstar.ExpressionContext sourceExpression = ctx.expression().get(0);
-        ResultHandle oldVal = new Expression(sourceExpression).getResultHandle(block);
+        TypedHandle oldVal = source.getTypedHandle(block, Expression.Context.NORMAL);
 
         BytecodeCreator method = block.method();
 
-        // Handle casting things that aren't strings
-        ResultHandle isString = method.instanceOf(oldVal, String.class);
-        BranchResult br = method.ifTrue(isString);
         AssignableResultHandle newVal = method.createVariable(Object.class);
 
-        BytecodeCreator isStringBranch = br.trueBranch();
-        if (ctx.KW_WITH() != null) {
-            //Satriani gives a NaN if the 'with' isn't 16, so this is doing better than it (although we ignore floating points because priorities)
-            ResultHandle intRadix = isStringBranch.invokeVirtualMethod(INTVALUE_METHOD,
-                    new Expression(ctx.expression(1)).getResultHandle(block));
-            ResultHandle parsedInteger = isStringBranch.invokeStaticMethod(RADIX_VALUE_OF_METHOD, oldVal, intRadix);
-            ResultHandle resultHandle = isStringBranch.invokeVirtualMethod(DOUBLE_FROM_INTEGER_METHOD, parsedInteger);
-            isStringBranch.assign(newVal, resultHandle);
+        // Handle casting things that aren't strings
+        // If we already know the type, only generate the code we need; instanceof checks on a primitive upset the verifier
+        if (oldVal.isNumber()) {
+            castNumber(method, oldVal.handle(), newVal);
+        } else if (oldVal.isString()) {
+            castString(block, method, oldVal.handle(), newVal);
         } else {
-            isStringBranch.assign(newVal, isStringBranch.invokeStaticMethod(VALUE_OF_METHOD, oldVal));
+            BranchResult br = method.ifTrue(method.instanceOf(oldVal.handle(), String.class));
+            castString(block, br.trueBranch(), oldVal.handle(), newVal);
+            castNumber(br.falseBranch(), oldVal.handle(), newVal);
         }
 
-        BytecodeCreator isNumberBranch = br.falseBranch();
-        isNumberBranch.assign(newVal, oldVal);
-        ResultHandle oldInt = isNumberBranch.invokeVirtualMethod(INTVALUE_METHOD, oldVal);
-        ResultHandle newChars = isNumberBranch.invokeStaticMethod(TO_CHARS_METHOD, oldInt);
-        isNumberBranch.assign(newVal, isNumberBranch.newInstance(STRING_FROM_CHARS_METHOD, newChars));
-
         // TODO nice error for cases where it isn't a number or string
-
-        Variable newVar;
-        if (ctx.KW_INTO() != null) {
-            newVar = new Variable(ctx.variable(), double.class);
-        } else {
+        if (target == null) {
             // If we don't have a variable to cast into, failure is appropriate
-            Rockstar.VariableContext variableCtx = sourceExpression.variable();
-            if (variableCtx == null) {
-                method.throwException(IllegalArgumentException.class, "Nothing to cast into.");
-                return null;
-            } else {
-                Variable oldVar = new Variable(variableCtx);
-                newVar = oldVar;
-            }
+            method.throwException(IllegalArgumentException.class, "Nothing to cast into.");
+            return null;
         }
-        newVar.write(block, newVal);
+        target.write(block, newVal);
 
         return newVal;
     }
+
+    public Expression getSource() {
+        return source;
+    }
+
+    public Expression getRadix() {
+        return radix;
+    }
+
+    public Variable getTarget() {
+        return target;
+    }
+
+    private void castString(Block block, BytecodeCreator method, ResultHandle oldVal, AssignableResultHandle newVal) {
+        if (radix != null) {
+            //Satriani gives a NaN if the 'with' isn't 16, so this is doing better than it (although we ignore floating points because priorities)
+            ResultHandle intRadix = method.invokeVirtualMethod(INTVALUE_METHOD,
+                    radix.getResultHandle(block));
+            ResultHandle parsedInteger = method.invokeStaticMethod(RADIX_VALUE_OF_METHOD, oldVal, intRadix);
+            ResultHandle resultHandle = method.invokeVirtualMethod(DOUBLE_FROM_INTEGER_METHOD, parsedInteger);
+            method.assign(newVal, resultHandle);
+        } else {
+            method.assign(newVal, method.invokeStaticMethod(VALUE_OF_METHOD, oldVal));
+        }
+    }
+
+    private static void castNumber(BytecodeCreator method, ResultHandle oldVal, AssignableResultHandle newVal) {
+        ResultHandle oldInt = method.invokeVirtualMethod(INTVALUE_METHOD, oldVal);
+        ResultHandle newChars = method.invokeStaticMethod(TO_CHARS_METHOD, oldInt);
+        method.assign(newVal, method.newInstance(STRING_FROM_CHARS_METHOD, newChars));
+    }
 }
@@ -0,0 +1,222 @@
+package io.quarkiverse.bonjova.compiler;
+
+import io.quarkiverse.bonjova.support.RockstarInput;
+import io.quarkiverse.bonjova.support.RockstarOutput;
+import io.quarkus.gizmo.AssignableResultHandle;
+import io.quarkus.gizmo.BranchResult;
+import io.quarkus.gizmo.BytecodeCreator;
+import io.quarkus.gizmo.CatchBlockCreator;
+import io.quarkus.gizmo.ClassCreator;
+import io.quarkus.gizmo.MethodCreator;
+import io.quarkus.gizmo.MethodDescriptor;
+import io.quarkus.gizmo.ResultHandle;
+import io.quarkus.gizmo.TryBlock;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.objectweb.asm.Opcodes.ACC_PRIVATE;
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ACC_STATIC;
+
+/**
+ * Turns a program tree into bytecode. Each statement knows how to generate its own code; this deals with the
+ * structure around them, such as scopes, methods, and jumps.
+ */
+public class CodeGenerator {
+
+    // The program itself goes in a method of its own, so that main can flush the output however it finishes
+    // Rockstar names can't have a $ in, so this can't clash with a function
+    static final String PROGRAM_METHOD = "program$";
+    private static final MethodDescriptor START_INPUT_METHOD = MethodDescriptor.ofMethod(RockstarInput.class, "start",
+            void.class, String[].class);
+    private static final MethodDescriptor FINISH_INPUT_METHOD = MethodDescriptor.ofMethod(RockstarInput.class, "finish",
+            void.class);
+    private static final MethodDescriptor FLUSH_METHOD = MethodDescriptor.ofMethod(RockstarOutput.class, "flush",
+            void.class);
+
+    private final ClassCreator creator;
+    private MethodCreator programMethod;
+    private SymbolTable symbols;
+    // For things like loops, break and continue need to jump to the top of the loop, which may include several intermediary scopes
+    private BytecodeCreator targetScopeForJumps;
+
+    public CodeGenerator(ClassCreator creator) {
+        this.creator = creator;
+    }
+
+    public void generate(Program program) {
+        symbols = TypeInference.infer(program);
+
+        programMethod = creator.getMethodCreator(PROGRAM_METHOD, void.class, String[].class);
+        programMethod.setModifiers(ACC_PRIVATE + ACC_STATIC);
+
+        Block block = new Block(null, programMethod, creator, new VariableScope(symbols), null);
+        for (String variableName : program.getRemovedVariables()) {
+            // Nothing might write these any more, but reading them should still give mysterious
+            Variable.named(variableName).declare(block);
+        }
+        statements(block, program.getStatements());
+        programMethod.returnVoid();
+
+        MethodCreator main = creator.getMethodCreator("main", void.class, String[].class);
+        main.setModifiers(ACC_PUBLIC + ACC_STATIC);
+        main.invokeStaticMethod(START_INPUT_METHOD, main.getMethodParam(0));
+        TryBlock run = main.tryBlock();
+        run.invokeStaticMethod(programMethod.getMethodDescriptor(), main.getMethodParam(0));
+        CatchBlockCreator failed = run.addCatch(Throwable.class);
+        // Whatever went wrong, the output up to that point should still appear
+        failed.invokeStaticMethod(FINISH_INPUT_METHOD);
+        failed.invokeStaticMethod(FLUSH_METHOD);
+        failed.throwException(failed.getCaughtException());
+        main.invokeStaticMethod(FINISH_INPUT_METHOD);
+        main.invokeStaticMethod(FLUSH_METHOD);
+        main.returnVoid();
+    }
+
+    private void statements(Block block, List<Statement> statements) {
+        for (Statement statement : statements) {
+            statement(block, statement);
+        }
+    }
+
+    private void statement(Block block, Statement statement) {
+        switch (statement) {
+            case StatementList list -> statements(childBlock(block, block.method().createScope()), list.statements());
+            case Function function -> function(block, function);
+            case Return returnStmt -> returnStmt.toCode(block);
+            case Condition condition -> condition(block, condition);
+            case Loop loop -> loop(block, loop);
+            case Assignment assignment -> assignment.toCode(block);
+            case Input input -> input.toCode(block);
+            case Output output -> output.toCode(block);
+            case Rounding rounding -> rounding.toCode(block);
+            case Increment increment -> increment.toCode(block);
+            case Decrement decrement -> decrement.toCode(block);
+            case Array array -> array.toCode(block);
+            case StringSplit split -> split.toCode(block);
+            case Cast cast -> cast.toCode(block);
+            case Join join -> join.toCode(block);
+            case Break ignored -> {
+                if (targetScopeForJumps != null) {
+                    block.method().breakScope(targetScopeForJumps);
+                } else {
+                    block.method().breakScope();
+                }
+            }
+            case Continue ignored -> {
+                if (targetScopeForJumps != null) {
+                    block.method().continueScope(targetScopeForJumps);
+                } else {
+                    // This is rather dodgy, but if we don't have an enclosing loop-y method, then a continue behaves like a break
+                    block.method().breakScope();
+                }
+            }
+        }
+    }
+
+    private void condition(Block block, Condition condition) {
+        BranchResult code = condition.toCode(block);
+        statements(childBlock(block, code.trueBranch()), condition.getBody());
+        if (condition.hasElse()) {
+            statements(childBlock(block, code.falseBranch()), condition.getElseBody());
+        }
+    }
+
+    private void loop(Block block, Loop loop) {
+        Expression expression = loop.getExpression();
+
+        // Loops can nest, so remember where jumps went before this one
+        BytecodeCreator enclosingTarget = targetScopeForJumps;
+        targetScopeForJumps = block.method().createScope();
+        Block loopBlock = childBlock(block, targetScopeForJumps);
+
+        BytecodeCreator body = loopBlock.method().whileLoop(method -> {
+            ResultHandle evaluated = expression.getResultHandle(childBlock(loopBlock, method),
+                    Expression.Context.BOOLEAN);
+            return loop.isUntil() ? method.ifFalse(evaluated) : method.ifTrue(evaluated);
+        }).block();
+        statements(childBlock(loopBlock, body.createScope()), loop.getBody());
+
+        targetScopeForJumps = enclosingTarget;
+    }
+
+    private void function(Block block, Function function) {
+        // A function creator in Gizmo is like a lambda, which is not really what we want, so use methods
+        //  If a variable is defined inside of a function, it is in local method. Local method variables are available from their initialization until the end of the function they are defined in.
+        //
+        //While within a function, if you write to a variable that has been defined in global method, you write to that variable; you do not define a new local variable.
+        List<Parameter> parameters = function.getParameters();
+        final MethodCreator fun;
+        // In this case passing a class array to the creator confuses it and doesn't get counted as the varargs
+        if (parameters.size() == 1) {
+            fun = creator.getMethodCreator(function.getName(), Object.class, Object.class);
+        } else {
+            Class<?>[] paramClasses = new Class[parameters.size()];
+            Arrays.fill(paramClasses, Object.class);
+            fun = creator.getMethodCreator(function.getName(), Object.class, paramClasses);
+        }
+        fun.setModifiers(ACC_PUBLIC + ACC_STATIC);
+        // New variable scope, since this is a function
+        VariableScope scope = new VariableScope(symbols);
+        Block functionBlock = new Block(null, fun, creator, scope, block);
+
+        fun.setParameterNames(parameters.stream()
+                .map(Variable::getVariableName)
+                .toList()
+                .toArray(new String[] {}));
+
+        // Parameters and function-only variables go in locals, so that recursive calls don't trample each other
+        // Declare them all up front, so every path through the method sees them initialised
+        int i = 0;
+        for (Parameter p : parameters) {
+            AssignableResultHandle local = fun.createVariable(Object.class);
+            fun.assign(local, fun.getMethodParam(i));
+            scope.putLocal(p.getVariableName(), local);
+            i++;
+        }
+        for (String variableName : symbols.getLocalVariables(function)) {
+            if (scope.getLocal(variableName) == null) {
+                Class<?> variableClass = scope.getVariableClass(variableName);
+                AssignableResultHandle local = fun.createVariable(variableClass);
+                fun.assign(local, getInitialValue(fun, variableClass));
+                scope.putLocal(variableName, local);
+            }
+        }
+
+        // If a variable only ever gets read straight after a write, Gizmo decides it can live on the stack and
+        // never stores it, which leaves our initial value dangling; reading each one in a scope of its own stops that
+        BytecodeCreator pin = fun.createScope();
+        for (AssignableResultHandle local : scope.getLocals()) {
+            pin.assign(local, local);
+        }
+
+        // Loops outside the function are no use as jump targets inside it
+        BytecodeCreator enclosingTarget = targetScopeForJumps;
+        targetScopeForJumps = null;
+        statements(functionBlock, function.getBody());
+        targetScopeForJumps = enclosingTarget;
+
+        List<Statement> body = function.getBody();
+        if (body.isEmpty() || !(body.get(body.size() - 1) instanceof Return)) {
+            // A function which never gets to a return gives back mysterious
+            fun.returnValue(fun.loadNull());
+        }
+    }
+
+    private static ResultHandle getInitialValue(BytecodeCreator method, Class<?> variableClass) {
+        // Typed variables are never read before they're written, so these defaults are only to keep the verifier happy
+        if (variableClass == double.class) {
+            return method.load(0d);
+        } else if (variableClass == boolean.class) {
+            return method.load(false);
+        } else {
+            // An unwritten variable is mysterious, just like an unset field
+            return method.loadNull();
+        }
+    }
+
+    private static Block childBlock(Block parent, BytecodeCreator method) {
+        return new Block(null, method, parent.creator(), parent.variables(), parent);
+    }
+}
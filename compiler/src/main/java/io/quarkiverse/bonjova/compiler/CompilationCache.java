@@ -0,0 +1,147 @@
+package io.quarkiverse.bonjova.compiler;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Class files from earlier compiles, kept on disk by a hash of everything that goes into them: the compiler itself,
+ * the name of the class, and the source. Timestamps don't come into it, so a fresh checkout of unchanged programs is
+ * all hits, and an edit is never missed however soon it comes after the last build.
+ */
+public class CompilationCache {
+
+    public static final String DEFAULT_DIRECTORY = "bonjova-cache";
+
+    // A different compiler can make a different class from the same source, so it's part of every key
+    private static final String COMPILER_HASH = hashCompiler();
+
+    private final Path dir;
+
+    public CompilationCache(Path dir) {
+        this.dir = dir;
+    }
+
+    /**
+     * The cache that belongs with classes written to the given directory, which is usually target/classes.
+     */
+    public static CompilationCache forOutputDirectory(File outputDirectory) {
+        File parent = outputDirectory.getAbsoluteFile().getParentFile();
+        return new CompilationCache(new File(parent, DEFAULT_DIRECTORY).toPath());
+    }
+
+    public Path getDirectory() {
+        return dir;
+    }
+
+    String key(byte[] source, String className) {
+        MessageDigest digest = sha256();
+        digest.update(COMPILER_HASH.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(className.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(source);
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Puts the cached class for this key in place, if there is one. A class file which is already right is left
+     * alone, because touching it would set dev mode off on another restart.
+     */
+    boolean restore(String key, File outFile) throws IOException {
+        Path entry = entry(key);
+        if (!Files.exists(entry)) {
+            return false;
+        }
+        Path target = outFile.toPath();
+        if (Files.exists(target) && Files.mismatch(entry, target) == -1) {
+            return true;
+        }
+        Files.createDirectories(target.toAbsolutePath().getParent());
+        copyAtomically(entry, target);
+        return true;
+    }
+
+    void store(String key, File classFile) throws IOException {
+        Files.createDirectories(dir);
+        copyAtomically(classFile.toPath(), entry(key));
+    }
+
+    private Path entry(String key) {
+        return dir.resolve(key + RockFileCompiler.DOT_CLASS);
+    }
+
+    // Other compiles can be reading and writing the same entries, so nobody should ever see half a file
+    private static void copyAtomically(Path from, Path to) throws IOException {
+        Path temp = Files.createTempFile(to.getParent(), to.getFileName().toString(), ".tmp");
+        try {
+            Files.copy(from, temp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temp, to, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static String hashCompiler() {
+        MessageDigest digest = sha256();
+        Path location = compilerLocation();
+        if (location == null) {
+            // No idea where we came from, so nothing from another run can be trusted
+            digest.update(Long.toString(System.nanoTime()).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        }
+        try {
+            if (Files.isDirectory(location)) {
+                // Running from target/classes, so look at every class rather than a jar
+                List<Path> classes;
+                try (Stream<Path> files = Files.walk(location)) {
+                    classes = files.filter(Files::isRegularFile).sorted().toList();
+                }
+                for (Path file : classes) {
+                    digest.update(location.relativize(file).toString().getBytes(StandardCharsets.UTF_8));
+                    digest.update(Files.readAllBytes(file));
+                }
+            } else {
+                try (InputStream stream = Files.newInputStream(location)) {
+                    digest.update(stream.readAllBytes());
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Can't tell which compiler this is", e);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static Path compilerLocation() {
+        CodeSource codeSource = CompilationCache.class.getProtectionDomain().getCodeSource();
+        if (codeSource == null || codeSource.getLocation() == null) {
+            return null;
+        }
+        try {
+            Path location = Path.of(codeSource.getLocation().toURI());
+            return Files.exists(location) ? location : null;
+        } catch (URISyntaxException | IllegalArgumentException | FileSystemNotFoundException e) {
+            return null;
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -4,13 +4,19 @@ import io.quarkus.gizmo.BranchResult;
 import io.quarkus.gizmo.ResultHandle;
 import rock.Rockstar;
 
-public class Condition {
+import java.util.List;
+
+public final class Condition implements Statement {
     private final boolean hasElse;
     Expression expression;
+    private final List<Statement> body;
+    private final List<Statement> elseBody;
 
     public Condition(Rockstar.IfStmtContext ctx) {
         expression = new Expression(ctx.expression());
         hasElse = ctx.KW_ELSE() != null;
+        body = Program.statements(ctx.statementList(0));
+        elseBody = hasElse ? Program.statements(ctx.statementList(1)) : List.of();
     }
 
     public BranchResult toCode(Block block) {
@@ -22,4 +28,16 @@ public class Condition {
     public boolean hasElse() {
         return hasElse;
     }
+
+    public Expression getExpression() {
+        return expression;
+    }
+
+    public List<Statement> getBody() {
+        return body;
+    }
+
+    public List<Statement> getElseBody() {
+        return elseBody;
+    }
 }
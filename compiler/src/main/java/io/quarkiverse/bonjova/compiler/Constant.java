@@ -1,17 +1,13 @@
 package io.quarkiverse.bonjova.compiler;
 
 import io.quarkiverse.bonjova.support.Nothing;
-import io.quarkus.gizmo.AssignableResultHandle;
-import io.quarkus.gizmo.BranchResult;
+import io.quarkiverse.bonjova.support.RockstarOps;
 import io.quarkus.gizmo.BytecodeCreator;
 import io.quarkus.gizmo.FieldDescriptor;
 import io.quarkus.gizmo.MethodDescriptor;
 import io.quarkus.gizmo.ResultHandle;
 import rock.Rockstar;
 
-import static io.quarkiverse.bonjova.compiler.BytecodeGeneratingListener.isBoolean;
-import static io.quarkiverse.bonjova.compiler.BytecodeGeneratingListener.isNumber;
-import static io.quarkiverse.bonjova.compiler.BytecodeGeneratingListener.isString;
 import static io.quarkiverse.bonjova.compiler.Expression.Operation.ADD;
 import static io.quarkiverse.bonjova.support.Nothing.NOTHING;
 import static io.quarkiverse.bonjova.support.Nothing.NULL;
@@ -22,20 +18,19 @@ public class Constant implements ValueHolder {
 
     public static final String MYSTERIOUS = "mysterious";
     private static final String EMPTY_STRING = "";
-    public static final MethodDescriptor COERCE_METHOD = MethodDescriptor.ofMethod(Nothing.class, "coerce", Object.class,
-            Object.class);
-    public static final MethodDescriptor COERCE_TO_STRING_METHOD = MethodDescriptor.ofMethod(Nothing.class, "coerceToString",
-            String.class);
-    public static final MethodDescriptor COERCE_TO_NUMBER_METHOD = MethodDescriptor.ofMethod(Nothing.class, "coerceToNumber",
-            Double.class);
-    public static final MethodDescriptor COERCE_TO_BOOLEAN_METHOD = MethodDescriptor.ofMethod(Nothing.class, "coerceToBoolean",
-            Boolean.class);
-    public static final MethodDescriptor COERCE_TO_SOMETHING_METHOD = MethodDescriptor.ofMethod(Nothing.class,
-            "coerceToSomething", Object.class);
+    public static final MethodDescriptor COERCE_METHOD = MethodDescriptor.ofMethod(RockstarOps.class, "coerceNothing",
+            Object.class, Object.class, Object.class);
+    public static final MethodDescriptor COERCE_METHOD_WITH_VISIBLE_NULLS = MethodDescriptor.ofMethod(RockstarOps.class,
+            "coerceNothingWithVisibleNulls", Object.class, Object.class, Object.class);
+    public static final MethodDescriptor COERCE_TO_STRING_METHOD = MethodDescriptor.ofMethod(RockstarOps.class,
+            "coerceNothingToString", Object.class, Object.class);
+    public static final MethodDescriptor COERCE_TO_NUMBER_METHOD = MethodDescriptor.ofMethod(RockstarOps.class,
+            "coerceNothingToNumber", Object.class, Object.class);
+    public static final MethodDescriptor COERCE_TO_BOOLEAN_METHOD = MethodDescriptor.ofMethod(RockstarOps.class,
+            "coerceNothingToBoolean", Object.class, Object.class);
+    public static final MethodDescriptor COERCE_TO_SOMETHING_METHOD = MethodDescriptor.ofMethod(RockstarOps.class,
+            "coerceNothingToSomething", Object.class, Object.class);
     public static final FieldDescriptor NOTHING_FIELD = FieldDescriptor.of(Nothing.class, "NOTHING", Nothing.class);
-    public static final MethodDescriptor COERCE_METHOD_WITH_VISIBLE_NULLS = MethodDescriptor.ofMethod(Nothing.class,
-            "coerceWithVisibleNulls", Object.class,
-            Object.class);
     private Class<?> valueClass;
     private Object value;
 
@@ -62,79 +57,54 @@ public class Constant implements ValueHolder {
                 value = null;
                 valueClass = null;
             }
-
-            valueClass = Object.class;
         }
     }
 
-    public static ResultHandle coerceNothingIntoType(BytecodeCreator method, ResultHandle original,
-            ResultHandle referenceHandle, Expression.Operation operation) {
-        AssignableResultHandle answer = method.createVariable(Object.class);
-        // Don't do instanceof checks on a primitive
-        if (isNumber(original) || isBoolean(original)) {
+    public static TypedHandle coerceNothingIntoType(BytecodeCreator method, TypedHandle original,
+            TypedHandle reference, Expression.Operation operation) {
+        // A primitive can't be nothing
+        if (original.isPrimitive()) {
             // TODO could also bypass stuff for strings? except for mysterious
             return original;
+        } else if (reference.isNumber()) {
+            // Save boxing the reference when we already know which way the coercion will go
+            return TypedHandle.object(method.invokeStaticMethod(COERCE_TO_NUMBER_METHOD, original.handle()));
+        } else if (reference.isBoolean()) {
+            return TypedHandle.object(method.invokeStaticMethod(COERCE_TO_BOOLEAN_METHOD, original.handle()));
         } else {
-            ResultHandle checkResult = method.instanceOf(original, Nothing.class);
-            BranchResult br = method.ifTrue(checkResult);
-            BytecodeCreator isInstance = br.trueBranch();
-            ResultHandle nothingHandle = isInstance.checkCast(original, Nothing.class);
-            if (operation == ADD) {
-                isInstance.assign(answer, isInstance.invokeVirtualMethod(
-                        COERCE_METHOD_WITH_VISIBLE_NULLS, nothingHandle, referenceHandle));
-            } else {
-                isInstance.assign(answer, isInstance.invokeVirtualMethod(
-                        COERCE_METHOD, nothingHandle, referenceHandle));
-            }
-
-            BytecodeCreator isNotInstance = br.falseBranch();
-            // In this case, we can just return the original
-            isNotInstance.assign(answer, original);
-            return answer;
+            return TypedHandle.object(method.invokeStaticMethod(
+                    operation == ADD ? COERCE_METHOD_WITH_VISIBLE_NULLS : COERCE_METHOD, original.handle(),
+                    reference.handle()));
         }
 
     }
 
-    public static ResultHandle coerceNothingIntoType(Block block, ResultHandle original,
+    public static TypedHandle coerceNothingIntoType(Block block, TypedHandle original,
             Expression.Context context) {
         BytecodeCreator method = block.method();
-        AssignableResultHandle answer = method.createVariable(Object.class);
-        // Don't do instanceof checks on a primitive
-        if (isNumber(original) || isBoolean(original)) {
+        // A primitive can't be nothing
+        if (original.isPrimitive()) {
             // TODO could also bypass stuff for strings? except for mysterious
             return original;
+        }
+        MethodDescriptor coercion;
+        if (context == Expression.Context.STRING) {
+            coercion = COERCE_TO_STRING_METHOD;
+        } else if (context == Expression.Context.SCALAR) {
+            coercion = COERCE_TO_NUMBER_METHOD;
+        } else if (context == Expression.Context.BOOLEAN) {
+            coercion = COERCE_TO_BOOLEAN_METHOD;
         } else {
-            ResultHandle checkResult = method.instanceOf(original, Nothing.class);
-            BranchResult br = method.ifTrue(checkResult);
-            BytecodeCreator isInstance = br.trueBranch();
-            ResultHandle nothingHandle = isInstance.checkCast(original, Nothing.class);
-            if (context == Expression.Context.STRING) {
-                isInstance.assign(answer, isInstance.invokeVirtualMethod(
-                        COERCE_TO_STRING_METHOD, nothingHandle));
-            } else if (context == Expression.Context.SCALAR) {
-                isInstance.assign(answer, isInstance.invokeVirtualMethod(
-                        COERCE_TO_NUMBER_METHOD, nothingHandle));
-            } else if (context == Expression.Context.BOOLEAN) {
-                isInstance.assign(answer, isInstance.invokeVirtualMethod(
-                        COERCE_TO_BOOLEAN_METHOD, nothingHandle));
-            } else {
-                isInstance.assign(answer, isInstance.invokeVirtualMethod(
-                        COERCE_TO_SOMETHING_METHOD, nothingHandle));
-            }
-
-            BytecodeCreator isNotInstance = br.falseBranch();
-            // In this case, we can just return the original
-            isNotInstance.assign(answer, original);
-            return answer;
+            coercion = COERCE_TO_SOMETHING_METHOD;
         }
-
+        return TypedHandle.object(method.invokeStaticMethod(coercion, original.handle()));
     }
 
-    public static ResultHandle coerceMysteriousIntoType(BytecodeCreator method, ResultHandle referenceHandle) {
-        if (isString(referenceHandle)) {
-            return method.load(MYSTERIOUS);
+    public static TypedHandle coerceMysteriousIntoType(BytecodeCreator method, TypedHandle reference) {
+        if (reference.isString()) {
+            return new TypedHandle(method.load(MYSTERIOUS), String.class);
         } else {
-            return method.loadNull();
+            return TypedHandle.object(method.loadNull());
         }
     }
 
@@ -154,33 +124,29 @@ public class Constant implements ValueHolder {
         return valueClass;
     }
 
-    public ResultHandle getResultHandle(Block block) {
-        return getResultHandle(block, Expression.Context.NORMAL);
-    }
-
-    public ResultHandle getResultHandle(Block block, Expression.Context context) {
+    public TypedHandle getTypedHandle(Block block, Expression.Context context) {
         BytecodeCreator method = block.method();
         // The only options are true or false, empty string, nothing, or null
-        ResultHandle answer;
+        TypedHandle answer;
         if (value == TRUE || value == FALSE) {
-            answer = method.load((boolean) value);
+            answer = new TypedHandle(method.load((boolean) value), boolean.class);
         } else if (value == EMPTY_STRING) {
-            answer = method.load(EMPTY_STRING);
+            answer = new TypedHandle(method.load(EMPTY_STRING), String.class);
         } else if (value == NOTHING) { // We can't coerce here, because we have nothing to use as a reference type
             if (context == Expression.Context.NORMAL) {
                 // TODO at what point should we coerce? is it here, or do we pass nothing around?
                 // TODO combine these - we cannot coerce because we do not have a reference type
-                answer = method.readStaticField(NOTHING_FIELD);
+                answer = new TypedHandle(method.readStaticField(NOTHING_FIELD), Nothing.class);
             } else if (context == Expression.Context.BOOLEAN || context == Expression.Context.SCALAR
                     || context == Expression.Context.STRING) {
                 // TODO what about the other contexts?
                 answer = coerceNothingIntoType(method, context);
             } else {
-                answer = method.readStaticField(NOTHING_FIELD);
+                answer = new TypedHandle(method.readStaticField(NOTHING_FIELD), Nothing.class);
             }
 
         } else if (value == null) {
-            answer = method.loadNull();
+            answer = TypedHandle.object(method.loadNull());
         } else {
             throw new RuntimeException("Confused constant: Could not interpret type " + valueClass + " with value " + value);
         }
@@ -188,15 +154,15 @@ public class Constant implements ValueHolder {
     }
 
     // TODO change names to make it clear that this is for null, the other is checking
-    private ResultHandle coerceNothingIntoType(BytecodeCreator method, Expression.Context context) {
+    private TypedHandle coerceNothingIntoType(BytecodeCreator method, Expression.Context context) {
         // TODO consolidate this with the other checking logic
         if (context == Expression.Context.BOOLEAN) {
-            return method.load(false);
+            return new TypedHandle(method.load(false), boolean.class);
         } else if (context == Expression.Context.SCALAR) {
-            return method.load(0d);
+            return new TypedHandle(method.load(0d), double.class);
         } // TODO do we need a context for strings?
         else {
-            return method.load(NULL);
+            return new TypedHandle(method.load(NULL), String.class);
         }
     }
 }
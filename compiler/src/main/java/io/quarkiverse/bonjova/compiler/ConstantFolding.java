@@ -0,0 +1,319 @@
+package io.quarkiverse.bonjova.compiler;
+
+import io.quarkiverse.bonjova.support.RockstarOps;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Works out, at compile time, anything which only depends on literals, so that the generated code doesn't have to. Once
+ * that's done, conditions and loops on constants either always or never run, and can be simplified, and anything after
+ * a break, continue, or return can never run at all.
+ * <p>
+ * Folding has to give exactly the answer the generated code would have, so wherever the generated code would call the
+ * runtime library, we call it too. If it blows up, we leave the expression alone, so the program blows up at the right
+ * moment.
+ */
+public class ConstantFolding {
+
+    private final Set<String> removedVariables;
+
+    private ConstantFolding(Program program) {
+        this.removedVariables = program.getRemovedVariables();
+    }
+
+    public static void fold(Program program) {
+        new ConstantFolding(program).statements(program.getStatements());
+    }
+
+    private void statements(List<Statement> statements) {
+        if (statements.isEmpty()) {
+            return;
+        }
+
+        List<Statement> kept = new ArrayList<>();
+        boolean reachable = true;
+        for (Statement statement : statements) {
+            if (!reachable && !(statement instanceof Function)) {
+                // Functions are declarations, so they still count even after a jump
+                forget(statement);
+                continue;
+            }
+            Statement simplified = statement(statement);
+            if (simplified != null) {
+                kept.add(simplified);
+            }
+            if (statement instanceof Break || statement instanceof Continue || statement instanceof Return) {
+                reachable = false;
+            }
+        }
+
+        statements.clear();
+        statements.addAll(kept);
+    }
+
+    /**
+     * Returns what should replace the statement, or null if it can go completely.
+     */
+    private Statement statement(Statement statement) {
+        switch (statement) {
+            case StatementList list -> statements(list.statements());
+            case Function function -> statements(function.getBody());
+            case Return returnStmt -> expression(returnStmt.getExpression());
+            case Condition condition -> {
+                expression(condition.getExpression());
+                statements(condition.getBody());
+                statements(condition.getElseBody());
+
+                Boolean truth = truthiness(condition.getExpression());
+                if (truth != null) {
+                    List<Statement> taken = truth ? condition.getBody() : condition.getElseBody();
+                    List<Statement> skipped = truth ? condition.getElseBody() : condition.getBody();
+                    skipped.forEach(this::forget);
+                    // The branch gets a scope of its own, so that a loose break still only leaves the branch
+                    return taken.isEmpty() ? null : new StatementList(taken);
+                }
+            }
+            case Loop loop -> {
+                expression(loop.getExpression());
+                statements(loop.getBody());
+
+                Boolean truth = truthiness(loop.getExpression());
+                if (truth != null && truth == loop.isUntil()) {
+                    // This loop never goes round even once
+                    forget(loop);
+                    return null;
+                }
+            }
+            case Assignment assignment -> {
+                if (assignment.getExpression() != null) {
+                    expression(assignment.getExpression());
+                }
+            }
+            case Output output -> expression(output.getExpression());
+            case Array array -> {
+                if (array.getInitialContents() != null) {
+                    array.getInitialContents().forEach(this::expression);
+                }
+                if (array.getIndex() != null) {
+                    expression(array.getIndex());
+                    expression(array.getPlacedValue());
+                }
+            }
+            case StringSplit split -> {
+                expression(split.getSource());
+                if (split.getDelimiter() != null) {
+                    expression(split.getDelimiter());
+                }
+            }
+            case Cast cast -> {
+                expression(cast.getSource());
+                if (cast.getRadix() != null) {
+                    expression(cast.getRadix());
+                }
+            }
+            case Join join -> {
+                if (join.getDelimiter() != null) {
+                    expression(join.getDelimiter());
+                }
+            }
+            case Input ignored -> {
+            }
+            case Rounding ignored -> {
+            }
+            case Increment ignored -> {
+            }
+            case Decrement ignored -> {
+            }
+            case Break ignored -> {
+            }
+            case Continue ignored -> {
+            }
+        }
+        return statement;
+    }
+
+    private void expression(Expression expression) {
+        // Fold from the bottom up, so that bigger and bigger expressions become constant
+        if (expression.getLhe() != null) {
+            expression(expression.getLhe());
+        }
+        if (expression.getRhe() != null) {
+            expression(expression.getRhe());
+        }
+        if (expression.getExtraRhes() != null) {
+            expression.getExtraRhes().forEach(this::expression);
+        }
+        if (expression.getParams() != null) {
+            expression.getParams().forEach(this::expression);
+        }
+        if (expression.getArrayAccessIndex() != null) {
+            expression(expression.getArrayAccessIndex());
+        }
+
+        Object folded;
+        try {
+            folded = evaluate(expression);
+        } catch (RuntimeException e) {
+            // Let the program fail when it gets here, not when it gets compiled
+            folded = null;
+        }
+        if (folded != null) {
+            expression.replaceWithLiteral(new Literal(folded));
+        }
+    }
+
+    /**
+     * Returns the value of the expression, or null if it isn't constant (or it is mysterious, which is no help).
+     */
+    private static Object evaluate(Expression expression) {
+        if (expression.isNegation()) {
+            Boolean truth = truthiness(expression.getRhe());
+            return truth == null ? null : !truth;
+        }
+
+        Expression.Operation operation = expression.getOperation();
+        if (operation == null) {
+            return null;
+        }
+        Object lhs = constantValue(expression.getLhe());
+        Object rhs = constantValue(expression.getRhe());
+        if (lhs == null || rhs == null) {
+            return null;
+        }
+
+        switch (operation) {
+            case ADD, SUBTRACT, MULTIPLY, DIVIDE -> {
+                Object answer = arithmetic(operation, lhs, rhs);
+                for (Expression extra : expression.getExtraRhes()) {
+                    Object value = constantValue(extra);
+                    if (value == null) {
+                        return null;
+                    }
+                    answer = arithmetic(operation, answer, value);
+                }
+                return answer;
+            }
+            case CONJUNCTION, DISJUNCTION, JOINT_DENIAL -> {
+                // The generated code only really copes with booleans here, so don't guess about anything else
+                if (lhs instanceof Boolean l && rhs instanceof Boolean r) {
+                    return switch (operation) {
+                        case CONJUNCTION -> l && r;
+                        case DISJUNCTION -> l || r;
+                        default -> !l && !r;
+                    };
+                }
+                return null;
+            }
+            case EQUALITY_CHECK -> {
+                return equal(lhs, rhs);
+            }
+            case INEQUALITY_CHECK -> {
+                return !equal(lhs, rhs);
+            }
+            default -> {
+                return compare(operation, lhs, rhs);
+            }
+        }
+    }
+
+    private static Object arithmetic(Expression.Operation operation, Object lhs, Object rhs) {
+        if (lhs instanceof Double l && rhs instanceof Double r) {
+            return switch (operation) {
+                case ADD -> l + r;
+                case SUBTRACT -> l - r;
+                case MULTIPLY -> l * r;
+                default -> l / r;
+            };
+        }
+        return switch (operation) {
+            case ADD -> RockstarOps.add(lhs, rhs);
+            case SUBTRACT -> RockstarOps.subtract(lhs, rhs);
+            case MULTIPLY -> RockstarOps.multiply(lhs, rhs);
+            default -> RockstarOps.divide(lhs, rhs);
+        };
+    }
+
+    private static boolean equal(Object lhs, Object rhs) {
+        return RockstarOps.equal(lhs, rhs);
+    }
+
+    private static boolean compare(Expression.Operation operation, Object lhs, Object rhs) {
+        // Just what the generated code would call, so NaN makes every comparison false here too
+        boolean lessThan = operation == Expression.Operation.LESS_THAN_CHECK
+                || operation == Expression.Operation.LESS_OR_EQUAL_THAN_CHECK;
+        int comparison = lessThan ? RockstarOps.compareNanIsGreater(lhs, rhs) : RockstarOps.compare(lhs, rhs);
+        return switch (operation) {
+            case GREATER_THAN_CHECK -> comparison > 0;
+            case LESS_THAN_CHECK -> comparison < 0;
+            case GREATER_OR_EQUAL_THAN_CHECK -> comparison >= 0;
+            default -> comparison <= 0;
+        };
+    }
+
+    /**
+     * What the expression would be in a boolean context, or null if we can't know until it runs.
+     */
+    private static Boolean truthiness(Expression expression) {
+        Object value = constantValue(expression);
+        if (value instanceof Double d) {
+            // Typed numbers get compared with zero, rather than going through the runtime library
+            return d != 0;
+        } else if (value != null) {
+            return RockstarOps.truthy(value);
+        }
+        return null;
+    }
+
+    /**
+     * Only literals and the simple constants count; nothing and mysterious change depending on what's around them.
+     */
+    private static Object constantValue(Expression expression) {
+        if (expression.getValueHolder() instanceof Literal literal) {
+            return literal.getValue();
+        } else if (expression.getValueHolder() instanceof Constant constant
+                && (constant.getValueClass() == boolean.class || constant.getValueClass() == String.class)) {
+            return constant.getValue();
+        }
+        return null;
+    }
+
+    /**
+     * Code which is never going to run still mentions variables, and reading those should give mysterious, rather than
+     * failing to compile, so keep a note of them.
+     */
+    private void forget(Statement statement) {
+        switch (statement) {
+            case StatementList list -> list.statements().forEach(this::forget);
+            case Condition condition -> {
+                condition.getBody().forEach(this::forget);
+                condition.getElseBody().forEach(this::forget);
+            }
+            case Loop loop -> loop.getBody().forEach(this::forget);
+            case Assignment assignment -> removedVariables.add(assignment.getVariableName());
+            case Input input -> removedVariables.add(input.getVariableName());
+            case Rounding rounding -> removedVariables.add(rounding.getVariable().getVariableName());
+            case Increment increment -> removedVariables.add(increment.getVariable().getVariableName());
+            case Decrement decrement -> removedVariables.add(decrement.getVariable().getVariableName());
+            case Array array -> removedVariables.add(array.getVariableName());
+            case StringSplit split -> removedVariables.add(split.getVariableName());
+            case Cast cast -> {
+                if (cast.getTarget() != null) {
+                    removedVariables.add(cast.getTarget().getVariableName());
+                }
+            }
+            case Join join -> removedVariables.add(join.getTarget().getVariableName());
+            case Function ignored -> {
+            }
+            case Return ignored -> {
+            }
+            case Output ignored -> {
+            }
+            case Break ignored -> {
+            }
+            case Continue ignored -> {
+            }
+        }
+    }
+}
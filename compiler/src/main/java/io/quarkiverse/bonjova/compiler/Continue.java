@@ -0,0 +1,4 @@
+package io.quarkiverse.bonjova.compiler;
+
+public record Continue() implements Statement {
+}
@@ -0,0 +1,67 @@
+package io.quarkiverse.bonjova.compiler;
+
+import io.quarkus.gizmo.AssignableResultHandle;
+import io.quarkus.gizmo.BranchResult;
+import io.quarkus.gizmo.BytecodeCreator;
+import io.quarkus.gizmo.ResultHandle;
+import rock.Rockstar;
+
+import static io.quarkiverse.bonjova.compiler.Increment.DOUBLE_VALUE;
+
+public final class Decrement implements Statement {
+
+    private final Variable variable;
+    private final int count;
+
+    public Decrement(Rockstar.DecrementStmtContext ctx) {
+        variable = new Variable(ctx.variable());
+        count = ctx.downs()
+                .KW_DOWN()
+                .size();
+    }
+
+    public Variable getVariable() {
+        return variable;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public void toCode(Block block) {
+        BytecodeCreator method = block.method();
+        TypedHandle minusOne = new TypedHandle(method.load(-1d), double.class);
+
+        for (int i = 0; i < count; i++) {
+
+            TypedHandle value = variable.getTypedHandle(block, Expression.Context.NORMAL);
+
+            if (value.isNumber()) {
+                variable.write(block, method.add(value.handle(), minusOne.handle()));
+                continue;
+            }
+
+            // This intermediate variable is useful to give a bit of flexibility about types
+            AssignableResultHandle decremented = method.createVariable(Object.class);
+            value = Constant.coerceNothingIntoType(method, value, minusOne, Expression.Operation.ADD);
+
+            if (value.isString()) {
+                // We can't decrement a string, and the types go a bit weird, so just use a string NaN
+                method.assign(decremented, method.load("NaN"));
+            } else {
+                // As with increments, test the type rather than waiting for a cast to fail
+                BranchResult br = method.ifTrue(method.instanceOf(value.handle(), String.class));
+                // TODO unless it is a boolean ...
+                br.trueBranch().assign(decremented, br.trueBranch().load("NaN"));
+
+                // Mysterious ends up here too, and fails, as it should
+                BytecodeCreator numberCase = br.falseBranch();
+                ResultHandle primitive = numberCase.invokeVirtualMethod(DOUBLE_VALUE,
+                        numberCase.checkCast(value.handle(), Double.class));
+                numberCase.assign(decremented, numberCase.add(primitive, minusOne.handle()));
+            }
+
+            variable.write(block, decremented);
+        }
+    }
+}
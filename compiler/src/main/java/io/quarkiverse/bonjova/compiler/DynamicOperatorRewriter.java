@@ -0,0 +1,72 @@
+package io.quarkiverse.bonjova.compiler;
+
+import io.quarkiverse.bonjova.support.RockstarLinker;
+import io.quarkiverse.bonjova.support.RockstarOps;
+import io.quarkus.gizmo.ClassOutput;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Set;
+
+import static org.objectweb.asm.Opcodes.ASM9;
+import static org.objectweb.asm.Opcodes.H_INVOKESTATIC;
+import static org.objectweb.asm.Opcodes.INVOKESTATIC;
+
+/**
+ * Gizmo can't generate invokedynamic instructions, so we let it generate plain calls into {@link RockstarOps}, and then
+ * swap the operator calls for invokedynamic ones on the way out. The descriptors stay the same, so the stack doesn't
+ * change shape and the existing frames are still good.
+ */
+public class DynamicOperatorRewriter implements ClassOutput {
+
+    static final Set<String> OPERATORS = Set.of("add", "subtract", "multiply", "divide", "compare", "compareNanIsGreater",
+            "equal");
+
+    private static final String OPS = Type.getInternalName(RockstarOps.class);
+    private static final Handle BOOTSTRAP = new Handle(H_INVOKESTATIC, Type.getInternalName(RockstarLinker.class),
+            "bootstrap",
+            MethodType.methodType(CallSite.class, MethodHandles.Lookup.class, String.class, MethodType.class)
+                    .toMethodDescriptorString(),
+            false);
+
+    private final ClassOutput delegate;
+
+    public DynamicOperatorRewriter(ClassOutput delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void write(String name, byte[] bytes) {
+        delegate.write(name, rewrite(bytes));
+    }
+
+    static byte[] rewrite(byte[] bytes) {
+        ClassReader reader = new ClassReader(bytes);
+        ClassWriter writer = new ClassWriter(reader, 0);
+        reader.accept(new ClassVisitor(ASM9, writer) {
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String descriptor, String signature,
+                    String[] exceptions) {
+                return new MethodVisitor(ASM9, super.visitMethod(access, name, descriptor, signature, exceptions)) {
+                    @Override
+                    public void visitMethodInsn(int opcode, String owner, String name, String descriptor,
+                            boolean isInterface) {
+                        if (opcode == INVOKESTATIC && OPS.equals(owner) && OPERATORS.contains(name)) {
+                            super.visitInvokeDynamicInsn(name, descriptor, BOOTSTRAP);
+                        } else {
+                            super.visitMethodInsn(opcode, owner, name, descriptor, isInterface);
+                        }
+                    }
+                };
+            }
+        }, 0);
+        return writer.toByteArray();
+    }
+}
@@ -1,20 +1,13 @@
 package io.quarkiverse.bonjova.compiler;
 
-import io.quarkiverse.bonjova.support.RockstarArray;
+import io.quarkiverse.bonjova.support.RockstarOps;
 import io.quarkus.gizmo.AssignableResultHandle;
 import io.quarkus.gizmo.BranchResult;
 import io.quarkus.gizmo.BytecodeCreator;
-import io.quarkus.gizmo.CatchBlockCreator;
-import io.quarkus.gizmo.FieldDescriptor;
-import io.quarkus.gizmo.Gizmo;
 import io.quarkus.gizmo.MethodDescriptor;
 import io.quarkus.gizmo.ResultHandle;
-import io.quarkus.gizmo.TryBlock;
 import rock.Rockstar;
 
-import java.math.BigDecimal;
-import java.math.MathContext;
-import java.text.DecimalFormat;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -22,33 +15,35 @@ import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import static io.quarkiverse.bonjova.compiler.BytecodeGeneratingListener.isBoolean;
-import static io.quarkiverse.bonjova.compiler.BytecodeGeneratingListener.isNumber;
-import static io.quarkiverse.bonjova.compiler.BytecodeGeneratingListener.isObject;
 import static io.quarkiverse.bonjova.compiler.Constant.coerceMysteriousIntoType;
 import static io.quarkiverse.bonjova.compiler.Constant.coerceNothingIntoType;
 import static io.quarkiverse.bonjova.support.Nothing.NOTHING;
 
 public class Expression {
 
-    public static final MethodDescriptor DECIMAL_FORMAT_METHOD = MethodDescriptor.ofMethod(DecimalFormat.class, "format",
-            String.class, double.class);
-
-    private static final MethodDescriptor BOOLEAN_VALUE_OF_METHOD = MethodDescriptor.ofMethod(Boolean.class, "booleanValue",
-            boolean.class);
-    private static final MethodDescriptor CONCAT_METHOD = MethodDescriptor.ofMethod(String.class, "concat", String.class,
-            String.class);
-    private static final MethodDescriptor COMPARE_TO_METHOD = MethodDescriptor.ofMethod(Comparable.class, "compareTo", "I",
-            Object.class);
-    private static final MethodDescriptor EQUALITY_METHOD = MethodDescriptor.ofMethod(Object.class, "equals", "Z",
-            Object.class);
-    private static final MethodDescriptor DOUBLE_CREATOR = MethodDescriptor.ofConstructor(Double.class, double.class);
-    private static final MethodDescriptor constructor = MethodDescriptor.ofConstructor(BigDecimal.class, double.class);
-    private static final MethodDescriptor divide = MethodDescriptor.ofMethod(BigDecimal.class, "divide", BigDecimal.class,
-            BigDecimal.class, MathContext.class);
-    private static final MethodDescriptor toDouble = MethodDescriptor.ofMethod(BigDecimal.class, "doubleValue", double.class);
-
-    FieldDescriptor mathContext = FieldDescriptor.of(MathContext.class, "DECIMAL32", MathContext.class);
+    // These do the work when we don't know the types at compile time
+    private static final MethodDescriptor ADD_METHOD = MethodDescriptor.ofMethod(RockstarOps.class, "add", Object.class,
+            Object.class, Object.class);
+    private static final MethodDescriptor SUBTRACT_METHOD = MethodDescriptor.ofMethod(RockstarOps.class, "subtract",
+            double.class, Object.class, Object.class);
+    private static final MethodDescriptor MULTIPLY_METHOD = MethodDescriptor.ofMethod(RockstarOps.class, "multiply",
+            double.class, Object.class, Object.class);
+    private static final MethodDescriptor DIVIDE_METHOD = MethodDescriptor.ofMethod(RockstarOps.class, "divide",
+            double.class, Object.class, Object.class);
+    private static final MethodDescriptor COMPARE_METHOD = MethodDescriptor.ofMethod(RockstarOps.class, "compare", int.class,
+            Object.class, Object.class);
+    private static final MethodDescriptor COMPARE_NAN_IS_GREATER_METHOD = MethodDescriptor.ofMethod(RockstarOps.class,
+            "compareNanIsGreater", int.class, Object.class, Object.class);
+    private static final MethodDescriptor COMPARE_NUMBERS_METHOD = MethodDescriptor.ofMethod(RockstarOps.class,
+            "compareNumbers", int.class, double.class, double.class, boolean.class);
+    private static final MethodDescriptor EQUAL_NUMBERS_METHOD = MethodDescriptor.ofMethod(RockstarOps.class,
+            "equalNumbers", boolean.class, double.class, double.class);
+    private static final MethodDescriptor EQUALITY_METHOD = MethodDescriptor.ofMethod(RockstarOps.class, "equal",
+            boolean.class, Object.class, Object.class);
+    private static final MethodDescriptor TRUTHY_METHOD = MethodDescriptor.ofMethod(RockstarOps.class, "truthy",
+            boolean.class, Object.class);
+    private static final MethodDescriptor TO_SCALAR_METHOD = MethodDescriptor.ofMethod(RockstarOps.class, "toScalar",
+            Object.class, Object.class);
     private final String text;
     private String function;
     private Class<?> valueClass;
@@ -248,17 +243,24 @@ public class Expression {
     }
 
     private AssignableResultHandle doComparison(Block block, Checker comparison,
-            ResultHandle lrh, ResultHandle rrh) {
+            TypedHandle lrh, TypedHandle rrh) {
         BytecodeCreator method = block.method();
 
-        ResultHandle safeLrh = coerceAwayNothing(method, lrh, rrh);
-
-        ResultHandle safeRrh = coerceAwayNothing(method, rrh, lrh);
+        // NaN should make every comparison false, so it has to count as bigger for the less than checks
+        boolean nanIsGreater = operation == Operation.LESS_THAN_CHECK || operation == Operation.LESS_OR_EQUAL_THAN_CHECK;
+        ResultHandle comparisonResult;
+        if (lrh.isNumber() && rrh.isNumber()) {
+            // No need to box anything
+            comparisonResult = method.invokeStaticMethod(COMPARE_NUMBERS_METHOD, lrh.handle(), rrh.handle(),
+                    method.load(nanIsGreater));
+        } else {
+            comparisonResult = method.invokeStaticMethod(nanIsGreater ? COMPARE_NAN_IS_GREATER_METHOD : COMPARE_METHOD,
+                    lrh.handle(), rrh.handle());
+        }
+        return checkToBoolean(method, comparison.doCheck(comparisonResult));
+    }
 
-        ResultHandle equalityCheck = method.invokeInterfaceMethod(
-                COMPARE_TO_METHOD,
-                safeLrh, safeRrh);
-        BranchResult result = comparison.doCheck(equalityCheck);
+    private static AssignableResultHandle checkToBoolean(BytecodeCreator method, BranchResult result) {
         AssignableResultHandle answer = method.createVariable("Z");
         BytecodeCreator trueBranch = result.trueBranch();
         trueBranch.assign(answer, method.load(true));
@@ -280,16 +282,20 @@ public class Expression {
     }
 
     public ResultHandle getResultHandle(Block block, Context context) {
+        return getTypedHandle(block, context).handle();
+    }
+
+    public TypedHandle getTypedHandle(Block block, Context context) {
 
-        ResultHandle handle;
+        TypedHandle handle;
         if (function != null) {
-            handle = getHandleForFunction(block);
+            handle = TypedHandle.object(getHandleForFunction(block));
         } else if (operation != null) {
             handle = getHandleForOperation(block);
         } else if (unaryOperation != null) {
-            handle = getHandleForUnaryOperation(block);
+            handle = new TypedHandle(getHandleForUnaryOperation(block), boolean.class);
         } else if (arrayAccess != null) {
-            handle = getHandleForArray(block);
+            handle = TypedHandle.object(getHandleForArray(block));
         } else if (variable != null) {
             handle = getHandleForVariable(block, context);
         } else {
@@ -300,48 +306,20 @@ public class Expression {
         BytecodeCreator method = block.method();
 
         // Now do an extra check if the context was boolean
-        if (context == Context.BOOLEAN && !isBoolean(handle)) {
-            AssignableResultHandle bool = method.createVariable(boolean.class);
-            method.assign(bool, method.load(1));
-
-            // This could still be a boolean, so check
-            BytecodeCreator notBoolean;
-            if (!isNumber(handle)) {
-                ResultHandle isBoolean = method.instanceOf(handle, Boolean.class);
-                BranchResult branchResult = method.ifTrue(isBoolean);
-                BytecodeCreator booleanB = branchResult.trueBranch();
-                // The boxing is needed to avoid verify errors
-                booleanB.assign(bool,
-                        booleanB.invokeVirtualMethod(BOOLEAN_VALUE_OF_METHOD, booleanB.checkCast(handle, Boolean.class)));
-
-                // If not, check if this is 0, which we should convert to false
-                notBoolean = branchResult.falseBranch();
-            } else {
-                notBoolean = method;
-            }
-
-            ResultHandle falsey = method.load(0);
-            BranchResult nullCheck = notBoolean.ifNull(handle);
-            nullCheck.trueBranch().assign(bool, falsey);
-            BytecodeCreator notNull = nullCheck.falseBranch();
-            ResultHandle doub = notNull.newInstance(DOUBLE_CREATOR, notNull.load(0d));
-            BytecodeCreator isZero = notNull.ifTrue(
-                    notNull.invokeVirtualMethod(EQUALITY_METHOD, doub, handle)).trueBranch();
-            isZero.assign(bool, falsey);
-
-            return bool;
+        if (context == Context.BOOLEAN && handle.isNumber()) {
+            // A plain number is only falsy if it's zero, which we can check without boxing
+            return new TypedHandle(checkToBoolean(method,
+                    method.ifNonZero(method.compareDouble(handle.handle(), method.load(0d), false))), boolean.class);
+        } else if (context == Context.BOOLEAN && !handle.isBoolean()) {
+            return new TypedHandle(method.invokeStaticMethod(TRUTHY_METHOD, handle.handle()), boolean.class);
         } else {
             return handle;
         }
 
     }
 
-    private ResultHandle getHandleForValueHolder(Block block) {
-        return valueHolder.getResultHandle(block);
-    }
-
-    private ResultHandle getHandleForValueHolder(Block block, Context context) {
-        return valueHolder.getResultHandle(block, context);
+    private TypedHandle getHandleForValueHolder(Block block, Context context) {
+        return valueHolder.getTypedHandle(block, context);
     }
 
     private ResultHandle getHandleForArray(Block block) {
@@ -353,32 +331,24 @@ public class Expression {
         }
     }
 
-    private ResultHandle getHandleForVariable(Block block, Context context) {
-        ResultHandle rh = variable.getResultHandle(block);
-        if (context == Context.NORMAL) {
+    private TypedHandle getHandleForVariable(Block block, Context context) {
+        TypedHandle rh = variable.getTypedHandle(block, context);
+        // Typed variables can't be nothing, or arrays, so there's nothing to coerce
+        if (context == Context.NORMAL || rh.isPrimitive() || rh.isString()) {
             return rh;
         } else {
             if (context == Context.BOOLEAN) {
                 // Coerce nothings in a boolean context
                 rh = coerceNothingIntoType(block, rh, Context.BOOLEAN);
             }
-            BytecodeCreator method = block.method();
-
             // For boolean contexts, we also want arrays to go to a number length
-            BranchResult arrayCheck = method.ifTrue(method.instanceOf(rh, RockstarArray.class));
-            AssignableResultHandle answer = method.createVariable(Object.class);
-            BytecodeCreator isArray = arrayCheck.trueBranch();
-            isArray.assign(answer,
-                    Array.toScalarContext(variable, new Block(null, isArray, block.creator(), block.variables(), block)));
-            BytecodeCreator isNotArray = arrayCheck.falseBranch();
-            isNotArray.assign(answer, rh);
-            return answer;
+            return TypedHandle.object(block.method().invokeStaticMethod(TO_SCALAR_METHOD, rh.handle()));
 
         }
     }
 
     private ResultHandle getHandleForUnaryOperation(Block block) {
-        ResultHandle rrh = rhe.getResultHandle(block, Context.BOOLEAN);
+        TypedHandle rrh = rhe.getTypedHandle(block, Context.BOOLEAN);
 
         BytecodeCreator method = block.method();
         // Do type coercion of rockstar nulls (which are a special type, not null)
@@ -391,17 +361,17 @@ public class Expression {
             case NEGATION -> {
                 AssignableResultHandle answer = method.createVariable(boolean.class);
                 method.assign(answer, method.load(false));
-                method.ifFalse(rrh).trueBranch().assign(answer, method.load(true));
+                method.ifFalse(rrh.handle()).trueBranch().assign(answer, method.load(true));
                 return answer;
             }
             default -> throw new RuntimeException("Unsupported operation " + operation);
         }
     }
 
-    private ResultHandle getHandleForOperation(Block block) {
+    private TypedHandle getHandleForOperation(Block block) {
         // This context isn't scalar, exactly, it's not-object - it could be boolean or string or number
-        ResultHandle lrh = lhe.getResultHandle(block, Context.NOT_OBJECT);
-        ResultHandle rrh = rhe.getResultHandle(block, Context.NOT_OBJECT);
+        TypedHandle lrh = lhe.getOperandHandle(block, operation, Context.NOT_OBJECT);
+        TypedHandle rrh = rhe.getOperandHandle(block, operation, Context.NOT_OBJECT);
 
         BytecodeCreator method = block.method();
 
@@ -414,17 +384,14 @@ public class Expression {
             case ADD -> {
 
                 BytecodeInvoker numericOperation = BytecodeCreator::add;
-                BytecodeInvoker stringOperation = (bc, a, b) -> bc.invokeVirtualMethod(
-                        CONCAT_METHOD,
-                        a, b);
-                ResultHandle answer = doOperation(block, lrh, rrh, numericOperation, stringOperation);
+                TypedHandle answer = doOperation(block, lrh, rrh, numericOperation, ADD_METHOD);
                 for (Expression extra : extraRhes) {
                     // This could be a fancy reduce with streams, but for works well enough
-                    ResultHandle erh = extra.getResultHandle(block, Context.SCALAR);
+                    TypedHandle erh = extra.getTypedHandle(block, Context.SCALAR);
 
                     erh = coerceFalsyTypes(block, extra, erh);
 
-                    answer = doOperation(block, answer, erh, numericOperation, stringOperation);
+                    answer = doOperation(block, answer, erh, numericOperation, ADD_METHOD);
                 }
                 return answer;
             }
@@ -434,48 +401,40 @@ public class Expression {
                     ResultHandle negativeRightSide = bc.multiply(bc.load(-1d), b);
                     return bc.add(a, negativeRightSide);
                 };
-                BytecodeInvoker stringOperation = unsupportedOperation("Subtraction of strings is not possible.");
-                ResultHandle answer = doOperation(block, lrh, rrh, numericOperation, stringOperation);
+                TypedHandle answer = doOperation(block, lrh, rrh, numericOperation, SUBTRACT_METHOD);
 
                 for (Expression extra : extraRhes) {
-                    ResultHandle erh = extra.getResultHandle(block, Context.SCALAR);
+                    TypedHandle erh = extra.getOperandHandle(block, operation, Context.SCALAR);
 
                     erh = coerceFalsyTypes(block, extra, erh);
 
-                    answer = doOperation(block, answer, erh, numericOperation, stringOperation);
+                    answer = doOperation(block, answer, erh, numericOperation, SUBTRACT_METHOD);
                 }
                 return answer;
 
             }
             case MULTIPLY -> {
                 BytecodeInvoker numericOperation = BytecodeCreator::multiply;
-                BytecodeInvoker stringOperation = unsupportedOperation("Multiplication of strings not yet implemented.");
-                ResultHandle answer = doOperation(block, lrh, rrh, numericOperation, stringOperation);
+                TypedHandle answer = doOperation(block, lrh, rrh, numericOperation, MULTIPLY_METHOD);
                 for (Expression extra : extraRhes) {
-                    ResultHandle erh = extra.getResultHandle(block, Context.SCALAR);
+                    TypedHandle erh = extra.getOperandHandle(block, operation, Context.SCALAR);
 
                     erh = coerceFalsyTypes(block, extra, erh);
 
-                    answer = doOperation(block, answer, erh, numericOperation, stringOperation);
+                    answer = doOperation(block, answer, erh, numericOperation, MULTIPLY_METHOD);
                 }
                 return answer;
             }
             case DIVIDE -> {
-                // Needs Gizmo 1.8, which is not yet accessible in Quarkus extensions
-                //                return doOperation(method, lrh, rrh, (bc, a, b) -> bc.divide(a, b), (bc, a, b) -> {
-                //                    bc.throwException(IllegalArgumentException.class, "Divided we fall: Division of strings is not possible.");
-                //                    return bc.loadNull();
-                //                });
-
-                // So in the interim, do a work around
-
-                ResultHandle answer = divide(method, lrh, rrh);
+                // Rockstar numbers are IEEE doubles, so this is a plain ddiv
+                BytecodeInvoker numericOperation = BytecodeCreator::divide;
+                TypedHandle answer = doOperation(block, lrh, rrh, numericOperation, DIVIDE_METHOD);
                 for (Expression extra : extraRhes) {
-                    ResultHandle erh = extra.getResultHandle(block, Context.SCALAR);
+                    TypedHandle erh = extra.getOperandHandle(block, operation, Context.SCALAR);
 
                     erh = coerceFalsyTypes(block, extra, erh);
 
-                    answer = divide(method, answer, erh);
+                    answer = doOperation(block, answer, erh, numericOperation, DIVIDE_METHOD);
                 }
                 return answer;
             }
@@ -484,86 +443,79 @@ public class Expression {
                 // To implement the short circuit, we need several operations
                 AssignableResultHandle answer = method.createVariable(boolean.class);
                 method.assign(answer, method.load(false));
-                BranchResult check1 = method.ifTrue(lrh);
+                BranchResult check1 = method.ifTrue(lrh.handle());
                 BytecodeCreator next = check1.trueBranch();
-                BranchResult check2 = next.ifTrue(rrh);
+                BranchResult check2 = next.ifTrue(rrh.handle());
                 check2.trueBranch().assign(answer, method.load(true));
 
-                return answer;
+                return new TypedHandle(answer, boolean.class);
             }
             case DISJUNCTION -> {
                 // To implement the short circuit, we need several operations
                 AssignableResultHandle answer = method.createVariable(boolean.class);
                 method.assign(answer, method.load(false));
-                BranchResult check1 = method.ifTrue(lrh);
+                BranchResult check1 = method.ifTrue(lrh.handle());
                 check1.trueBranch().assign(answer, method.load(true));
-                BranchResult check2 = check1.falseBranch().ifTrue(rrh);
+                BranchResult check2 = check1.falseBranch().ifTrue(rrh.handle());
                 check2.trueBranch().assign(answer, method.load(true));
 
-                return answer;
+                return new TypedHandle(answer, boolean.class);
             }
             case JOINT_DENIAL -> {
                 // See https://stackoverflow.com/questions/17052001/binary-expression-in-asm-compiler/17053797#17053797
                 // To implement the short circuit, we need several operations
                 AssignableResultHandle answer = method.createVariable(boolean.class);
                 method.assign(answer, method.load(false));
-                BranchResult check1 = method.ifFalse(lrh);
+                BranchResult check1 = method.ifFalse(lrh.handle());
                 BytecodeCreator next = check1.trueBranch();
-                BranchResult check2 = next.ifFalse(rrh);
+                BranchResult check2 = next.ifFalse(rrh.handle());
                 check2.trueBranch().assign(answer, method.load(true));
 
-                return answer;
+                return new TypedHandle(answer, boolean.class);
             }
             case EQUALITY_CHECK -> {
-                return doEqualityCheck(method, lrh, rrh);
+                return new TypedHandle(doEqualityCheck(method, lrh, rrh), boolean.class);
             }
             case INEQUALITY_CHECK -> {
                 // A boolean negation in bytecode is a bit tricky, since the jvm doesn't really recognise booleans, so do a bitwise xor
                 // to simulate it
                 ResultHandle equalityCheck = doEqualityCheck(method, lrh, rrh);
-                return method.bitwiseXor(equalityCheck, method.load(true));
+                return new TypedHandle(method.bitwiseXor(equalityCheck, method.load(true)), boolean.class);
             }
             case GREATER_THAN_CHECK -> {
-                return doComparison(block, method::ifGreaterThanZero,
-                        lrh, rrh);
+                return new TypedHandle(doComparison(block, method::ifGreaterThanZero, lrh, rrh), boolean.class);
             }
             case LESS_THAN_CHECK -> {
-                return doComparison(block, method::ifLessThanZero,
-                        lrh, rrh);
+                return new TypedHandle(doComparison(block, method::ifLessThanZero, lrh, rrh), boolean.class);
             }
             case GREATER_OR_EQUAL_THAN_CHECK -> {
-                return doComparison(block, method::ifGreaterEqualZero,
-                        lrh, rrh);
+                return new TypedHandle(doComparison(block, method::ifGreaterEqualZero, lrh, rrh), boolean.class);
             }
             case LESS_OR_EQUAL_THAN_CHECK -> {
-                return doComparison(block, method::ifLessEqualZero,
-                        lrh, rrh);
+                return new TypedHandle(doComparison(block, method::ifLessEqualZero, lrh, rrh), boolean.class);
             }
             default -> throw new RuntimeException("Unsupported operation " + operation);
         }
     }
 
-    private ResultHandle divide(BytecodeCreator method, ResultHandle lrh, ResultHandle rrh) {
-        ResultHandle lbd = method.newInstance(constructor, lrh);
-        ResultHandle rbd = method.newInstance(constructor, rrh);
-        ResultHandle answer = method.invokeVirtualMethod(divide, lbd, rbd, method.readStaticField(mathContext));
-        ResultHandle doubleAnswer = method.invokeVirtualMethod(toDouble, answer);
-        return doubleAnswer;
-    }
-
-    private static BytecodeInvoker unsupportedOperation(String message) {
-        return (bc, a, b) -> {
-            bc.throwException(UnsupportedOperationException.class, message);
-            return bc.load("nope");
-        };
+    // Subtraction, multiplication and division turn everything into numbers anyway, so an array element can be read
+    // straight into a double
+    private TypedHandle getOperandHandle(Block block, Operation operation, Context context) {
+        boolean numbersOnly = operation == Operation.SUBTRACT || operation == Operation.MULTIPLY
+                || operation == Operation.DIVIDE;
+        if (numbersOnly && function == null && this.operation == null && unaryOperation == null && arrayAccess != null
+                && !arrayPop) {
+            return arrayAccess.readNumber(arrayAccessIndex, block);
+        }
+        return getTypedHandle(block, context);
     }
 
-    private ResultHandle coerceFalsyTypes(Block block, Expression extra, ResultHandle erh) {
+    private TypedHandle coerceFalsyTypes(Block block, Expression extra, TypedHandle erh) {
         BytecodeCreator method = block.method();
 
         // TODO consolidate this with the other coerce method, do not call different ones on different paths
         if (extra.isNothing()) {
-            erh = coerceNothingIntoType(method, extra.getResultHandle(block), erh, operation);
+            erh = coerceNothingIntoType(method, extra.getTypedHandle(block, Context.NORMAL), erh, operation);
         }
 
         if (extra.isMysterious()) {
@@ -592,154 +544,106 @@ public class Expression {
         ResultHandle invoke(BytecodeCreator bc, ResultHandle a, ResultHandle b);
     }
 
-    private ResultHandle doOperation(Block block, ResultHandle unsafelrh, ResultHandle unsaferrh,
+    private TypedHandle doOperation(Block block, TypedHandle lrh, TypedHandle rrh,
             BytecodeInvoker numberCaseOp,
-            BytecodeInvoker stringCaseOp) {
+            MethodDescriptor anyCaseOp) {
         BytecodeCreator method = block.method();
         // If we know we're working with numbers, do the simplest thing
-        if (isNumber(unsafelrh) && isNumber(unsaferrh)) {
-            return numberCaseOp.invoke(method, unsafelrh, unsaferrh);
+        if (lrh.isNumber() && rrh.isNumber()) {
+            return new TypedHandle(numberCaseOp.invoke(method, lrh.handle(), rrh.handle()), double.class);
         }
-        // Otherwise, do some checking and casting
-
-        // First, check for nulls on both sides
-        ResultHandle lrh = coerceAwayNothing(method, unsafelrh, unsaferrh);
-        ResultHandle rrh = coerceAwayNothing(method, unsaferrh, unsafelrh);
-
-        AssignableResultHandle answer = method.createVariable(Object.class);
-
-        // Do some more checking for primitive types before trying to cast
-        // Use 0 as equivalent to false
-        ResultHandle lrhIsString = isBoolean(lrh) || isNumber(lrh) ? method.load(0) : method.instanceOf(lrh, String.class);
-
-        ResultHandle rrhIsString = isBoolean(rrh) || isNumber(rrh) ? method.load(0) : method.instanceOf(rrh, String.class);
-        ResultHandle someString = method.bitwiseOr(lrhIsString, rrhIsString);
+        // Otherwise, let the runtime library do the checking and casting
+        // Only addition might not give back a number
+        Class<?> answerClass = anyCaseOp == ADD_METHOD ? Object.class : double.class;
+        return new TypedHandle(method.invokeStaticMethod(anyCaseOp, lrh.handle(), rrh.handle()), answerClass);
+    }
 
-        BranchResult br = method.ifTrue(someString);
-        BytecodeCreator stringCase = br.trueBranch();
-        ResultHandle lsrh = stringify(stringCase, lrh);
-        ResultHandle rsrh = stringify(stringCase, rrh);
-        ResultHandle thing = stringCaseOp.invoke(stringCase, lsrh, rsrh);
-        stringCase.assign(answer, thing);
+    private ResultHandle doEqualityCheck(BytecodeCreator method, TypedHandle lrh, TypedHandle rrh) {
+        if (lrh.isNumber() && rrh.isNumber()) {
+            return method.invokeStaticMethod(EQUAL_NUMBERS_METHOD, lrh.handle(), rrh.handle());
+        }
 
-        BytecodeCreator otherCase = br.falseBranch();
-        // Which way we go with the conversions depends on the operation - here we know it's a numeric or string context
-        // TODO bring this logic and the logic to convert arrays to numbers from getHandleForVariable into the same place, maybe a general coerce method
+        return method.invokeStaticMethod(EQUALITY_METHOD, lrh.handle(), rrh.handle());
+    }
 
-        ResultHandle dlrh = coerceBooleanIntoNumber(otherCase, lrh);
-        ResultHandle drrh = coerceBooleanIntoNumber(otherCase, rrh);
+    public boolean isNothing() {
+        return value == NOTHING;
+    }
 
-        ResultHandle added = numberCaseOp.invoke(otherCase, dlrh, drrh);
-        otherCase.assign(answer, added);
+    public boolean isMysterious() {
+        return valueClass == null;
+    }
 
-        return answer;
+    /**
+     * Once an optimisation pass has worked out what this expression evaluates to, there's no need to generate code to
+     * work it out again.
+     */
+    void replaceWithLiteral(Literal literal) {
+        function = null;
+        params = null;
+        operation = null;
+        unaryOperation = null;
+        lhe = null;
+        rhe = null;
+        extraRhes = Collections.emptyList();
+        variable = null;
+        arrayAccess = null;
+        arrayAccessIndex = null;
+        arrayPop = false;
+
+        value = literal.getValue();
+        valueClass = literal.getValueClass();
+        valueHolder = literal;
     }
 
-    // This is barely needed, since boolean in bytecode is represented as an integer, but Boolean will need attention
-    private ResultHandle coerceBooleanIntoNumber(BytecodeCreator method, ResultHandle rh) {
-        AssignableResultHandle answer = method.createVariable(double.class);
-        if (isNumber(rh)) {
-            return rh;
-        } else {
-            if (isBoolean(rh)) {
-                BranchResult booleanTest = method.ifTrue(rh);
-                booleanTest.trueBranch().assign(answer, method.load(1d));
-                booleanTest.falseBranch().assign(answer, method.load(0d));
-                return answer;
-            } else {
-                ResultHandle isBoolean = method.instanceOf(rh, Boolean.class);
-                BranchResult br = method.ifTrue(isBoolean);
-                BytecodeCreator falseBranch = br.falseBranch();
-                falseBranch.assign(answer, rh); // Nothing to see here, move along
+    // These let passes over the program tree see the shape of the expression
 
-                BytecodeCreator booleanCase = br.trueBranch();
-                BranchResult booleanTest = booleanCase.ifTrue(rh);
-                booleanTest.trueBranch().assign(answer, method.load(1d));
-                booleanTest.falseBranch().assign(answer, method.load(0d));
+    Operation getOperation() {
+        return operation;
+    }
 
-                return answer;
+    boolean isNegation() {
+        return unaryOperation == UnaryOperation.NEGATION;
+    }
 
-            }
-        }
+    Expression getLhe() {
+        return lhe;
     }
 
-    ResultHandle coerceAwayNothing(BytecodeCreator method, ResultHandle handle, ResultHandle referenceHandle) {
-        // TODO call the method in Constant instead
-        return Constant.coerceNothingIntoType(method, handle, referenceHandle, operation);
-    }
-
-    private ResultHandle stringify(BytecodeCreator method, ResultHandle rh) {
-
-        // We want to do a special toString on numbers, to avoid tacking decimal points onto integers
-        ResultHandle toStringed;
-        if (isNumber(rh)) {
-            // TODO save this in a field and re-use it (in a way that works in unit tests)
-            ResultHandle formatterHandle = method.newInstance(MethodDescriptor.ofConstructor(DecimalFormat.class, String.class),
-                    method.load("#.#########"));
-            toStringed = method
-                    .invokeVirtualMethod(
-                            DECIMAL_FORMAT_METHOD,
-                            formatterHandle, rh);
-
-        } else if (isObject(rh)) {
-            // If we really don't know, try and see if the thing is a number
-            AssignableResultHandle answer = method.createVariable(String.class);
-            BranchResult br = method.ifNull(rh);
-            BytecodeCreator isNull = br.trueBranch();
-
-            isNull.assign(answer, coerceMysteriousIntoType(isNull, Context.STRING));
-            BytecodeCreator isNotNull = br.falseBranch();
-
-            TryBlock tryBlock = isNotNull.tryBlock();
-            ResultHandle formatterHandle = tryBlock.newInstance(
-                    MethodDescriptor.ofConstructor(DecimalFormat.class, String.class),
-                    tryBlock.load("#.#########"));
-            tryBlock.assign(answer, tryBlock
-                    .invokeVirtualMethod(
-                            DECIMAL_FORMAT_METHOD,
-                            formatterHandle, rh));
-            CatchBlockCreator catchBlockCreator = tryBlock.addCatch(Throwable.class);
-            catchBlockCreator.assign(answer, Gizmo.toString(catchBlockCreator, rh));
-
-            toStringed = answer;
-        } else {
+    Expression getRhe() {
+        return rhe;
+    }
 
-            toStringed = Gizmo.toString(method, rh);
-        }
-        return toStringed;
+    List<Expression> getExtraRhes() {
+        return extraRhes;
     }
 
-    private ResultHandle doEqualityCheck(BytecodeCreator method, ResultHandle lrh, ResultHandle rrh) {
-        AssignableResultHandle answer = method.createVariable(boolean.class);
-        method.assign(answer, method.load(true));
-        BranchResult nullCheck = method.ifNull(lrh);
-        BytecodeCreator isNull = nullCheck.trueBranch();
+    boolean isFunctionCall() {
+        return function != null;
+    }
 
-        // If the left hand side is null (ie mysterious), only return true if the right side is null
-        BranchResult br = isNull.ifReferencesEqual(lrh, rrh);
-        BytecodeCreator trueBranch = br.trueBranch();
-        trueBranch
-                .assign(answer, trueBranch.load(true));
-        BytecodeCreator falseBranch = br.falseBranch();
-        falseBranch
-                .assign(answer, falseBranch.load(false));
+    List<Expression> getParams() {
+        return params;
+    }
 
-        BytecodeCreator isNotNull = nullCheck.falseBranch();
+    boolean isArrayAccess() {
+        return arrayAccess != null;
+    }
 
-        // Now do a check for nothing - we treat it as an empty string, NOT null, if the other side is a string
+    boolean isArrayPop() {
+        return arrayPop;
+    }
 
-        isNotNull.assign(answer, isNotNull.invokeVirtualMethod(
-                EQUALITY_METHOD,
-                lrh, rrh));
-        return answer;
+    Expression getArrayAccessIndex() {
+        return arrayAccessIndex;
     }
 
-    public boolean isNothing() {
-        return value == NOTHING;
+    Variable getVariable() {
+        return variable;
     }
 
-    public boolean isMysterious() {
-        return valueClass == null;
+    ValueHolder getValueHolder() {
+        return valueHolder;
     }
 
     enum Operation {
@@ -0,0 +1,38 @@
+package io.quarkiverse.bonjova.compiler;
+
+import rock.Rockstar;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A function declaration. The body carries on until a return, which may be several statement lists later, so the
+ * program fills it in rather than the declaration.
+ */
+public final class Function implements Statement {
+    private final String name;
+    private final List<Parameter> parameters;
+    private final List<Statement> body = new ArrayList<>();
+
+    public Function(Rockstar.FunctionDeclarationContext ctx) {
+        name = Variable.getNormalisedVariableName(ctx.functionName.getText());
+        // The spec says all functions must take at least one argument
+        parameters = ctx.paramList()
+                .variable()
+                .stream()
+                .map(vctx -> new Parameter(vctx, Object.class))
+                .toList();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<Parameter> getParameters() {
+        return parameters;
+    }
+
+    public List<Statement> getBody() {
+        return body;
+    }
+}
@@ -0,0 +1,80 @@
+package io.quarkiverse.bonjova.compiler;
+
+import io.quarkus.gizmo.AssignableResultHandle;
+import io.quarkus.gizmo.BranchResult;
+import io.quarkus.gizmo.BytecodeCreator;
+import io.quarkus.gizmo.MethodDescriptor;
+import io.quarkus.gizmo.ResultHandle;
+import rock.Rockstar;
+
+public final class Increment implements Statement {
+    static final MethodDescriptor DOUBLE_VALUE = MethodDescriptor.ofMethod("java/lang/Double", "doubleValue",
+            double.class);
+    private static final MethodDescriptor STRING_CONCAT = MethodDescriptor.ofMethod("java/lang/String", "concat", String.class,
+            String.class);
+
+    private final Variable variable;
+    private final int count;
+
+    public Increment(Rockstar.IncrementStmtContext ctx) {
+        variable = new Variable(ctx.variable());
+        count = ctx.ups()
+                .KW_UP()
+                .size();
+    }
+
+    public Variable getVariable() {
+        return variable;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public void toCode(Block block) {
+        BytecodeCreator method = block.method();
+        ResultHandle one = method.load(1d);
+
+        for (int i = 0; i < count; i++) {
+
+            TypedHandle value = variable.getTypedHandle(block, Expression.Context.NORMAL);
+            value = Constant.coerceNothingIntoType(block, value, Expression.Context.SCALAR);
+
+            // If we know this is a number, we can skip all the type juggling
+            if (value.isNumber()) {
+                variable.write(block, method.add(value.handle(), one));
+                continue;
+            }
+
+            // This intermediate variable is useful to give a bit of flexibility about types
+            AssignableResultHandle incremented = method.createVariable(Object.class);
+
+            // TODO on mysterious, this will pass when it should fail
+
+            // Check the type up front, rather than letting a cast fail; exceptions are expensive, and this may be in a hot loop
+            // Having bytecode that does string manipulations on variables the compiler knows are numbers upsets the verifier, so
+            // skip the test when the compiler already knows
+            BranchResult br = value.isString() ? null
+                    : method.ifTrue(method.instanceOf(value.handle(), Double.class));
+            if (br != null) {
+                BytecodeCreator numberCase = br.trueBranch();
+                ResultHandle primitive = numberCase.invokeVirtualMethod(DOUBLE_VALUE,
+                        numberCase.checkCast(value.handle(), Double.class));
+                numberCase.assign(incremented, numberCase.add(primitive, one));
+            }
+
+            BytecodeCreator stringCase = br == null ? method : br.falseBranch();
+            {
+                // This must be a string
+                // TODO unless it is a boolean ...
+                ResultHandle constant = stringCase.load("1");
+                ResultHandle concat = stringCase.invokeVirtualMethod(
+                        STRING_CONCAT, stringCase.checkCast(value.handle(), String.class),
+                        constant);
+                stringCase.assign(incremented, concat);
+            }
+
+            variable.write(block, incremented);
+        }
+    }
+}
@@ -1,18 +1,15 @@
 package io.quarkiverse.bonjova.compiler;
 
-import io.quarkus.gizmo.AssignableResultHandle;
+import io.quarkiverse.bonjova.support.RockstarInput;
 import io.quarkus.gizmo.BytecodeCreator;
-import io.quarkus.gizmo.CatchBlockCreator;
-import io.quarkus.gizmo.ClassCreator;
-import io.quarkus.gizmo.FieldDescriptor;
-import io.quarkus.gizmo.MethodCreator;
+import io.quarkus.gizmo.MethodDescriptor;
 import io.quarkus.gizmo.ResultHandle;
-import io.quarkus.gizmo.TryBlock;
-import org.objectweb.asm.Opcodes;
 import rock.Rockstar;
 
-public class Input {
-    private static FieldDescriptor indexField;
+public final class Input implements Statement {
+    private static final MethodDescriptor READ_LINE_METHOD = MethodDescriptor.ofMethod(RockstarInput.class, "readLine",
+            String.class);
+
     private final String originalName;
     private final Class<?> variableClass;
     private final Variable variable;
@@ -27,12 +24,6 @@ public class Input {
         variable.track();
     }
 
-    public static void clearState() {
-        indexField = null;
-        // Since we use variables, clear its state as well
-        Variable.clearState();
-    }
-
     public String getVariableName() {
         return originalName;
     }
@@ -41,28 +32,14 @@ public class Input {
         return variableClass;
     }
 
-    public Variable toCode(Block block, MethodCreator main) {
+    public Variable getVariable() {
+        return variable;
+    }
 
+    public Variable toCode(Block block) {
         BytecodeCreator method = block.method();
-        ClassCreator creator = block.creator();
-
-        if (indexField == null) {
-            indexField = creator.getFieldCreator("inputIndex", int.class)
-                    .setModifiers(Opcodes.ACC_PRIVATE + Opcodes.ACC_STATIC)
-                    .getFieldDescriptor();
-            method.writeStaticField(indexField, method.load(0));
-        }
-        ResultHandle index = method.readStaticField(indexField);
-        ResultHandle args = main.getMethodParam(0);
-        AssignableResultHandle answer = method.createVariable(String.class);
-        TryBlock tryBlock = method.tryBlock();
-        ResultHandle rh = tryBlock.readArrayValue(args, index);
-        tryBlock.assign(answer, rh);
-        CatchBlockCreator catchBlock = tryBlock.addCatch(Throwable.class);
-        catchBlock.assign(answer, catchBlock.loadNull());
-
+        ResultHandle answer = method.invokeStaticMethod(READ_LINE_METHOD);
         variable.write(block, answer);
-        method.writeStaticField(indexField, method.add(index, method.load(1)));
 
         return variable;
     }
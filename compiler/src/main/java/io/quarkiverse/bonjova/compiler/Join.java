@@ -0,0 +1,65 @@
+package io.quarkiverse.bonjova.compiler;
+
+import io.quarkus.gizmo.AssignableResultHandle;
+import io.quarkus.gizmo.BranchResult;
+import io.quarkus.gizmo.BytecodeCreator;
+import io.quarkus.gizmo.MethodDescriptor;
+import io.quarkus.gizmo.ResultHandle;
+import rock.Rockstar;
+
+import static io.quarkiverse.bonjova.compiler.Array.TYPE_CLASS;
+
+public final class Join implements Statement {
+    private static final MethodDescriptor JOIN_METHOD = MethodDescriptor.ofMethod(TYPE_CLASS, "join", String.class);
+    private static final MethodDescriptor JOIN_WITH_DELIMITER_METHOD = MethodDescriptor.ofMethod(TYPE_CLASS, "join",
+            String.class, String.class);
+
+    private final Variable source;
+    private Expression delimiter;
+    private final Variable target;
+
+    public Join(Rockstar.JoinStmtContext ctx) {
+        source = new Variable(ctx.variable().get(0));
+        if (ctx.KW_WITH() != null) {
+            delimiter = new Expression(ctx.expression());
+        }
+        if (ctx.KW_INTO() != null) {
+            target = new Variable(ctx.variable().get(1), String.class);
+        } else {
+            target = new Variable(ctx.variable().get(0), String.class);
+        }
+    }
+
+    public Variable getSource() {
+        return source;
+    }
+
+    public Expression getDelimiter() {
+        return delimiter;
+    }
+
+    public Variable getTarget() {
+        return target;
+    }
+
+    public void toCode(Block block) {
+        BytecodeCreator method = block.method();
+        ResultHandle oldVal = source.getResultHandle(block);
+
+        // Tolerate casting things that aren't strings
+        ResultHandle isArray = method.instanceOf(oldVal, TYPE_CLASS);
+        BranchResult br = method.ifTrue(isArray);
+        AssignableResultHandle newVal = method.createVariable(Object.class);
+        BytecodeCreator isArrayBranch = br.trueBranch();
+        if (delimiter != null) {
+            ResultHandle delimiterHandle = delimiter.getResultHandle(block);
+            isArrayBranch.assign(newVal, isArrayBranch.invokeVirtualMethod(JOIN_WITH_DELIMITER_METHOD, oldVal,
+                    delimiterHandle));
+        } else {
+            isArrayBranch.assign(newVal, isArrayBranch.invokeVirtualMethod(JOIN_METHOD, oldVal));
+        }
+        br.falseBranch().throwException(IllegalArgumentException.class, "No, we can't join that.");
+
+        target.write(block, newVal);
+    }
+}
@@ -1,7 +1,6 @@
 package io.quarkiverse.bonjova.compiler;
 
 import io.quarkus.gizmo.BytecodeCreator;
-import io.quarkus.gizmo.ResultHandle;
 import org.antlr.v4.runtime.tree.TerminalNode;
 import rock.Rockstar;
 
@@ -30,8 +29,22 @@ public class Literal implements ValueHolder {
                 // idiomatic-ish)
                 valueClass = String.class;
             }
-            // TODO
-            valueClass = Object.class;
+        }
+    }
+
+    /**
+     * A value worked out at compile time, rather than one written in the program.
+     */
+    public Literal(Object value) {
+        this.value = value;
+        if (value instanceof Double) {
+            valueClass = double.class;
+        } else if (value instanceof Boolean) {
+            valueClass = boolean.class;
+        } else if (value instanceof String) {
+            valueClass = String.class;
+        } else {
+            throw new RuntimeException("Confused expression: Could not make a literal out of " + value);
         }
     }
 
@@ -43,36 +56,32 @@ public class Literal implements ValueHolder {
         return valueClass;
     }
 
-    public ResultHandle getResultHandle(Block block) {
-        return getResultHandle(block, value, valueClass);
-    }
-
-    public ResultHandle getResultHandle(Block block, Expression.Context content) {
+    public TypedHandle getTypedHandle(Block block, Expression.Context content) {
         // No context makes a difference to things we can define as literals
-        return getResultHandle(block);
+        return getTypedHandle(block, value, valueClass);
     }
 
-    static ResultHandle getResultHandle(Block block, Object value, Class<?> valueClass) {
+    static TypedHandle getTypedHandle(Block block, Object value, Class<?> valueClass) {
         BytecodeCreator method = block.method();
-        ResultHandle answer;
+        TypedHandle answer;
         // We do not need to handle nothing
         // TODO do we need to handle mysterious? I don't think so?
         if (String.class.equals(valueClass)) {
-            answer = method.load((String) value);
+            answer = new TypedHandle(method.load((String) value), String.class);
         } else if (double.class.equals(valueClass)) {
-            answer = method.load((double) value);
+            answer = new TypedHandle(method.load((double) value), double.class);
         } else if (boolean.class.equals(valueClass)) {
-            answer = method.load((boolean) value);
+            answer = new TypedHandle(method.load((boolean) value), boolean.class);
         } else if (valueClass == null) {
-            answer = method.loadNull();
+            answer = TypedHandle.object(method.loadNull());
         } else if (value == null) {
-            answer = method.loadNull(); // TODO is this needed?
+            answer = TypedHandle.object(method.loadNull()); // TODO is this needed?
         } else if (value instanceof String) {
-            answer = method.load((String) value);
+            answer = new TypedHandle(method.load((String) value), String.class);
         } else if (value instanceof Double) {
-            answer = method.load((double) value);
+            answer = new TypedHandle(method.load((double) value), double.class);
         } else if (value instanceof Boolean) {
-            answer = method.load((Boolean) value);
+            answer = new TypedHandle(method.load((Boolean) value), boolean.class);
         } else {
             throw new RuntimeException("Confused expression: Could not interpret type " + valueClass + " with value " + value);
         }
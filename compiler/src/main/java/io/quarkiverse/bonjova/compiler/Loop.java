@@ -0,0 +1,36 @@
+package io.quarkiverse.bonjova.compiler;
+
+import rock.Rockstar;
+
+import java.util.List;
+
+public final class Loop implements Statement {
+    private final Expression expression;
+    // Until loops are while loops with the condition turned upside down
+    private final boolean until;
+    private final List<Statement> body;
+
+    public Loop(Rockstar.LoopStmtContext ctx) {
+        expression = new Expression(ctx.expression());
+        if (ctx.KW_WHILE() != null) {
+            until = false;
+        } else if (ctx.KW_UNTIL() != null) {
+            until = true;
+        } else {
+            throw new RuntimeException("Could not understand loop " + ctx.getText());
+        }
+        body = Program.statements(ctx.statementList());
+    }
+
+    public Expression getExpression() {
+        return expression;
+    }
+
+    public boolean isUntil() {
+        return until;
+    }
+
+    public List<Statement> getBody() {
+        return body;
+    }
+}
@@ -0,0 +1,43 @@
+package io.quarkiverse.bonjova.compiler;
+
+import io.quarkiverse.bonjova.support.RockstarOps;
+import io.quarkiverse.bonjova.support.RockstarOutput;
+import io.quarkus.gizmo.BytecodeCreator;
+import io.quarkus.gizmo.Gizmo;
+import io.quarkus.gizmo.MethodDescriptor;
+import rock.Rockstar;
+
+public final class Output implements Statement {
+    private static final MethodDescriptor NUMBER_TO_STRING = MethodDescriptor.ofMethod(RockstarOps.class, "toRockString",
+            String.class, double.class);
+    private static final MethodDescriptor TO_STRING = MethodDescriptor.ofMethod(RockstarOps.class, "toRockString",
+            String.class, Object.class);
+    private static final MethodDescriptor PRINTLN = MethodDescriptor.ofMethod(RockstarOutput.class, "println", void.class,
+            String.class);
+
+    private final Expression expression;
+
+    public Output(Rockstar.OutputStmtContext ctx) {
+        expression = new Expression(ctx.expression());
+    }
+
+    public Expression getExpression() {
+        return expression;
+    }
+
+    public void toCode(Block block) {
+        TypedHandle value = expression.getTypedHandle(block, Expression.Context.NOT_OBJECT);
+
+        // We want to do a special toString on numbers, to avoid tacking decimals onto integers
+        // If we don't know the type, the runtime library works it out, without any exceptions
+        BytecodeCreator method = block.method();
+        if (value.isNumber()) {
+            method.invokeStaticMethod(PRINTLN, method.invokeStaticMethod(NUMBER_TO_STRING, value.handle()));
+        } else if (value.isBoolean()) {
+            method.invokeStaticMethod(PRINTLN, Gizmo.toString(method, value.handle()));
+        } else {
+            // When printed on its own, null is "mysterious"
+            method.invokeStaticMethod(PRINTLN, method.invokeStaticMethod(TO_STRING, value.handle()));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package io.quarkiverse.bonjova.compiler;
+
+import rock.Rockstar;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The whole program, as a tree of statements. Nodes get built in the order they appear in the source, since that is
+ * the order pronouns work in; after that, nothing needs to think about pronouns again.
+ */
+public class Program {
+
+    private final List<Statement> statements = new ArrayList<>();
+    // Variables which optimisation took writes away from; they still have to exist
+    private final Set<String> removedVariables = new LinkedHashSet<>();
+
+    public Program(Rockstar.ProgramContext ctx) {
+        // Ensure we don't get cross-talk between programs built one after another on this thread
+        Variable.clearState();
+
+        // A function is open until a return closes it, and the return is not part of the declaration
+        Deque<List<Statement>> bodies = new ArrayDeque<>();
+        bodies.push(statements);
+
+        for (Rockstar.TerminatedStatementListContext list : ctx.terminatedStatementList()) {
+            // Functions and statement lists can be interleaved, and the order matters for pronouns
+            for (int i = 0; i < list.getChildCount(); i++) {
+                if (list.getChild(i) instanceof Rockstar.StatementListContext statementList) {
+                    bodies.peek().add(new StatementList(statements(statementList)));
+                } else if (list.getChild(i) instanceof Rockstar.FunctionDeclarationContext declaration) {
+                    Function function = new Function(declaration);
+                    bodies.peek().add(function);
+                    if (declaration.statementList() != null) {
+                        function.getBody().add(new StatementList(statements(declaration.statementList())));
+                    }
+                    bodies.push(function.getBody());
+                } else if (list.getChild(i) instanceof Rockstar.ReturnStmtContext returnStmt) {
+                    bodies.peek().add(new Return(returnStmt));
+                    // We could have repeated returns, so check we are in a function before leaving it
+                    if (bodies.size() > 1) {
+                        bodies.pop();
+                    }
+                }
+            }
+        }
+        // Nothing after the tree is built needs pronouns, and threads can outlive compilations
+        Variable.clearState();
+    }
+
+    public List<Statement> getStatements() {
+        return statements;
+    }
+
+    public Set<String> getRemovedVariables() {
+        return removedVariables;
+    }
+
+    static List<Statement> statements(Rockstar.StatementListContext ctx) {
+        List<Statement> statements = new ArrayList<>();
+        for (Rockstar.StatementContext statement : ctx.statement()) {
+            statements.add(statement(statement));
+        }
+        return statements;
+    }
+
+    private static Statement statement(Rockstar.StatementContext ctx) {
+        if (ctx.ifStmt() != null) {
+            return new Condition(ctx.ifStmt());
+        } else if (ctx.loopStmt() != null) {
+            return new Loop(ctx.loopStmt());
+        } else if (ctx.assignmentStmt() != null) {
+            return new Assignment(ctx.assignmentStmt());
+        } else if (ctx.inputStmt() != null) {
+            return new Input(ctx.inputStmt());
+        } else if (ctx.outputStmt() != null) {
+            return new Output(ctx.outputStmt());
+        } else if (ctx.roundingStmt() != null) {
+            return new Rounding(ctx.roundingStmt());
+        } else if (ctx.incrementStmt() != null) {
+            return new Increment(ctx.incrementStmt());
+        } else if (ctx.decrementStmt() != null) {
+            return new Decrement(ctx.decrementStmt());
+        } else if (ctx.arrayStmt() != null) {
+            return new Array(ctx.arrayStmt());
+        } else if (ctx.stringStmt() != null) {
+            return new StringSplit(ctx.stringStmt());
+        } else if (ctx.castStmt() != null) {
+            return new Cast(ctx.castStmt());
+        } else if (ctx.joinStmt() != null) {
+            return new Join(ctx.joinStmt());
+        } else if (ctx.continueStmt() != null) {
+            return new Continue();
+        } else if (ctx.breakStmt() != null) {
+            return new Break();
+        }
+        throw new RuntimeException("Could not understand statement " + ctx.getText());
+    }
+}
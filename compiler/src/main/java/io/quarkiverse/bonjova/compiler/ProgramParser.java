@@ -0,0 +1,102 @@
+package io.quarkiverse.bonjova.compiler;
+
+import io.quarkiverse.bonjova.compiler.grammar.PrattParser;
+import io.quarkiverse.bonjova.compiler.grammar.UnsupportedSyntaxException;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.TokenStream;
+import rock.Rockstar;
+import rock.RockstarLexer;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Turns source into a parse tree. The parser's prediction cache belongs to the parser class, so every compile in a
+ * JVM shares it, and the first compile pays for building most of it; {@link #warmUp()} lets that happen before anyone
+ * is waiting.
+ * <p>
+ * We stay with full LL prediction rather than trying SLL first. The grammar is ambiguous about which block a statement
+ * after a blank line belongs to, and every program of any size reaches one of those ambiguities, where SLL picks an
+ * answer without looking at the rest of the program, and sometimes picks differently from LL.
+ * <p>
+ * With {@code -Dbonjova.parser=pratt}, programs go through the hand-written {@link PrattParser} instead, which builds
+ * the same tree, far faster on big programs. It gives up on anything it can't be sure ANTLR would parse the same way,
+ * and then ANTLR gets the program after all.
+ */
+public class ProgramParser {
+
+    // Something of everything, so the cache has seen the common paths through the grammar
+    static final String WARM_UP_PROGRAM = """
+            My heart is 5
+            Your love is "strong"
+            Let the night be my heart plus 2 times 3
+            Put the night over 7 into the day
+            If the night is greater than my heart
+            Say "higher"
+            Else
+            Shout your love
+
+            While my heart is as high as 1
+            Knock my heart down
+            Build the day up, up
+
+            Rock the songs with 1, 2, 3
+            Roll the songs into the hit
+            Let the songs at 0 be "first"
+            Split your love into the letters with ""
+            Join the letters into the word
+            Turn round the day
+            Midnight takes your dream and my fear
+            Give back your dream with my fear
+
+            Say Midnight taking the word, "and" with the hit
+            Listen to the radio
+            Tommy was a lean mean wrecking machine
+            """;
+
+    public static final String PARSER_PROPERTY = "bonjova.parser";
+    public static final String PRATT = "pratt";
+
+    private static final AtomicBoolean warm = new AtomicBoolean();
+
+    private ProgramParser() {
+    }
+
+    public static Rockstar.ProgramContext parse(CharStream input) {
+        if (PRATT.equals(System.getProperty(PARSER_PROPERTY))) {
+            try {
+                return PrattParser.parse(input);
+            } catch (UnsupportedSyntaxException e) {
+                // Over to ANTLR, which knows how to sing it
+            }
+        }
+        return parse(new CommonTokenStream(new RockstarLexer(input)));
+    }
+
+    public static Rockstar.ProgramContext parse(TokenStream tokens) {
+        return new Rockstar(tokens).program();
+    }
+
+    /**
+     * Parses a small program, so later compiles find the prediction cache and the JIT ready for them. Only the first
+     * call does anything.
+     */
+    public static void warmUp() {
+        if (warm.compareAndSet(false, true)) {
+            parse(CharStreams.fromString(WARM_UP_PROGRAM));
+        }
+    }
+
+    /**
+     * Warms up on a background thread, for when there is nothing to compile yet, but there will be soon.
+     */
+    public static void warmUpInBackground() {
+        if (!warm.get()) {
+            Thread.ofPlatform()
+                    .daemon()
+                    .name("bon-jova-warm-up")
+                    .start(ProgramParser::warmUp);
+        }
+    }
+}
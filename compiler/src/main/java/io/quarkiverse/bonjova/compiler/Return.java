@@ -0,0 +1,19 @@
+package io.quarkiverse.bonjova.compiler;
+
+import rock.Rockstar;
+
+public final class Return implements Statement {
+    private final Expression expression;
+
+    public Return(Rockstar.ReturnStmtContext ctx) {
+        expression = new Expression(ctx.expression());
+    }
+
+    public Expression getExpression() {
+        return expression;
+    }
+
+    public void toCode(Block block) {
+        block.method().returnValue(expression.getResultHandle(block));
+    }
+}
@@ -1,18 +1,60 @@
 package io.quarkiverse.bonjova.compiler;
 
-import io.quarkiverse.bonjova.support.RockstarArray;
-
+import io.quarkiverse.bonjova.support.DenseList;
+import io.quarkiverse.bonjova.support.LineSource;
+import io.quarkiverse.bonjova.support.MappedLineSource;
 import io.quarkiverse.bonjova.support.Nothing;
+import io.quarkiverse.bonjova.support.NumberFormatter;
+import io.quarkiverse.bonjova.support.OffHeapArena;
+import io.quarkiverse.bonjova.support.OffHeapList;
+import io.quarkiverse.bonjova.support.RockstarArray;
+import io.quarkiverse.bonjova.support.RockstarInput;
+import io.quarkiverse.bonjova.support.RockstarLinker;
+import io.quarkiverse.bonjova.support.RockstarOps;
+import io.quarkiverse.bonjova.support.RockstarOutput;
+import io.quarkiverse.bonjova.support.SparseElements;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 public class RockFileCompiler {
     public static final String DOT_CLASS = ".class";
     public static final String DOT_ROCK = ".rock";
+    public static final String THREADS_PROPERTY = "bonjova.compile.threads";
+
+    private static final List<Class<?>> SUPPORT_CLASSES = List.of(RockstarArray.class, DenseList.class,
+            SparseElements.class, OffHeapList.class, OffHeapArena.class, OffHeapArena.Allocations.class,
+            Nothing.class, RockstarOps.class, RockstarLinker.class, NumberFormatter.class, RockstarOutput.class,
+            RockstarInput.class, LineSource.class, MappedLineSource.class);
+
+    private final CompilationCache cache;
+
+    public RockFileCompiler() {
+        this(null);
+    }
+
+    /**
+     * Programs compiled with {@link #compileAll(Map)} go through the cache, if there is one.
+     */
+    public RockFileCompiler(CompilationCache cache) {
+        this.cache = cache;
+    }
 
     public static void main(String[] args) throws IOException {
         String fileName = args[0];
@@ -35,24 +77,113 @@ public class RockFileCompiler {
 
     public void compile(InputStream stream, File outFile) throws IOException {
         // Copy across supporting classes
-        // TODO check if it exists first rather than always copying
-        copyClass(outFile, RockstarArray.class);
-        copyClass(outFile, Nothing.class);
+        copySupportClasses(outFile.getParentFile());
+        generate(stream, outFile);
+    }
+
+    /**
+     * Compiles every source file into the class file it maps to. Programs don't depend on each other, so they are
+     * compiled several at a time, on as many threads as there are processors unless {@value #THREADS_PROPERTY} says
+     * otherwise. Every program gets a go even if some fail, and then the failures are reported in source path order,
+     * so the same broken files always give the same error.
+     */
+    public void compileAll(Map<File, File> outFilesBySource) throws IOException {
+        List<File> sources = new ArrayList<>(outFilesBySource.keySet());
+        sources.sort(Comparator.comparing(File::getPath));
+
+        // Every program needs the same support classes, so only copy them once per directory
+        Set<File> outDirs = new LinkedHashSet<>();
+        for (File source : sources) {
+            outDirs.add(outFilesBySource.get(source).getAbsoluteFile().getParentFile());
+        }
+        for (File outDir : outDirs) {
+            copySupportClasses(outDir);
+        }
+
+        int threads = Integer.getInteger(THREADS_PROPERTY, Runtime.getRuntime().availableProcessors());
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, Math.min(threads, sources.size())));
+        List<Future<?>> results = new ArrayList<>();
+        try {
+            for (File source : sources) {
+                results.add(pool.submit(() -> {
+                    compileCached(source, outFilesBySource.get(source));
+                    return null;
+                }));
+            }
+
+            List<String> failures = new ArrayList<>();
+            RuntimeException failure = null;
+            for (int i = 0; i < sources.size(); i++) {
+                try {
+                    results.get(i).get();
+                } catch (ExecutionException e) {
+                    failures.add(sources.get(i).getPath() + ": " + e.getCause().getMessage());
+                    if (failure == null) {
+                        failure = new RuntimeException(e.getCause());
+                    } else {
+                        failure.addSuppressed(e.getCause());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Stopped in the middle of the song", e);
+                }
+            }
+            if (failure != null) {
+                throw new RuntimeException(failures.size() + " of " + sources.size()
+                        + " programs didn't make the cut:\n  " + String.join("\n  ", failures), failure);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void compileCached(File source, File outFile) throws IOException {
+        if (cache == null) {
+            try (InputStream stream = new FileInputStream(source)) {
+                generate(stream, outFile);
+            }
+            return;
+        }
+        byte[] bytes = Files.readAllBytes(source.toPath());
+        String key = cache.key(bytes, getBasename(outFile));
+        if (!cache.restore(key, outFile)) {
+            generate(new ByteArrayInputStream(bytes), outFile);
+            cache.store(key, outFile);
+        }
+    }
+
+    private void generate(InputStream stream, File outFile) throws IOException {
         ClassFileWriter cl = new ClassFileWriter(outFile);
         new BytecodeGenerator().generateBytecode(stream, getBasename(outFile), cl);
     }
 
-    private static void copyClass(File outFile, Class c) throws IOException {
+    private static void copySupportClasses(File outDir) throws IOException {
+        for (Class<?> c : SUPPORT_CLASSES) {
+            copyClass(outDir, c);
+        }
+    }
+
+    private static void copyClass(File outDir, Class<?> c) throws IOException {
         String className = c.getName();
         String classAsPath = className.replace('.', '/') + ".class";
+        byte[] bytes;
         try (InputStream arrayStream = c.getClassLoader().getResourceAsStream(classAsPath)) {
+            bytes = arrayStream.readAllBytes();
+        }
 
-            File targetFile = new File(outFile.getParentFile(), classAsPath);
-            targetFile.mkdirs();
-            java.nio.file.Files.copy(
-                    arrayStream,
-                    targetFile.toPath(),
-                    StandardCopyOption.REPLACE_EXISTING);
+        Path target = new File(outDir, classAsPath).toPath();
+        // Rewriting a class that hasn't changed would set dev mode off on a restart
+        if (Files.exists(target) && Arrays.equals(bytes, Files.readAllBytes(target))) {
+            return;
+        }
+        Files.createDirectories(target.getParent());
+        // Other compiles may be copying the same class into the same place, so never let anyone see half a file
+        Path temp = Files.createTempFile(target.getParent(), c.getSimpleName(), ".tmp");
+        try {
+            Files.write(temp, bytes);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
         }
     }
 }
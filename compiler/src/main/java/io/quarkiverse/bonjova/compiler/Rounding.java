@@ -5,7 +5,7 @@ import io.quarkus.gizmo.MethodDescriptor;
 import io.quarkus.gizmo.ResultHandle;
 import rock.Rockstar;
 
-public class Rounding {
+public final class Rounding implements Statement {
     private static final MethodDescriptor ROUND_METHOD = MethodDescriptor.ofMethod("java/lang/Math", "round", "J", "D");
     private static final MethodDescriptor FLOOR_METHOD = MethodDescriptor.ofMethod("java/lang/Math", "floor", "D", "D");
     private static final MethodDescriptor CEIL_METHOD = MethodDescriptor.ofMethod("java/lang/Math", "ceil", "D", "D");
@@ -31,6 +31,10 @@ public class Rounding {
         }
     }
 
+    public Variable getVariable() {
+        return variable;
+    }
+
     public ResultHandle toCode(Block block) {
         BytecodeCreator method = block.method();
         ResultHandle variableContents = variable.getResultHandle(block);
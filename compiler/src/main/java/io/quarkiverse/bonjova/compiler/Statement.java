@@ -0,0 +1,10 @@
+package io.quarkiverse.bonjova.compiler;
+
+/**
+ * A node in the program tree. The tree is built from the parse tree before any bytecode gets generated, so passes like
+ * type inference can see the whole program first, and so that pronouns only have to be worked out once.
+ */
+public sealed interface Statement
+        permits Array, Assignment, Break, Cast, Condition, Continue, Decrement, Function, Increment, Input, Join, Loop,
+        Output, Return, Rounding, StatementList, StringSplit {
+}
@@ -0,0 +1,9 @@
+package io.quarkiverse.bonjova.compiler;
+
+import java.util.List;
+
+/**
+ * A run of statements which gets a bytecode scope of its own, such as the top level of the program or of a function.
+ */
+public record StatementList(List<Statement> statements) implements Statement {
+}
@@ -13,7 +13,7 @@ import java.util.List;
 import static io.quarkiverse.bonjova.compiler.Array.ADD_METHOD;
 import static io.quarkiverse.bonjova.compiler.Array.TYPE_CLASS;
 
-public class StringSplit {
+public final class StringSplit implements Statement {
     private static final MethodDescriptor SPLIT_METHOD = MethodDescriptor.ofMethod(String.class, "split", String[].class,
             String.class);
     private static final MethodDescriptor LENGTH_METHOD = MethodDescriptor.ofMethod(String.class, "length", int.class);
@@ -56,6 +56,18 @@ public class StringSplit {
         return variable.getVariableName();
     }
 
+    public Variable getVariable() {
+        return variable;
+    }
+
+    public Expression getSource() {
+        return source;
+    }
+
+    public Expression getDelimiter() {
+        return delimiter;
+    }
+
     public ResultHandle toCode(Block inBlock) {
 
         BytecodeCreator method = inBlock.method();
@@ -0,0 +1,42 @@
+package io.quarkiverse.bonjova.compiler;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * What we know about the variables in a program: the class each one can be stored as, and which ones only belong to a
+ * single function.
+ */
+public class SymbolTable {
+
+    // Missing entries mean we have not seen a write yet; Object.class is the 'could be anything' type
+    final Map<String, Class<?>> variableClasses = new HashMap<>();
+
+    // Anything written outside a function is global, and functions write to the global rather than making a local
+    final Set<String> globalVariables = new HashSet<>();
+    final Map<Function, Set<String>> functionVariables = new HashMap<>();
+
+    /**
+     * A table which knows nothing, so every variable is an Object.
+     */
+    public SymbolTable() {
+    }
+
+    public Class<?> getVariableClass(String variableName) {
+        Class<?> variableClass = variableClasses.get(variableName);
+        // If we never got an answer, the variable is only ever written with things we could not work out, so be safe
+        return variableClass == null ? Object.class : variableClass;
+    }
+
+    /**
+     * The variables which only belong to the given function (including its parameters), in the order they were first written.
+     */
+    public Set<String> getLocalVariables(Function function) {
+        Set<String> locals = new LinkedHashSet<>(functionVariables.getOrDefault(function, Set.of()));
+        locals.removeAll(globalVariables);
+        return locals;
+    }
+}
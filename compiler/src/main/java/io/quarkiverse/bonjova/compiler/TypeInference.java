@@ -0,0 +1,280 @@
+package io.quarkiverse.bonjova.compiler;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Stack;
+import java.util.stream.Stream;
+
+/**
+ * Works out, before any bytecode gets generated, which variables only ever hold numbers, booleans, or strings. Those can then
+ * be stored as primitives (or at least as something more specific than Object), and arithmetic on them does not need to box.
+ * Anything we cannot prove, or which is genuinely polymorphic, stays as an Object and goes down the generic path.
+ * <p>
+ * Since it sees every write, it also works out which variables belong to a single function, and so can live on the stack.
+ * <p>
+ * Pronouns were resolved when the program tree was built, so all this has to do is walk it. It is flow-sensitive enough
+ * to notice variables which might be read before they are written.
+ */
+public class TypeInference {
+
+    private final SymbolTable symbols = new SymbolTable();
+    private final Map<String, Class<?>> variableClasses = symbols.variableClasses;
+
+    private Set<String> definitelyWritten = new HashSet<>();
+    private final Stack<Set<String>> enclosingScopes = new Stack<>();
+    private final Stack<Function> enclosingFunctions = new Stack<>();
+
+    private TypeInference() {
+    }
+
+    public static SymbolTable infer(Program program) {
+        TypeInference inference = new TypeInference();
+        // The type of one variable can depend on the type of another, so keep going until nothing changes
+        Map<String, Class<?>> previous;
+        do {
+            previous = new HashMap<>(inference.variableClasses);
+            inference.definitelyWritten = new HashSet<>();
+            inference.enclosingScopes.clear();
+            inference.enclosingFunctions.clear();
+
+            inference.statements(program.getStatements());
+        } while (!previous.equals(inference.variableClasses));
+
+        return inference.symbols;
+    }
+
+    private void statements(List<Statement> statements) {
+        for (Statement statement : statements) {
+            statement(statement);
+        }
+    }
+
+    private void statement(Statement statement) {
+        switch (statement) {
+            case StatementList list -> statements(list.statements());
+            case Function function -> function(function);
+            case Return returnStmt -> expression(returnStmt.getExpression());
+            case Condition condition -> condition(condition);
+            case Loop loop -> loop(loop);
+            case Assignment assignment -> assignment(assignment);
+            case Input input -> write(input.getVariableName(), Object.class);
+            case Output output -> expression(output.getExpression());
+            case Rounding rounding -> write(read(rounding.getVariable()), double.class);
+            case Increment increment -> {
+                String name = read(increment.getVariable());
+                write(name, stepClass(name));
+            }
+            case Decrement decrement -> {
+                String name = read(decrement.getVariable());
+                write(name, stepClass(name));
+            }
+            case Array array -> array(array);
+            case StringSplit split -> {
+                expression(split.getSource());
+                write(split.getVariableName(), Object.class);
+                if (split.getDelimiter() != null) {
+                    expression(split.getDelimiter());
+                }
+            }
+            case Cast cast -> {
+                expression(cast.getSource());
+                if (cast.getRadix() != null) {
+                    expression(cast.getRadix());
+                }
+                if (cast.getTarget() != null) {
+                    write(cast.getTarget().getVariableName(), Object.class);
+                }
+            }
+            case Join join -> {
+                readArray(join.getSource());
+                if (join.getDelimiter() != null) {
+                    expression(join.getDelimiter());
+                }
+                write(join.getTarget().getVariableName(), String.class);
+            }
+            case Break ignored -> {
+            }
+            case Continue ignored -> {
+            }
+        }
+    }
+
+    private void function(Function function) {
+        enclosingScopes.push(definitelyWritten);
+        enclosingFunctions.push(function);
+        // We do not know when the function gets called, so globals might not have been written yet
+        definitelyWritten = new HashSet<>();
+        for (Parameter param : function.getParameters()) {
+            write(param.getVariableName(), Object.class);
+        }
+
+        statements(function.getBody());
+
+        definitelyWritten = enclosingScopes.pop();
+        enclosingFunctions.pop();
+    }
+
+    private void condition(Condition condition) {
+        expression(condition.getExpression());
+
+        Set<String> before = definitelyWritten;
+        definitelyWritten = new HashSet<>(before);
+        statements(condition.getBody());
+        Set<String> afterThen = definitelyWritten;
+
+        if (condition.hasElse()) {
+            definitelyWritten = new HashSet<>(before);
+            statements(condition.getElseBody());
+            // Only things written on both branches are safe afterwards
+            definitelyWritten.retainAll(afterThen);
+        } else {
+            definitelyWritten = before;
+        }
+    }
+
+    private void loop(Loop loop) {
+        expression(loop.getExpression());
+
+        // The body might never run, so nothing it writes can be relied on afterwards
+        Set<String> before = definitelyWritten;
+        definitelyWritten = new HashSet<>(before);
+        statements(loop.getBody());
+        definitelyWritten = before;
+    }
+
+    private void assignment(Assignment assignment) {
+        Class<?> valueClass;
+        if (assignment.getArrayAccess() != null) {
+            readArray(assignment.getArrayAccess().getVariable());
+            valueClass = Object.class;
+        } else if (assignment.getExpression() != null) {
+            valueClass = expression(assignment.getExpression());
+        } else {
+            // Nothing and mysterious have to be able to turn into anything
+            valueClass = assignment.getVariableClass() == null ? Object.class : assignment.getVariableClass();
+        }
+        write(assignment.getVariableName(), valueClass);
+    }
+
+    private void array(Array array) {
+        write(array.getVariableName(), Object.class);
+
+        if (array.getInitialContents() != null) {
+            array.getInitialContents().forEach(this::expression);
+        }
+        if (array.getIndex() != null) {
+            expression(array.getIndex());
+            expression(array.getPlacedValue());
+        }
+    }
+
+    /**
+     * Returns the class of the expression, or null if it depends on things we have not worked out yet.
+     */
+    private Class<?> expression(Expression expression) {
+        Expression.Operation operation = expression.getOperation();
+
+        if (operation != null) {
+            switch (operation) {
+                case EQUALITY_CHECK, INEQUALITY_CHECK, GREATER_THAN_CHECK, LESS_THAN_CHECK, GREATER_OR_EQUAL_THAN_CHECK,
+                        LESS_OR_EQUAL_THAN_CHECK -> {
+                    expression(expression.getLhe());
+                    expression(expression.getRhe());
+                    return boolean.class;
+                }
+                default -> {
+                }
+            }
+
+            List<Class<?>> operandClasses = Stream
+                    .concat(Stream.of(expression.getLhe(), expression.getRhe()), expression.getExtraRhes().stream())
+                    .<Class<?>> map(this::expression)
+                    .toList();
+
+            switch (operation) {
+                case CONJUNCTION, DISJUNCTION, JOINT_DENIAL -> {
+                    return boolean.class;
+                }
+                case ADD -> {
+                    // Adding anything to a string makes a string, but otherwise we only know the answer for numbers
+                    if (operandClasses.contains(String.class)) {
+                        return String.class;
+                    } else if (operandClasses.contains(null)) {
+                        return null;
+                    } else if (operandClasses.stream().allMatch(c -> c == double.class)) {
+                        return double.class;
+                    } else {
+                        return Object.class;
+                    }
+                }
+                default -> {
+                    // Subtraction, multiplication, and division either give a number or blow up
+                    return double.class;
+                }
+            }
+        } else if (expression.isNegation()) {
+            expression(expression.getRhe());
+            return boolean.class;
+        } else if (expression.isFunctionCall()) {
+            expression.getParams().forEach(this::expression);
+            return Object.class;
+        } else if (expression.isArrayAccess()) {
+            readArray(expression.getVariable());
+            if (!expression.isArrayPop()) {
+                expression(expression.getArrayAccessIndex());
+            }
+            return Object.class;
+        } else if (expression.getValueHolder() instanceof Literal literal) {
+            return literal.getValueClass();
+        } else if (expression.getValueHolder() instanceof Constant constant) {
+            // Nothing and mysterious have to be able to turn into anything
+            return constant.getValueClass() == null ? Object.class : constant.getValueClass();
+        } else if (expression.getVariable() != null) {
+            return variableClasses.get(read(expression.getVariable()));
+        }
+        return Object.class;
+    }
+
+    /**
+     * Incrementing and decrementing keeps numbers as numbers, but does odd things to everything else.
+     */
+    private Class<?> stepClass(String variableName) {
+        Class<?> current = variableClasses.get(variableName);
+        return current == null || current == double.class ? current : Object.class;
+    }
+
+    private String read(Variable variable) {
+        String name = variable.getVariableName();
+        if (!definitelyWritten.contains(name)) {
+            // This could be mysterious when it gets read, so it needs to be able to hold a null
+            variableClasses.put(name, Object.class);
+        }
+        return name;
+    }
+
+    /**
+     * Arrays are always objects, and anything used as one might not be an array at all.
+     */
+    private String readArray(Variable variable) {
+        String name = variable.getVariableName();
+        variableClasses.put(name, Object.class);
+        return name;
+    }
+
+    private void write(String variableName, Class<?> valueClass) {
+        definitelyWritten.add(variableName);
+        if (enclosingFunctions.isEmpty()) {
+            symbols.globalVariables.add(variableName);
+        } else {
+            symbols.functionVariables.computeIfAbsent(enclosingFunctions.peek(), f -> new LinkedHashSet<>())
+                    .add(variableName);
+        }
+        if (valueClass != null) {
+            variableClasses.merge(variableName, valueClass, (a, b) -> a == b ? a : Object.class);
+        }
+    }
+}
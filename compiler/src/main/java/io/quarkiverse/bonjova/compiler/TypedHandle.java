@@ -0,0 +1,33 @@
+package io.quarkiverse.bonjova.compiler;
+
+import io.quarkus.gizmo.ResultHandle;
+
+/**
+ * A result handle, along with the class of what is in it. Gizmo knows the type of every handle, but keeps it to itself,
+ * so whatever generates a handle also says what it put there. Primitive classes mean the value is unboxed.
+ */
+public record TypedHandle(ResultHandle handle, Class<?> valueClass) {
+
+    public static TypedHandle object(ResultHandle handle) {
+        return new TypedHandle(handle, Object.class);
+    }
+
+    public boolean isNumber() {
+        return valueClass == double.class;
+    }
+
+    public boolean isBoolean() {
+        return valueClass == boolean.class;
+    }
+
+    public boolean isString() {
+        return valueClass == String.class;
+    }
+
+    /**
+     * Primitives can't be nothing, or mysterious, or arrays, so they never need coercing.
+     */
+    public boolean isPrimitive() {
+        return valueClass.isPrimitive();
+    }
+}
@@ -4,7 +4,13 @@ import io.quarkus.gizmo.ResultHandle;
 
 public interface ValueHolder {
 
-    ResultHandle getResultHandle(Block block);
+    TypedHandle getTypedHandle(Block block, Expression.Context context);
 
-    ResultHandle getResultHandle(Block block, Expression.Context context);
+    default ResultHandle getResultHandle(Block block) {
+        return getResultHandle(block, Expression.Context.NORMAL);
+    }
+
+    default ResultHandle getResultHandle(Block block, Expression.Context context) {
+        return getTypedHandle(block, context).handle();
+    }
 }
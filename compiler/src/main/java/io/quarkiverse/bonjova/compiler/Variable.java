@@ -1,5 +1,6 @@
 package io.quarkiverse.bonjova.compiler;
 
+import io.quarkus.gizmo.AssignableResultHandle;
 import io.quarkus.gizmo.FieldDescriptor;
 import io.quarkus.gizmo.ResultHandle;
 import org.antlr.v4.runtime.tree.TerminalNode;
@@ -10,7 +11,8 @@ import java.util.Arrays;
 
 public class Variable implements ValueHolder {
 
-    private static String mostRecentVariableName = null;
+    // Pronouns are resolved while a program is being built, which happens on one thread, so each thread keeps its own
+    private static final ThreadLocal<String> mostRecentVariableName = new ThreadLocal<>();
     protected final String variableName;
     protected Class<?> variableClass;
 
@@ -22,8 +24,6 @@ public class Variable implements ValueHolder {
         this(text, pronouns, false);
 
         this.variableClass = variableClass;
-        // TODO
-        this.variableClass = Object.class;
     }
 
     public Variable(Rockstar.VariableContext variable) {
@@ -37,21 +37,30 @@ public class Variable implements ValueHolder {
     protected Variable(String text, TerminalNode pronouns, boolean enforceType) {
         // Work out the variable name
         // In principle trivial, in practice made a bit complicated by normalisation and more complicated by pronouns
-        // TODO type chaos
+        // Could be anything, as far as the variable itself knows; what it actually holds at each point comes from
+        // the SymbolTable, once type inference has been over the program
         this.variableClass = Object.class;
 
         if (pronouns != null) {
-            if (mostRecentVariableName == null) {
+            String mostRecent = mostRecentVariableName.get();
+            if (mostRecent == null) {
                 // This could be an internal error or a program one
                 throw new RuntimeException("No good: Unassociated pronoun");
             }
-            variableName = mostRecentVariableName;
+            variableName = mostRecent;
 
         } else {
             variableName = getNormalisedVariableName(text);
         }
     }
 
+    /**
+     * For variables the compiler needs to talk about, rather than ones the program mentions.
+     */
+    static Variable named(String variableName) {
+        return new Variable(variableName, null, false);
+    }
+
     /**
      * This is useful for things like variable names in bytecode, where spaces are not ok
      */
@@ -62,7 +71,7 @@ public class Variable implements ValueHolder {
     }
 
     public static void clearState() {
-        mostRecentVariableName = null;
+        mostRecentVariableName.remove();
     }
 
     public Class<?> getVariableClass() {
@@ -79,31 +88,51 @@ public class Variable implements ValueHolder {
      */
     public void track() {
         if (variableName != null) {
-            mostRecentVariableName = variableName;
+            mostRecentVariableName.set(variableName);
         }
     }
 
     public ResultHandle getResultHandle(Block block) {
+        AssignableResultHandle local = block.variables().getLocal(variableName);
+        if (local != null) {
+            return local;
+        }
         FieldDescriptor field = getField(block);
         return block.method().readStaticField(field);
     }
 
-    public ResultHandle getResultHandle(Block block, Expression.Context context) {
-        return getResultHandle(block);
+    public TypedHandle getTypedHandle(Block block, Expression.Context context) {
+        // Locals and fields are both declared with the class the scope gives, so that's what comes out
+        return new TypedHandle(getResultHandle(block), block.variables().getVariableClass(variableName));
     }
 
     public void write(Block block, ResultHandle value) {
+        AssignableResultHandle local = block.variables().getLocal(variableName);
+        if (local != null) {
+            block.method().assign(local, value);
+            return;
+        }
         FieldDescriptor field = getOrCreateField(block);
         block.method().writeStaticField(field, value);
     }
 
+    /**
+     * Makes sure the variable has somewhere to live, even if nothing ever writes to it.
+     */
+    public void declare(Block block) {
+        if (block.variables().getLocal(variableName) == null) {
+            getOrCreateField(block);
+        }
+    }
+
     public boolean isAlreadyWritten(Block block) {
-        FieldDescriptor field = block.variables().get(variableName);
-        return field != null;
+        // Locals are initialised on entry to the function, so they always count as written
+        // Globals can be written from inside a function, so look through the enclosing scopes too
+        return getFieldRecursive(block) != null || block.variables().getLocal(variableName) != null;
     }
 
     private FieldDescriptor getFieldRecursive(Block block) {
-        if (isAlreadyWritten(block)) {
+        if (block.variables().get(variableName) != null) {
             return block.variables().get(variableName);
         } else if (block.parent() != null) {
             return getFieldRecursive(block.parent());
@@ -128,9 +157,10 @@ public class Variable implements ValueHolder {
 
     protected FieldDescriptor getOrCreateField(Block block) {
         FieldDescriptor field;
-        if (!isAlreadyWritten(block)) {
+        if (block.variables().get(variableName) == null) {
             // Variables are global in method, so need to be stored at the class level (either as static or instance variables)
-            field = block.creator().getFieldCreator(variableName, variableClass)
+            // The declared class is only a hint about this write; the field has to suit every write, so ask the scope
+            field = block.creator().getFieldCreator(variableName, block.variables().getVariableClass(variableName))
                     .setModifiers(Opcodes.ACC_STATIC + Opcodes.ACC_PRIVATE)
                     .getFieldDescriptor();
 
@@ -1,13 +1,27 @@
 package io.quarkiverse.bonjova.compiler;
 
+import io.quarkus.gizmo.AssignableResultHandle;
 import io.quarkus.gizmo.FieldDescriptor;
 
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 public class VariableScope {
 
     private final Map<String, FieldDescriptor> variables = new HashMap<>();
+    // Function-scoped variables live in the method's local variable slots, rather than in fields
+    private final Map<String, AssignableResultHandle> locals = new LinkedHashMap<>();
+    private final SymbolTable symbols;
+
+    public VariableScope() {
+        this(new SymbolTable());
+    }
+
+    public VariableScope(SymbolTable symbols) {
+        this.symbols = symbols;
+    }
 
     public FieldDescriptor get(String variableName) {
         return variables.get(variableName);
@@ -20,4 +34,23 @@ public class VariableScope {
     public void put(String variableName, FieldDescriptor field) {
         variables.put(variableName, field);
     }
+
+    public AssignableResultHandle getLocal(String variableName) {
+        return locals.get(variableName);
+    }
+
+    public void putLocal(String variableName, AssignableResultHandle local) {
+        locals.put(variableName, local);
+    }
+
+    public Collection<AssignableResultHandle> getLocals() {
+        return locals.values();
+    }
+
+    /**
+     * The type a variable should be stored as; this is Object unless we were able to prove otherwise.
+     */
+    public Class<?> getVariableClass(String variableName) {
+        return symbols.getVariableClass(variableName);
+    }
 }
@@ -0,0 +1,1178 @@
+package io.quarkiverse.bonjova.compiler.grammar;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.tree.TerminalNodeImpl;
+import rock.Rockstar;
+
+import java.util.ArrayDeque;
+import java.util.List;
+
+import static rock.RockstarLexer.*;
+
+/**
+ * A hand-written front end, which builds the same parse tree as the ANTLR grammar, node for node, so everything after
+ * parsing can't tell the difference. Statements are recursive descent, and expressions are precedence climbing, with
+ * the same (odd) precedences as the left-recursive expression rule.
+ * <p>
+ * The grammar is ambiguous in places, and ANTLR settles those with full-context prediction, which can look all the way
+ * to the end of the program. Where we know what it decides, we decide the same; the main ones are
+ * <ul>
+ * <li>blank lines, which are shared out between the enclosing statements in a particular way, and an EOF which every
+ * enclosing statement matches</li>
+ * <li>operators, commas, and Elses, which go to the innermost expression or If that can take them</li>
+ * <li>arguments after the first to a function, which are just a literal or variable where that will do</li>
+ * </ul>
+ * Anything else that's ambiguous, like a blank line before an Else, or anything that isn't valid Rockstar, throws an
+ * {@link UnsupportedSyntaxException}, and the caller should give the program to ANTLR instead.
+ */
+public class PrattParser {
+
+    // Nothing after parsing looks at invoking states, so there's no need to track the generated parser's states
+    private static final int INVOKING_STATE = 0;
+
+    // Precedences from the generated parser's precpred() calls, highest first
+    private static final int MULTIPLICATIVE = 11;
+    private static final int ADDITIVE = 10;
+    private static final int SIGN = 9;
+    private static final int SYMBOLIC = 8;
+    private static final int COMPARISON = 7;
+    private static final int CONTRACTED_COMPARISON = 6;
+    private static final int LOGICAL = 5;
+    private static final int NEGATION = 4;
+    private static final int INDEX = 3;
+
+    private final List<Token> tokens;
+    private int pos;
+    // In cast and split statements, 'with' starts the last clause, rather than adding things up
+    private boolean withEndsExpression;
+    // Once anything has matched EOF, the generated parser ends every rule on it, so we do too
+    private boolean matchedEof;
+    // The Ifs and loops around the current statement, innermost first; true for an If which could still take an Else
+    private final ArrayDeque<Boolean> blocks = new ArrayDeque<>();
+
+    private PrattParser(List<Token> tokens) {
+        this.tokens = tokens;
+    }
+
+    public static Rockstar.ProgramContext parse(CharStream input) {
+        return new PrattParser(RockstarScanner.scan(input)).program();
+    }
+
+    private Rockstar.ProgramContext program() {
+        Rockstar.ProgramContext ctx = enter(new Rockstar.ProgramContext(null, -1));
+        while (la(1) == NL || la(1) == WS) {
+            if (la(1) == NL) {
+                match(ctx, NL);
+            } else {
+                ws(ctx);
+            }
+        }
+        while (isFunctionStart(pos) || isStatementStart(pos)) {
+            terminatedStatementList(ctx);
+        }
+        if (la(1) == WS) {
+            ws(ctx);
+        }
+        if (la(1) != EOF) {
+            throw unsupported("something which isn't a statement");
+        }
+        return exit(ctx);
+    }
+
+    private void terminatedStatementList(ParserRuleContext parent) {
+        Rockstar.TerminatedStatementListContext ctx = enter(new Rockstar.TerminatedStatementListContext(parent,
+                INVOKING_STATE));
+        while (true) {
+            if (isFunctionStart(pos)) {
+                functionDeclaration(ctx);
+            } else if (isStatementStart(pos)) {
+                statementList(ctx, 0);
+            } else {
+                break;
+            }
+        }
+        if (typeAt(skipWs(pos)) == KW_GIVE) {
+            returnStmt(ctx);
+        }
+        exit(ctx);
+    }
+
+    // depth is the number of Ifs and loops around the statements, inside the current function
+    private void statementList(ParserRuleContext parent, int depth) {
+        Rockstar.StatementListContext ctx = enter(new Rockstar.StatementListContext(parent, INVOKING_STATE));
+        if (!isStatementStart(pos)) {
+            throw unsupported("an empty block");
+        }
+        do {
+            statement(ctx, depth);
+        } while (isStatementStart(pos));
+        exit(ctx);
+    }
+
+    private void statement(ParserRuleContext parent, int depth) {
+        Rockstar.StatementContext ctx = enter(new Rockstar.StatementContext(parent, INVOKING_STATE));
+        if (la(1) == WS) {
+            ws(ctx);
+        }
+        boolean block = false;
+        switch (la(1)) {
+            case KW_IF -> {
+                ifStmt(ctx, depth);
+                block = true;
+            }
+            case KW_WHILE, KW_UNTIL -> {
+                loopStmt(ctx, depth);
+                block = true;
+            }
+            case KW_LISTEN -> inputStmt(ctx);
+            case KW_SHOUT, KW_SAY -> outputStmt(ctx);
+            case KW_LET -> {
+                int afterVariable = skipWs(variableEnd(skipWs(pos + 1)));
+                if (typeAt(afterVariable) == KW_AT) {
+                    arrayStmt(ctx);
+                } else {
+                    assignmentStmt(ctx);
+                }
+            }
+            case KW_PUT, KW_ROLL, PRONOUNS, COMMON_VARIABLE_PREFIXES, PROPER_NOUN, WORD -> assignmentStmt(ctx);
+            case KW_TURN -> roundingStmt(ctx);
+            case KW_BUILD -> incrementStmt(ctx);
+            case KW_KNOCK -> decrementStmt(ctx);
+            case KW_ROCK -> arrayStmt(ctx);
+            case KW_SPLIT -> stringStmt(ctx);
+            case KW_CAST -> castStmt(ctx);
+            case KW_JOIN -> joinStmt(ctx);
+            case KW_CONTINUE -> oneToken(new Rockstar.ContinueStmtContext(ctx, INVOKING_STATE));
+            case KW_BREAK -> oneToken(new Rockstar.BreakStmtContext(ctx, INVOKING_STATE));
+            default -> throw unsupported("a statement starting with " + VOCABULARY.getSymbolicName(la(1)));
+        }
+        endStatement(ctx, depth, block);
+        exit(ctx);
+    }
+
+    /**
+     * Matches the newlines (or EOF) at the end of a statement, in the same way as the generated parser shares them out.
+     * The grammar doesn't end blocks on blank lines, but the generated parser will, if it can: a statement followed by
+     * a blank line takes one newline, which ends the innermost block, and the statement around it gets the rest, and
+     * decides again. It only keeps going in the same block (by taking all the newlines) if ending it would leave the rest
+     * of the program worse off, which is when an Else would be left without an If, or nothing at all would match the
+     * EOF. See {@link #restOfProgramParses}.
+     */
+    private void endStatement(ParserRuleContext ctx, int depth, boolean block) {
+        int newlines = 0;
+        while (typeAt(pos + newlines) == NL) {
+            newlines++;
+        }
+        int after = pos + newlines;
+        int next = typeAt(skipWs(after));
+        boolean indented = typeAt(after) == WS;
+
+        if (newlines == 0) {
+            if (la(1) == EOF) {
+                match(ctx, EOF);
+            } else if (!block && next != KW_ELSE) {
+                throw unsupported("more than one statement on a line");
+            }
+            return;
+        }
+
+        int take;
+        if (next == EOF && !indented) {
+            if (depth >= 2) {
+                take = 1;
+            } else if (depth == 1 || !block) {
+                take = newlines;
+            } else {
+                take = 0;
+            }
+        } else if (next == EOF) {
+            if (depth > 0 || block) {
+                throw unsupported("whitespace at the end of a block");
+            }
+            take = newlines;
+        } else if (isFunctionStart(after) || next == KW_GIVE) {
+            take = depth == 0 ? newlines : 1;
+        } else if (next == KW_ELSE && newlines == 1 && !block) {
+            take = 1;
+        } else if (isStatementStart(after) && (newlines == 1 || depth == 0)) {
+            take = newlines;
+        } else if (isStatementStart(after)) {
+            if (restOfProgramParses(after, true)) {
+                take = 1;
+            } else if (restOfProgramParses(after, false)) {
+                take = newlines;
+            } else {
+                throw unsupported("a blank line which leaves the rest of the program in pieces");
+            }
+        } else {
+            throw unsupported("a blank line in the middle of a block");
+        }
+
+        for (int i = 0; i < take; i++) {
+            match(ctx, NL);
+        }
+        if (take == 0 && la(1) == EOF) {
+            match(ctx, EOF);
+        }
+    }
+
+    /**
+     * Whether the rest of the program, from the statement starting at the given token, would still parse with or
+     * without the innermost block ending before it. This is the generated parser's full-context prediction, cut down
+     * to what matters here: every block stays open as long as it can (which is the best chance for both Elses and the
+     * EOF), and a function or a Give ends all of them whatever happens, so looking any further would make no
+     * difference.
+     */
+    private boolean restOfProgramParses(int from, boolean endBlock) {
+        ArrayDeque<Boolean> open = new ArrayDeque<>(blocks);
+        if (endBlock) {
+            open.pop();
+        }
+        int i = skipWs(from);
+        while (true) {
+            if (isFunctionStart(i) || typeAt(i) == KW_GIVE) {
+                return true;
+            }
+            if (typeAt(i) == KW_ELSE) {
+                // Loops inside the If it goes with end here
+                while (!open.isEmpty() && !open.peek()) {
+                    open.pop();
+                }
+                if (open.isEmpty()) {
+                    return false;
+                }
+                open.pop();
+                open.push(false);
+                i = skipWs(typeAt(i + 1) == NL ? i + 2 : i + 1);
+                continue;
+            }
+            if (typeAt(i) == KW_IF || typeAt(i) == KW_WHILE || typeAt(i) == KW_UNTIL) {
+                open.push(typeAt(i) == KW_IF);
+            } else if (!isStatementStart(i)) {
+                return false;
+            }
+            while (typeAt(i) != NL && typeAt(i) != EOF) {
+                i++;
+            }
+            if (typeAt(i) == EOF) {
+                // The last statement matches the EOF itself, however it's parsed
+                return true;
+            }
+            while (typeAt(i) == NL) {
+                i++;
+            }
+            if (typeAt(i) == EOF) {
+                // Only a block statement can match an EOF after newlines
+                return !open.isEmpty();
+            }
+            i = skipWs(i);
+            if (typeAt(i) == EOF) {
+                // Nothing can match an EOF after whitespace, so it's all the same
+                return true;
+            }
+        }
+    }
+
+    private void ifStmt(ParserRuleContext parent, int depth) {
+        Rockstar.IfStmtContext ctx = enter(new Rockstar.IfStmtContext(parent, INVOKING_STATE));
+        match(ctx, KW_IF);
+        ws(ctx);
+        ctx.expr = expression(ctx, 0);
+        match(ctx, NL);
+        blocks.push(true);
+        statementList(ctx, depth + 1);
+        // The innermost If gets the Else, because it gets the first chance to take it
+        if (typeAt(skipWs(pos)) == KW_ELSE) {
+            if (la(1) == WS) {
+                ws(ctx);
+            }
+            match(ctx, KW_ELSE);
+            if (la(1) == NL) {
+                match(ctx, NL);
+            }
+            blocks.pop();
+            blocks.push(false);
+            statementList(ctx, depth + 1);
+        }
+        blocks.pop();
+        exit(ctx);
+    }
+
+    private void loopStmt(ParserRuleContext parent, int depth) {
+        Rockstar.LoopStmtContext ctx = enter(new Rockstar.LoopStmtContext(parent, INVOKING_STATE));
+        match(ctx, la(1));
+        ws(ctx);
+        ctx.expr = expression(ctx, 0);
+        match(ctx, NL);
+        blocks.push(false);
+        statementList(ctx, depth + 1);
+        blocks.pop();
+        exit(ctx);
+    }
+
+    private void functionDeclaration(ParserRuleContext parent) {
+        Rockstar.FunctionDeclarationContext ctx = enter(new Rockstar.FunctionDeclarationContext(parent,
+                INVOKING_STATE));
+        ctx.functionName = variable(ctx);
+        match(ctx, WS);
+        match(ctx, KW_TAKES);
+        match(ctx, WS);
+        paramList(ctx);
+        match(ctx, NL);
+        if (isStatementStart(pos)) {
+            statementList(ctx, 0);
+        }
+        exit(ctx);
+    }
+
+    private void paramList(ParserRuleContext parent) {
+        Rockstar.ParamListContext ctx = enter(new Rockstar.ParamListContext(parent, INVOKING_STATE));
+        variable(ctx);
+        while (true) {
+            int i = pos;
+            if (typeAt(i) == COMMA) {
+                i++;
+            }
+            while (typeAt(i) == WS) {
+                i++;
+            }
+            if (typeAt(i) == KW_AND && typeAt(i + 1) == WS && isVariableStart(typeAt(i + 2))) {
+                // COMMA? WS* KW_AND WS
+                if (la(1) == COMMA) {
+                    match(ctx, COMMA);
+                }
+                while (la(1) == WS) {
+                    match(ctx, WS);
+                }
+                match(ctx, KW_AND);
+            } else if (la(1) == WS && (la(2) == COMMA || la(2) == AMPERSAND || la(2) == APOSTROPHED_N)
+                    && la(3) == WS && isVariableStart(la(4))) {
+                match(ctx, WS);
+                match(ctx, la(1));
+            } else {
+                break;
+            }
+            match(ctx, WS);
+            variable(ctx);
+        }
+        exit(ctx);
+    }
+
+    private void returnStmt(ParserRuleContext parent) {
+        Rockstar.ReturnStmtContext ctx = enter(new Rockstar.ReturnStmtContext(parent, INVOKING_STATE));
+        if (la(1) == WS) {
+            ws(ctx);
+        }
+        match(ctx, KW_GIVE);
+        if (typeAt(skipWs(pos)) == KW_BACK && la(1) == WS) {
+            ws(ctx);
+            match(ctx, KW_BACK);
+        }
+        ws(ctx);
+        expression(ctx, 0);
+        if (typeAt(skipWs(pos)) == KW_BACK && la(1) == WS) {
+            ws(ctx);
+            match(ctx, KW_BACK);
+        }
+        if (la(1) == EOF) {
+            match(ctx, EOF);
+        } else {
+            do {
+                match(ctx, NL);
+            } while (la(1) == NL);
+        }
+        exit(ctx);
+    }
+
+    private void inputStmt(ParserRuleContext parent) {
+        Rockstar.InputStmtContext ctx = enter(new Rockstar.InputStmtContext(parent, INVOKING_STATE));
+        match(ctx, KW_LISTEN);
+        ws(ctx);
+        match(ctx, KW_TO);
+        ws(ctx);
+        variable(ctx);
+        exit(ctx);
+    }
+
+    private void outputStmt(ParserRuleContext parent) {
+        Rockstar.OutputStmtContext ctx = enter(new Rockstar.OutputStmtContext(parent, INVOKING_STATE));
+        match(ctx, la(1));
+        ws(ctx);
+        expression(ctx, 0);
+        exit(ctx);
+    }
+
+    private void assignmentStmt(ParserRuleContext parent) {
+        Rockstar.AssignmentStmtContext ctx = enter(new Rockstar.AssignmentStmtContext(parent, INVOKING_STATE));
+        switch (la(1)) {
+            case KW_LET -> {
+                match(ctx, KW_LET);
+                ws(ctx);
+                variable(ctx);
+                ws(ctx);
+                match(ctx, KW_BE);
+                ws(ctx);
+                expression(ctx, 0);
+            }
+            case KW_PUT -> {
+                match(ctx, KW_PUT);
+                ws(ctx);
+                expression(ctx, 0);
+                ws(ctx);
+                match(ctx, KW_INTO);
+                ws(ctx);
+                variable(ctx);
+            }
+            case KW_ROLL -> {
+                match(ctx, KW_ROLL);
+                ws(ctx);
+                variable(ctx);
+                ws(ctx);
+                match(ctx, KW_INTO);
+                ws(ctx);
+                variable(ctx);
+            }
+            default -> {
+                variable(ctx);
+                int verb = typeAt(skipWs(pos));
+                if (la(1) == APOSTROPHE_S || la(1) == APOSTROPHE_RE) {
+                    match(ctx, la(1));
+                } else if (la(1) == WS && verb == KW_IS) {
+                    ws(ctx);
+                    match(ctx, KW_IS);
+                } else if (la(1) == WS && (verb == KW_SAYS || verb == KW_SAY)) {
+                    ws(ctx);
+                    match(ctx, verb);
+                    match(ctx, WS);
+                    poeticStringLiteral(ctx);
+                    break;
+                } else {
+                    throw unsupported("a variable that isn't being assigned");
+                }
+                ws(ctx);
+                switch (la(1)) {
+                    case NUMERIC_LITERAL, STRING_LITERAL -> literal(ctx);
+                    case CONSTANT_UNDEFINED, CONSTANT_NULL, CONSTANT_TRUE, CONSTANT_FALSE, CONSTANT_EMPTY -> constant(ctx);
+                    default -> poeticNumberLiteral(ctx);
+                }
+            }
+        }
+        exit(ctx);
+    }
+
+    private void poeticNumberLiteral(ParserRuleContext parent) {
+        Rockstar.PoeticNumberLiteralContext ctx = enter(new Rockstar.PoeticNumberLiteralContext(parent,
+                INVOKING_STATE));
+        poeticNumberLiteralLeadingWord(ctx, 0);
+        poeticNumberLiteralEnding(ctx);
+        while (la(1) == WS) {
+            ws(ctx);
+            Rockstar.PoeticNumberLiteralWordContext word = enter(new Rockstar.PoeticNumberLiteralWordContext(ctx,
+                    INVOKING_STATE));
+            if (isConstantWord(la(1))) {
+                allConstants(word);
+            } else {
+                poeticNumberLiteralLeadingWord(word, 0);
+            }
+            exit(word);
+            poeticNumberLiteralEnding(ctx);
+        }
+        exit(ctx);
+    }
+
+    /**
+     * A word, or words joined up with hyphens and apostrophes, like fa'too'many. These are left-recursive in the
+     * grammar, like expressions, so they're built the same way.
+     */
+    private void poeticNumberLiteralLeadingWord(ParserRuleContext parent, int precedence) {
+        Rockstar.PoeticNumberLiteralLeadingWordContext ctx = new Rockstar.PoeticNumberLiteralLeadingWordContext(parent,
+                INVOKING_STATE);
+        ctx.start = lt(1);
+        int type = la(1);
+        if (isKeyword(type)) {
+            allKeywords(ctx);
+        } else if (type == COMMON_VARIABLE_PREFIXES || type == PRONOUNS || type == WORD || type == PROPER_NOUN) {
+            match(ctx, type);
+        } else {
+            throw unsupported("a poetic number with a " + VOCABULARY.getSymbolicName(type) + " in");
+        }
+        while (true) {
+            int join = la(1);
+            int joinPrecedence = switch (join) {
+                case HYPHEN -> 11;
+                case SINGLE_QUOTE -> 10;
+                case APOSTROPHE_S -> 9;
+                case APOSTROPHE_RE -> 8;
+                case APOSTROPHED_N -> 7;
+                default -> -1;
+            };
+            if (joinPrecedence < precedence) {
+                break;
+            }
+            // With nothing after it, an apostrophe could be garbage instead
+            if (!isKeyword(la(2)) && la(2) != COMMON_VARIABLE_PREFIXES && la(2) != PRONOUNS && la(2) != WORD
+                    && la(2) != PROPER_NOUN) {
+                throw unsupported("a poetic number with a dangling " + VOCABULARY.getSymbolicName(join));
+            }
+            Rockstar.PoeticNumberLiteralLeadingWordContext left = ctx;
+            left.stop = lt(-1);
+            ctx = new Rockstar.PoeticNumberLiteralLeadingWordContext(parent, INVOKING_STATE);
+            ctx.start = left.start;
+            left.parent = ctx;
+            ctx.addChild(left);
+            match(ctx, join);
+            poeticNumberLiteralLeadingWord(ctx, join == HYPHEN ? joinPrecedence + 1 : 0);
+        }
+        ctx.stop = lt(-1);
+        parent.addChild(ctx);
+    }
+
+    // Garbage gives the generated parser some choices, so leave that to it
+    private void poeticNumberLiteralEnding(ParserRuleContext parent) {
+        switch (la(1)) {
+            case DOT -> oneToken(new Rockstar.PoeticNumberLiteralDecimalSeparatorContext(parent, INVOKING_STATE));
+            case NL, EOF, WS -> {
+            }
+            default -> throw unsupported("a poetic number with a " + VOCABULARY.getSymbolicName(la(1)) + " in");
+        }
+    }
+
+    private void poeticStringLiteral(ParserRuleContext parent) {
+        Rockstar.PoeticStringLiteralContext ctx = enter(new Rockstar.PoeticStringLiteralContext(parent,
+                INVOKING_STATE));
+        if (la(1) == WS) {
+            ws(ctx);
+        }
+        poeticStringLiteralWord(ctx);
+        while (isPoeticStringGarbage(la(1))) {
+            oneToken(new Rockstar.PoeticStringLiteralGarbageContext(ctx, INVOKING_STATE));
+        }
+        while (la(1) == WS) {
+            ws(ctx);
+            while (isPoeticStringGarbage(la(1))) {
+                oneToken(new Rockstar.PoeticStringLiteralGarbageContext(ctx, INVOKING_STATE));
+            }
+            poeticStringLiteralWord(ctx);
+            while (isPoeticStringGarbage(la(1))) {
+                oneToken(new Rockstar.PoeticStringLiteralGarbageContext(ctx, INVOKING_STATE));
+            }
+        }
+        exit(ctx);
+    }
+
+    private void poeticStringLiteralWord(ParserRuleContext parent) {
+        Rockstar.PoeticStringLiteralWordContext ctx = enter(new Rockstar.PoeticStringLiteralWordContext(parent,
+                INVOKING_STATE));
+        int type = la(1);
+        if (isConstantWord(type)) {
+            allConstants(ctx);
+        } else if (isKeyword(type)) {
+            allKeywords(ctx);
+        } else if (type == COMMON_VARIABLE_PREFIXES || type == PRONOUNS || type == WORD || type == PROPER_NOUN) {
+            match(ctx, type);
+        } else {
+            throw unsupported("a poetic string with a " + VOCABULARY.getSymbolicName(type) + " in");
+        }
+        exit(ctx);
+    }
+
+    private void allConstants(ParserRuleContext parent) {
+        oneToken(new Rockstar.AllConstantsContext(parent, INVOKING_STATE));
+    }
+
+    private void allKeywords(ParserRuleContext parent) {
+        oneToken(new Rockstar.AllKeywordsContext(parent, INVOKING_STATE));
+    }
+
+    private void roundingStmt(ParserRuleContext parent) {
+        Rockstar.RoundingStmtContext ctx = enter(new Rockstar.RoundingStmtContext(parent, INVOKING_STATE));
+        match(ctx, KW_TURN);
+        ws(ctx);
+        if (isRoundingDirection(la(1))) {
+            match(ctx, la(1));
+            ws(ctx);
+            variable(ctx);
+        } else {
+            variable(ctx);
+            ws(ctx);
+            if (!isRoundingDirection(la(1))) {
+                throw unsupported("a turn with no direction");
+            }
+            match(ctx, la(1));
+        }
+        exit(ctx);
+    }
+
+    private void incrementStmt(ParserRuleContext parent) {
+        Rockstar.IncrementStmtContext ctx = enter(new Rockstar.IncrementStmtContext(parent, INVOKING_STATE));
+        match(ctx, KW_BUILD);
+        ws(ctx);
+        variable(ctx);
+        ws(ctx);
+        repeats(enter(new Rockstar.UpsContext(ctx, INVOKING_STATE)), KW_UP);
+        exit(ctx);
+    }
+
+    private void decrementStmt(ParserRuleContext parent) {
+        Rockstar.DecrementStmtContext ctx = enter(new Rockstar.DecrementStmtContext(parent, INVOKING_STATE));
+        match(ctx, KW_KNOCK);
+        ws(ctx);
+        variable(ctx);
+        ws(ctx);
+        repeats(enter(new Rockstar.DownsContext(ctx, INVOKING_STATE)), KW_DOWN);
+        exit(ctx);
+    }
+
+    // up, up, up and down down
+    private void repeats(ParserRuleContext ctx, int type) {
+        match(ctx, type);
+        while (typeAt(skipWs(la(1) == COMMA ? pos + 1 : pos)) == type && (la(1) == WS || la(2) == WS)) {
+            if (la(1) == COMMA) {
+                match(ctx, COMMA);
+            }
+            ws(ctx);
+            match(ctx, type);
+        }
+        exit(ctx);
+    }
+
+    private void arrayStmt(ParserRuleContext parent) {
+        Rockstar.ArrayStmtContext ctx = enter(new Rockstar.ArrayStmtContext(parent, INVOKING_STATE));
+        if (la(1) == KW_LET) {
+            match(ctx, KW_LET);
+            ws(ctx);
+            variable(ctx);
+            ws(ctx);
+            match(ctx, KW_AT);
+            ws(ctx);
+            expression(ctx, 0);
+            ws(ctx);
+            match(ctx, KW_BE);
+            ws(ctx);
+            expression(ctx, 0);
+        } else {
+            match(ctx, KW_ROCK);
+            ws(ctx);
+            int afterVariable = isVariableStart(la(1)) ? variableEnd(pos) : -1;
+            if (afterVariable >= 0 && (typeAt(afterVariable) == NL || typeAt(afterVariable) == EOF)) {
+                variable(ctx);
+            } else if (la(1) == PROPER_NOUN && afterVariable > pos + 1) {
+                // Rock Johnny could be a whole statement, with B Goode starting the next one
+                throw unsupported("a proper variable which could stop anywhere");
+            } else if (afterVariable >= 0 && typeAt(afterVariable) == WS
+                    && typeAt(skipWs(afterVariable)) == KW_WITH && !intoLater(afterVariable)) {
+                variable(ctx);
+                ws(ctx);
+                match(ctx, KW_WITH);
+                ws(ctx);
+                list(ctx);
+            } else {
+                list(ctx);
+                ws(ctx);
+                match(ctx, KW_INTO);
+                ws(ctx);
+                variable(ctx);
+            }
+        }
+        exit(ctx);
+    }
+
+    private boolean intoLater(int i) {
+        for (; typeAt(i) != NL && typeAt(i) != EOF; i++) {
+            if (typeAt(i) == KW_INTO) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void list(ParserRuleContext parent) {
+        Rockstar.ListContext ctx = enter(new Rockstar.ListContext(parent, INVOKING_STATE));
+        expression(ctx, 0);
+        while (la(1) == COMMA && la(2) == WS) {
+            match(ctx, COMMA);
+            ws(ctx);
+            expression(ctx, 0);
+        }
+        exit(ctx);
+    }
+
+    private void stringStmt(ParserRuleContext parent) {
+        Rockstar.StringStmtContext ctx = enter(new Rockstar.StringStmtContext(parent, INVOKING_STATE));
+        match(ctx, KW_SPLIT);
+        ws(ctx);
+        // The expression is optional, and lazy, so if what follows could be a statement of its own, it might be one
+        if (la(1) == KW_ROLL || isPoeticAssignmentStart(pos)) {
+            throw unsupported("a split which might not have anything to split");
+        }
+        intoAndWithClauses(ctx);
+        exit(ctx);
+    }
+
+    private void castStmt(ParserRuleContext parent) {
+        Rockstar.CastStmtContext ctx = enter(new Rockstar.CastStmtContext(parent, INVOKING_STATE));
+        match(ctx, KW_CAST);
+        ws(ctx);
+        intoAndWithClauses(ctx);
+        exit(ctx);
+    }
+
+    /**
+     * An expression, then 'into' a variable and 'with' another expression, both optional.
+     */
+    private void intoAndWithClauses(ParserRuleContext ctx) {
+        int withs = 0;
+        int with = -1;
+        boolean intoAfterWith = false;
+        for (int i = pos; typeAt(i) != NL && typeAt(i) != EOF; i++) {
+            if (typeAt(i) == KW_WITH) {
+                withs++;
+                with = i;
+            } else if (typeAt(i) == KW_INTO && withs > 0) {
+                intoAfterWith = true;
+            } else if (withs > 0 && !intoAfterWith && i > with + 2 && typeAt(i - 1) == WS
+                    && isPoeticAssignmentStart(i)) {
+                // Both alternatives can end at the 'with' expression, and the generated parser would rather start a
+                // new statement part of the way through it, if there's one to be had, like 'Johnny | B is it into y'
+                throw unsupported("a 'with' which might be the end of the statement");
+            }
+        }
+        if (withs > 1) {
+            throw unsupported("a 'with' which could go more than one way");
+        }
+        // The generated parser prefers the alternative where the 'into' comes first, so a 'with' before an 'into' is
+        // adding things up
+        withEndsExpression = !intoAfterWith;
+        expression(ctx, 0);
+        withEndsExpression = false;
+        intoClause(ctx);
+        if (la(1) == WS && typeAt(skipWs(pos)) == KW_WITH) {
+            ws(ctx);
+            match(ctx, KW_WITH);
+            ws(ctx);
+            expression(ctx, 0);
+        }
+    }
+
+    private void intoClause(ParserRuleContext ctx) {
+        if (la(1) == WS && typeAt(skipWs(pos)) == KW_INTO) {
+            ws(ctx);
+            match(ctx, KW_INTO);
+            ws(ctx);
+            variable(ctx);
+        }
+    }
+
+    private void joinStmt(ParserRuleContext parent) {
+        Rockstar.JoinStmtContext ctx = enter(new Rockstar.JoinStmtContext(parent, INVOKING_STATE));
+        match(ctx, KW_JOIN);
+        ws(ctx);
+        variable(ctx);
+        intoClause(ctx);
+        if (la(1) == WS && typeAt(skipWs(pos)) == KW_WITH) {
+            ws(ctx);
+            match(ctx, KW_WITH);
+            ws(ctx);
+            expression(ctx, 0);
+        }
+        exit(ctx);
+    }
+
+    /**
+     * Parses an expression whose operators all bind at least as tightly as the given precedence, and adds it to the
+     * parent. Like the generated parser, this builds each binary expression around the one before it, so the left
+     * hand side is finished before we know what it's part of.
+     */
+    private Rockstar.ExpressionContext expression(ParserRuleContext parent, int precedence) {
+        Rockstar.ExpressionContext ctx = new Rockstar.ExpressionContext(parent, INVOKING_STATE);
+        ctx.start = lt(1);
+        primary(ctx);
+        while (true) {
+            int operator = operatorPrecedence();
+            if (operator < precedence) {
+                break;
+            }
+            Rockstar.ExpressionContext lhe = ctx;
+            lhe.stop = lt(-1);
+            ctx = new Rockstar.ExpressionContext(parent, INVOKING_STATE);
+            ctx.start = lhe.start;
+            ctx.lhe = lhe;
+            lhe.parent = ctx;
+            ctx.addChild(lhe);
+            switch (operator) {
+                case COMPARISON -> {
+                    ws(ctx);
+                    comparisionOp(ctx);
+                    ws(ctx);
+                    ctx.rhe = expression(ctx, COMPARISON + 1);
+                }
+                case CONTRACTED_COMPARISON -> {
+                    oneToken(new Rockstar.ContractedComparisionOpContext(ctx, INVOKING_STATE));
+                    ws(ctx);
+                    ctx.rhe = expression(ctx, CONTRACTED_COMPARISON + 1);
+                }
+                case SYMBOLIC -> {
+                    if (la(1) == WS) {
+                        ws(ctx);
+                    }
+                    ctx.op = match(ctx, la(1));
+                    if (la(1) == WS) {
+                        ws(ctx);
+                    }
+                    ctx.rhe = expression(ctx, 0);
+                    extraExpressions(ctx);
+                }
+                default -> {
+                    ws(ctx);
+                    ctx.op = match(ctx, la(1));
+                    ws(ctx);
+                    // Not a typo; these take everything to their right
+                    ctx.rhe = expression(ctx, 0);
+                    extraExpressions(ctx);
+                }
+            }
+        }
+        ctx.stop = lt(-1);
+        parent.addChild(ctx);
+        return ctx;
+    }
+
+    /**
+     * The precedence of the operator coming up, or -1 if there isn't one.
+     */
+    private int operatorPrecedence() {
+        int type = la(1);
+        if (type == APOSTROPHE_S) {
+            return CONTRACTED_COMPARISON;
+        }
+        if (type == ASTERISK || type == SLASH) {
+            return SYMBOLIC;
+        }
+        if (type != WS) {
+            return -1;
+        }
+        return switch (typeAt(skipWs(pos))) {
+            case KW_MULTIPLY, KW_DIVIDE -> MULTIPLICATIVE;
+            case KW_ADD, KW_SUBTRACT -> ADDITIVE;
+            case KW_WITH -> withEndsExpression ? -1 : ADDITIVE;
+            case PLUS_SIGN, HYPHEN -> SIGN;
+            case ASTERISK, SLASH -> SYMBOLIC;
+            case KW_IS, KW_NOT_EQUAL -> COMPARISON;
+            case KW_AND, KW_OR, KW_NOR -> LOGICAL;
+            default -> -1;
+        };
+    }
+
+    private void primary(Rockstar.ExpressionContext ctx) {
+        switch (la(1)) {
+            case KW_NOT -> {
+                match(ctx, KW_NOT);
+                ws(ctx);
+                ctx.rhe = expression(ctx, NEGATION);
+            }
+            case KW_ROLL -> {
+                match(ctx, KW_ROLL);
+                ws(ctx);
+                variable(ctx);
+            }
+            case NUMERIC_LITERAL, STRING_LITERAL -> literal(ctx);
+            case CONSTANT_UNDEFINED, CONSTANT_NULL, CONSTANT_TRUE, CONSTANT_FALSE, CONSTANT_EMPTY -> constant(ctx);
+            case PRONOUNS, COMMON_VARIABLE_PREFIXES, PROPER_NOUN, WORD -> {
+                int end = variableEnd(pos);
+                if (isFunctionCall(end)) {
+                    functionCall(ctx);
+                } else if (typeAt(end) == WS && typeAt(skipWs(end)) == KW_AT) {
+                    variable(ctx);
+                    ws(ctx);
+                    match(ctx, KW_AT);
+                    ws(ctx);
+                    expression(ctx, INDEX);
+                } else {
+                    variable(ctx);
+                }
+            }
+            default -> throw unsupported("an expression starting with " + VOCABULARY.getSymbolicName(la(1)));
+        }
+    }
+
+    private void comparisionOp(ParserRuleContext parent) {
+        Rockstar.ComparisionOpContext ctx = enter(new Rockstar.ComparisionOpContext(parent, INVOKING_STATE));
+        if (la(1) == KW_NOT_EQUAL) {
+            match(ctx, KW_NOT_EQUAL);
+            exit(ctx);
+            return;
+        }
+        match(ctx, KW_IS);
+        int first = skipWs(pos);
+        int second = skipWs(first + 1);
+        int third = skipWs(second + 1);
+        if ((typeAt(first) == KW_GREATER || typeAt(first) == KW_LESS) && typeAt(second) == KW_THAN
+                && first > pos && second > first + 1) {
+            ws(ctx);
+            match(ctx, la(1));
+            ws(ctx);
+            match(ctx, KW_THAN);
+        } else if (typeAt(first) == KW_AS && (typeAt(second) == KW_GREATER_EQUAL || typeAt(second) == KW_LESS_EQUAL)
+                && typeAt(third) == KW_AS && first > pos && second > first + 1 && third > second + 1) {
+            ws(ctx);
+            match(ctx, KW_AS);
+            ws(ctx);
+            match(ctx, la(1));
+            ws(ctx);
+            match(ctx, KW_AS);
+        }
+        exit(ctx);
+    }
+
+    // Commas after a binary expression, for list arithmetic; the innermost expression takes them
+    private void extraExpressions(ParserRuleContext parent) {
+        if (la(1) != COMMA || la(2) != WS) {
+            return;
+        }
+        Rockstar.ExtraExpressionsContext ctx = enter(new Rockstar.ExtraExpressionsContext(parent, INVOKING_STATE));
+        do {
+            match(ctx, COMMA);
+            ws(ctx);
+            if (la(1) == KW_AND) {
+                match(ctx, KW_AND);
+                ws(ctx);
+            }
+            expression(ctx, 0);
+        } while (la(1) == COMMA && la(2) == WS);
+        exit(ctx);
+    }
+
+    private void functionCall(ParserRuleContext parent) {
+        Rockstar.FunctionCallContext ctx = enter(new Rockstar.FunctionCallContext(parent, INVOKING_STATE));
+        ctx.functionName = variable(ctx);
+        match(ctx, WS);
+        match(ctx, KW_TAKING);
+        match(ctx, WS);
+        argList(ctx);
+        exit(ctx);
+    }
+
+    private void argList(ParserRuleContext parent) {
+        Rockstar.ArgListContext ctx = enter(new Rockstar.ArgListContext(parent, INVOKING_STATE));
+        // The first argument has all the operators it can reach ...
+        expression(ctx, 0);
+        while (true) {
+            if (la(1) == COMMA && la(2) == WS) {
+                match(ctx, COMMA);
+            } else if (la(1) == WS && (la(2) == KW_AND || la(2) == AMPERSAND || la(2) == APOSTROPHED_N)
+                    && la(3) == WS) {
+                match(ctx, WS);
+                match(ctx, la(1));
+            } else {
+                break;
+            }
+            match(ctx, WS);
+            // ... but the later ones are just a literal or variable, if that works, and the operators after them are
+            // for whatever the call is part of
+            switch (la(1)) {
+                case NUMERIC_LITERAL, STRING_LITERAL -> literal(ctx);
+                case CONSTANT_UNDEFINED, CONSTANT_NULL, CONSTANT_TRUE, CONSTANT_FALSE, CONSTANT_EMPTY -> constant(ctx);
+                case PRONOUNS, COMMON_VARIABLE_PREFIXES, PROPER_NOUN, WORD -> {
+                    int end = variableEnd(pos);
+                    if (isFunctionCall(end) || (typeAt(end) == WS && typeAt(skipWs(end)) == KW_AT)) {
+                        expression(ctx, 0);
+                    } else {
+                        variable(ctx);
+                    }
+                }
+                default -> expression(ctx, 0);
+            }
+        }
+        exit(ctx);
+    }
+
+    private Rockstar.VariableContext variable(ParserRuleContext parent) {
+        Rockstar.VariableContext ctx = enter(new Rockstar.VariableContext(parent, INVOKING_STATE));
+        switch (la(1)) {
+            case COMMON_VARIABLE_PREFIXES -> {
+                match(ctx, COMMON_VARIABLE_PREFIXES);
+                ws(ctx);
+                match(ctx, WORD);
+            }
+            case PROPER_NOUN -> {
+                match(ctx, PROPER_NOUN);
+                while (la(1) == WS && typeAt(skipWs(pos)) == PROPER_NOUN) {
+                    ws(ctx);
+                    match(ctx, PROPER_NOUN);
+                }
+            }
+            case WORD, PRONOUNS -> match(ctx, la(1));
+            default -> throw unsupported("a variable starting with " + VOCABULARY.getSymbolicName(la(1)));
+        }
+        return exit(ctx);
+    }
+
+    private void literal(ParserRuleContext parent) {
+        oneToken(new Rockstar.LiteralContext(parent, INVOKING_STATE));
+    }
+
+    private void constant(ParserRuleContext parent) {
+        oneToken(new Rockstar.ConstantContext(parent, INVOKING_STATE));
+    }
+
+    private void ws(ParserRuleContext parent) {
+        Rockstar.WsContext ctx = enter(new Rockstar.WsContext(parent, INVOKING_STATE));
+        do {
+            match(ctx, WS);
+        } while (la(1) == WS);
+        exit(ctx);
+    }
+
+    /**
+     * Where the variable starting at the given token ends, or -1 if it isn't a variable.
+     */
+    private int variableEnd(int i) {
+        switch (typeAt(i)) {
+            case COMMON_VARIABLE_PREFIXES -> {
+                int word = skipWs(i + 1);
+                return word > i + 1 && typeAt(word) == WORD ? word + 1 : -1;
+            }
+            case PROPER_NOUN -> {
+                int end = i + 1;
+                while (typeAt(end) == WS && typeAt(skipWs(end)) == PROPER_NOUN) {
+                    end = skipWs(end) + 1;
+                }
+                return end;
+            }
+            case WORD, PRONOUNS -> {
+                return i + 1;
+            }
+            default -> {
+                return -1;
+            }
+        }
+    }
+
+    // A variable, then whatever makes it the start of a poetic assignment
+    private boolean isPoeticAssignmentStart(int i) {
+        int afterVariable = variableEnd(i);
+        if (afterVariable < 0) {
+            return false;
+        }
+        int verb = typeAt(skipWs(afterVariable));
+        return typeAt(afterVariable) == APOSTROPHE_S || typeAt(afterVariable) == APOSTROPHE_RE || verb == KW_IS
+                || verb == KW_SAYS || verb == KW_SAY;
+    }
+
+    private boolean isFunctionCall(int afterName) {
+        return afterName >= 0 && typeAt(afterName) == WS && typeAt(afterName + 1) == KW_TAKING
+                && typeAt(afterName + 2) == WS;
+    }
+
+    private boolean isFunctionStart(int i) {
+        if (!isVariableStart(typeAt(i))) {
+            return false;
+        }
+        int end = variableEnd(i);
+        return end >= 0 && typeAt(end) == WS && typeAt(end + 1) == KW_TAKES;
+    }
+
+    private boolean isStatementStart(int i) {
+        int start = skipWs(i);
+        return switch (typeAt(start)) {
+            case KW_IF, KW_WHILE, KW_UNTIL, KW_LISTEN, KW_SHOUT, KW_SAY, KW_LET, KW_PUT, KW_ROLL, KW_TURN, KW_BUILD,
+                    KW_KNOCK, KW_ROCK, KW_SPLIT, KW_CAST, KW_JOIN, KW_CONTINUE, KW_BREAK ->
+                true;
+            case PRONOUNS, COMMON_VARIABLE_PREFIXES, PROPER_NOUN, WORD -> start > i || !isFunctionStart(start);
+            default -> false;
+        };
+    }
+
+    private static boolean isVariableStart(int type) {
+        return type == PRONOUNS || type == COMMON_VARIABLE_PREFIXES || type == PROPER_NOUN || type == WORD;
+    }
+
+    private static boolean isRoundingDirection(int type) {
+        return type == KW_ROUND || type == KW_UP || type == KW_DOWN;
+    }
+
+    // The allConstants rule, which leaves out empty
+    private static boolean isConstantWord(int type) {
+        return type == CONSTANT_UNDEFINED || type == CONSTANT_NULL || type == CONSTANT_TRUE || type == CONSTANT_FALSE;
+    }
+
+    private static boolean isPoeticStringGarbage(int type) {
+        return type == DOT || type == COMMA || type == QUESTION_MARK || type == EXCLAMATION_MARK || type == AMPERSAND
+                || type == PLUS_SIGN || type == SINGLE_QUOTE;
+    }
+
+    // The allKeywords rule, which is most of them, but not all
+    private static boolean isKeyword(int type) {
+        return switch (type) {
+            case KW_PUT, KW_INTO, KW_SAYS, KW_TAKING, KW_TAKES, KW_LISTEN, KW_TO, KW_SAY, KW_SHOUT, KW_WHILE, KW_UNTIL,
+                    KW_IF, KW_ELSE, KW_BUILD, KW_UP, KW_KNOCK, KW_DOWN, KW_GIVE, KW_BACK, KW_CONTINUE, KW_BREAK, KW_NOT,
+                    KW_MULTIPLY, KW_DIVIDE, KW_ADD, KW_WITH, KW_SUBTRACT, KW_IS, KW_NOT_EQUAL, KW_THAN, KW_AS,
+                    KW_GREATER, KW_LESS, KW_GREATER_EQUAL, KW_LESS_EQUAL, KW_AND, KW_OR, KW_NOR, KW_CAST, KW_ROUND ->
+                true;
+            default -> false;
+        };
+    }
+
+    // For the rules which are just one token
+    private void oneToken(ParserRuleContext ctx) {
+        enter(ctx);
+        match(ctx, la(1));
+        exit(ctx);
+    }
+
+    private <T extends ParserRuleContext> T enter(T ctx) {
+        ctx.start = lt(1);
+        if (ctx.parent != null) {
+            ((ParserRuleContext) ctx.parent).addChild(ctx);
+        }
+        return ctx;
+    }
+
+    private <T extends ParserRuleContext> T exit(T ctx) {
+        ctx.stop = matchedEof ? lt(1) : lt(-1);
+        return ctx;
+    }
+
+    private Token match(ParserRuleContext ctx, int type) {
+        Token token = tokens.get(pos);
+        if (token.getType() != type) {
+            throw unsupported("a " + VOCABULARY.getSymbolicName(token.getType()) + " where there should be a "
+                    + VOCABULARY.getSymbolicName(type));
+        }
+        // Like the generated parser, we can match EOF as often as we like
+        if (type != EOF) {
+            pos++;
+        } else {
+            matchedEof = true;
+        }
+        ctx.addChild(new TerminalNodeImpl(token));
+        return token;
+    }
+
+    private int skipWs(int i) {
+        while (typeAt(i) == WS) {
+            i++;
+        }
+        return i;
+    }
+
+    private int la(int k) {
+        return typeAt(pos + k - 1);
+    }
+
+    private int typeAt(int i) {
+        return i < 0 ? EOF : tokens.get(Math.min(i, tokens.size() - 1)).getType();
+    }
+
+    private Token lt(int k) {
+        int i = k < 0 ? pos + k : pos + k - 1;
+        return i < 0 ? null : tokens.get(Math.min(i, tokens.size() - 1));
+    }
+
+    private UnsupportedSyntaxException unsupported(String what) {
+        Token token = tokens.get(Math.min(pos, tokens.size() - 1));
+        return new UnsupportedSyntaxException(what + " at line " + token.getLine() + ":" + token.getCharPositionInLine());
+    }
+}
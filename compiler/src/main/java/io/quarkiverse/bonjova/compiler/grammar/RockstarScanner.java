@@ -0,0 +1,369 @@
+package io.quarkiverse.bonjova.compiler.grammar;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CommonToken;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.misc.Interval;
+import org.antlr.v4.runtime.misc.Pair;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static rock.RockstarLexer.*;
+
+/**
+ * A hand-written version of the generated {@code RockstarLexer}, which makes exactly the same tokens, but looks
+ * keywords up in a trie rather than spelling them out a character at a time. Anything the generated lexer would
+ * complain about is left for it to complain about.
+ */
+public class RockstarScanner {
+
+    private static final KeywordTrie KEYWORDS = new KeywordTrie();
+
+    static {
+        // Rule order matters, because the first rule to match a word wins ('with' is KW_WITH, not KW_ADD)
+        KEYWORDS.add(PRONOUNS, "it", "he", "she", "him", "her", "they", "them", "ze", "hir", "zie", "zir", "xe", "xem", "ve",
+                "ver");
+        KEYWORDS.add(COMMON_VARIABLE_PREFIXES, "a", "an", "the", "my", "your", "our");
+        KEYWORDS.add(CONSTANT_UNDEFINED, "mysterious");
+        KEYWORDS.add(CONSTANT_NULL, "null", "gone", "nobody", "nowhere", "nothing");
+        KEYWORDS.add(CONSTANT_TRUE, "true", "right", "yes", "ok");
+        KEYWORDS.add(CONSTANT_FALSE, "false", "wrong", "no", "lies");
+        KEYWORDS.add(CONSTANT_EMPTY, "empty", "silent", "silence");
+        KEYWORDS.add(KW_SAY, "say");
+        KEYWORDS.add(KW_PUT, "put");
+        KEYWORDS.add(KW_LET, "let");
+        KEYWORDS.add(KW_INTO, "into");
+        KEYWORDS.add(KW_BE, "be");
+        KEYWORDS.add(KW_SAYS, "says", "said");
+        KEYWORDS.add(KW_TAKING, "taking");
+        KEYWORDS.add(KW_TAKES, "takes", "wants");
+        KEYWORDS.add(KW_LISTEN, "listen");
+        KEYWORDS.add(KW_TO, "to");
+        KEYWORDS.add(KW_SHOUT, "shout", "whisper", "scream");
+        KEYWORDS.add(KW_WHILE, "while");
+        KEYWORDS.add(KW_UNTIL, "until");
+        KEYWORDS.add(KW_IF, "if");
+        KEYWORDS.add(KW_ELSE, "else");
+        KEYWORDS.add(KW_BUILD, "build");
+        KEYWORDS.add(KW_UP, "up");
+        KEYWORDS.add(KW_KNOCK, "knock");
+        KEYWORDS.add(KW_DOWN, "down");
+        KEYWORDS.add(KW_GIVE, "give", "send", "return");
+        KEYWORDS.add(KW_BACK, "back");
+        KEYWORDS.add(KW_CONTINUE, "continue");
+        KEYWORDS.add(KW_BREAK, "break");
+        KEYWORDS.add(KW_NOT, "not");
+        KEYWORDS.add(KW_MULTIPLY, "times", "of");
+        KEYWORDS.add(KW_DIVIDE, "over", "between");
+        KEYWORDS.add(KW_WITH, "with");
+        KEYWORDS.add(KW_ADD, "plus", "with");
+        KEYWORDS.add(KW_SUBTRACT, "minus", "without");
+        KEYWORDS.add(KW_IS, "is", "are", "was", "were");
+        KEYWORDS.add(KW_NOT_EQUAL, "isnt", "aint");
+        KEYWORDS.add(KW_THAN, "than");
+        KEYWORDS.add(KW_AS, "as");
+        KEYWORDS.add(KW_GREATER, "higher", "greater", "bigger", "stronger");
+        KEYWORDS.add(KW_LESS, "lower", "less", "smaller", "weaker");
+        KEYWORDS.add(KW_GREATER_EQUAL, "high", "great", "big", "strong");
+        KEYWORDS.add(KW_LESS_EQUAL, "low", "little", "small", "weak");
+        KEYWORDS.add(KW_AND, "and");
+        KEYWORDS.add(KW_OR, "or");
+        KEYWORDS.add(KW_NOR, "nor");
+        KEYWORDS.add(KW_TURN, "turn");
+        KEYWORDS.add(KW_ROUND, "round", "around");
+        KEYWORDS.add(KW_ROCK, "rock", "push");
+        KEYWORDS.add(KW_ROLL, "roll", "pop");
+        KEYWORDS.add(KW_AT, "at");
+        KEYWORDS.add(KW_SPLIT, "cut", "split", "shatter");
+        KEYWORDS.add(KW_CAST, "cast", "burn");
+        KEYWORDS.add(KW_JOIN, "join", "unite");
+    }
+
+    private final Pair<TokenSource, CharStream> source;
+    private final String text;
+    private final List<Token> tokens = new ArrayList<>();
+
+    private int line = 1;
+    private int lineStart = 0;
+
+    private RockstarScanner(CharStream input) {
+        this.source = new Pair<>(null, input);
+        this.text = input.size() == 0 ? "" : input.getText(Interval.of(0, input.size() - 1));
+        if (text.length() != input.size()) {
+            // Positions are in code points, and it's simpler not to have to count them
+            throw new UnsupportedSyntaxException("characters outside the basic multilingual plane");
+        }
+    }
+
+    /**
+     * All the tokens in the input, ending with EOF.
+     */
+    public static List<Token> scan(CharStream input) {
+        return new RockstarScanner(input).scan();
+    }
+
+    private List<Token> scan() {
+        int i = 0;
+        int length = text.length();
+        while (i < length) {
+            char c = text.charAt(i);
+            if (isLetter(c) || c == '|') {
+                i = word(i);
+            } else if (c == ' ' || c == '\t') {
+                int comment = comment(i);
+                int nl = newline(i);
+                if (comment > i && comment > nl) {
+                    skip(i, comment);
+                    i = comment;
+                } else if (nl > i) {
+                    i = emit(NL, i, nl);
+                } else {
+                    i = emit(WS, i, i + 1);
+                }
+            } else if (c == '\n' || c == '\r' || c == ',' || c == '.') {
+                int nl = newline(i);
+                if (nl > i) {
+                    i = emit(NL, i, nl);
+                } else if (c == ',') {
+                    i = emit(COMMA, i, i + 1);
+                } else if (c == '.') {
+                    i = emit(DOT, i, i + 1);
+                } else {
+                    throw new UnsupportedSyntaxException("a carriage return on its own");
+                }
+            } else if (isDigit(c) || (c == '-' && i + 1 < length && isDigit(text.charAt(i + 1)))) {
+                i = emit(NUMERIC_LITERAL, i, number(i));
+            } else if (c == '"') {
+                int close = text.indexOf('"', i + 1);
+                if (close < 0) {
+                    throw new UnsupportedSyntaxException("a string that never ends");
+                }
+                i = emit(STRING_LITERAL, i, close + 1);
+            } else if (c == '(') {
+                int end = comment(i);
+                if (end == i) {
+                    throw new UnsupportedSyntaxException("a comment that never ends");
+                }
+                skip(i, end);
+                i = end;
+            } else if (c == '\'') {
+                if (text.startsWith("'s", i)) {
+                    i = emit(APOSTROPHE_S, i, i + 2);
+                } else if (text.startsWith("'re", i)) {
+                    i = emit(APOSTROPHE_RE, i, i + 3);
+                } else if (text.startsWith("'n'", i)) {
+                    i = emit(APOSTROPHED_N, i, i + 3);
+                } else {
+                    i = emit(SINGLE_QUOTE, i, i + 1);
+                }
+            } else if (c == ';') {
+                i++;
+            } else {
+                int type = switch (c) {
+                    case '?' -> QUESTION_MARK;
+                    case '!' -> EXCLAMATION_MARK;
+                    case '&' -> AMPERSAND;
+                    case '-' -> HYPHEN;
+                    case '*' -> ASTERISK;
+                    case '/' -> SLASH;
+                    case '+' -> PLUS_SIGN;
+                    default -> throw new UnsupportedSyntaxException("an unexpected '" + c + "'");
+                };
+                i = emit(type, i, i + 1);
+            }
+        }
+        CommonToken eof = new CommonToken(source, Token.EOF, Token.DEFAULT_CHANNEL, length, length - 1);
+        eof.setLine(line);
+        eof.setCharPositionInLine(length - lineStart);
+        eof.setTokenIndex(tokens.size());
+        tokens.add(eof);
+        return tokens;
+    }
+
+    // The longest match wins, and a keyword wins a tie with a word, just like in the generated lexer
+    private int word(int start) {
+        int end = start;
+        while (end < text.length() && (isLetter(text.charAt(end)) || text.charAt(end) == '|')) {
+            end++;
+        }
+        int type = Character.isUpperCase(text.charAt(start)) ? PROPER_NOUN : WORD;
+        int keyword = KEYWORDS.lookup(text, start, end);
+        if (keyword != 0) {
+            type = keyword;
+        }
+
+        int longer = notEqual(start);
+        if (longer > end) {
+            return emit(KW_NOT_EQUAL, start, longer);
+        }
+        longer = phrase(start, "take", "it", "to", "the", "top");
+        if (longer > end) {
+            return emit(KW_CONTINUE, start, longer);
+        }
+        longer = phrase(start, "break", "it", "down");
+        if (longer > end) {
+            return emit(KW_BREAK, start, longer);
+        }
+        return emit(type, start, end);
+    }
+
+    // isn't, ain't, and isn''''t
+    private int notEqual(int start) {
+        if (!matchesIgnoringCase(start, "isn") && !matchesIgnoringCase(start, "ain")) {
+            return start;
+        }
+        int i = start + 3;
+        while (i < text.length() && text.charAt(i) == '\'') {
+            i++;
+        }
+        return matchesIgnoringCase(i, "t") ? i + 1 : start;
+    }
+
+    // Keywords with spaces in, which can be longer than any word
+    private int phrase(int start, String... words) {
+        int i = start;
+        for (int w = 0; w < words.length; w++) {
+            if (w > 0) {
+                int spaces = i;
+                while (i < text.length() && (text.charAt(i) == ' ' || text.charAt(i) == '\t')) {
+                    i++;
+                }
+                if (i == spaces) {
+                    return start;
+                }
+            }
+            if (!matchesIgnoringCase(i, words[w])) {
+                return start;
+            }
+            i += words[w].length();
+        }
+        return i;
+    }
+
+    private boolean matchesIgnoringCase(int i, String word) {
+        return text.regionMatches(true, i, word, 0, word.length());
+    }
+
+    private int number(int start) {
+        int i = text.charAt(start) == '-' ? start + 1 : start;
+        while (i < text.length() && isDigit(text.charAt(i))) {
+            i++;
+        }
+        if (i + 1 < text.length() && text.charAt(i) == '.' && isDigit(text.charAt(i + 1))) {
+            i += 2;
+            while (i < text.length() && isDigit(text.charAt(i))) {
+                i++;
+            }
+        }
+        return i;
+    }
+
+    // [,. ]* '\r'? '\n'
+    private int newline(int start) {
+        int i = start;
+        while (i < text.length() && (text.charAt(i) == ' ' || text.charAt(i) == ',' || text.charAt(i) == '.')) {
+            i++;
+        }
+        if (i < text.length() && text.charAt(i) == '\r') {
+            i++;
+        }
+        return i < text.length() && text.charAt(i) == '\n' ? i + 1 : start;
+    }
+
+    // WS* '(' .*? ')' WS*
+    private int comment(int start) {
+        int i = start;
+        while (i < text.length() && (text.charAt(i) == ' ' || text.charAt(i) == '\t')) {
+            i++;
+        }
+        if (i == text.length() || text.charAt(i) != '(') {
+            return start;
+        }
+        int close = text.indexOf(')', i + 1);
+        if (close < 0) {
+            return start;
+        }
+        i = close + 1;
+        while (i < text.length() && (text.charAt(i) == ' ' || text.charAt(i) == '\t')) {
+            i++;
+        }
+        return i;
+    }
+
+    private int emit(int type, int start, int end) {
+        CommonToken token = new CommonToken(source, type, Token.DEFAULT_CHANNEL, start, end - 1);
+        token.setLine(line);
+        token.setCharPositionInLine(start - lineStart);
+        token.setTokenIndex(tokens.size());
+        tokens.add(token);
+        skip(start, end);
+        return end;
+    }
+
+    // Keeps count of lines, as the generated lexer does, including inside comments and strings
+    private void skip(int start, int end) {
+        for (int i = text.indexOf('\n', start); i >= 0 && i < end; i = text.indexOf('\n', i + 1)) {
+            line++;
+            lineStart = i + 1;
+        }
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Keywords by letter, ignoring case. Each node has a child for each letter, and the token type of the keyword
+     * which ends there, if any.
+     */
+    private static class KeywordTrie {
+        private int[][] children = new int[64][];
+        private int[] types = new int[64];
+        private int size = 1;
+
+        void add(int type, String... words) {
+            for (String word : words) {
+                int node = 0;
+                for (int i = 0; i < word.length(); i++) {
+                    int letter = word.charAt(i) - 'a';
+                    if (children[node] == null) {
+                        children[node] = new int[26];
+                    }
+                    if (children[node][letter] == 0) {
+                        if (size == types.length) {
+                            children = Arrays.copyOf(children, size * 2);
+                            types = Arrays.copyOf(types, size * 2);
+                        }
+                        children[node][letter] = size++;
+                    }
+                    node = children[node][letter];
+                }
+                if (types[node] == 0) {
+                    types[node] = type;
+                }
+            }
+        }
+
+        int lookup(String text, int start, int end) {
+            int node = 0;
+            for (int i = start; i < end; i++) {
+                char c = text.charAt(i);
+                if (c == '|' || children[node] == null) {
+                    return 0;
+                }
+                node = children[node][(c | 0x20) - 'a'];
+                if (node == 0) {
+                    return 0;
+                }
+            }
+            return types[node];
+        }
+    }
+}
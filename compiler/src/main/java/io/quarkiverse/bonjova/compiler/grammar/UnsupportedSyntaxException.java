@@ -0,0 +1,14 @@
+package io.quarkiverse.bonjova.compiler.grammar;
+
+/**
+ * Thrown by the hand-written front end when it meets something it doesn't handle the same way as the ANTLR grammar,
+ * or doesn't handle at all. That's not an error in the program, necessarily; it means the ANTLR front end should parse
+ * it instead.
+ */
+public class UnsupportedSyntaxException extends RuntimeException {
+
+    public UnsupportedSyntaxException(String message) {
+        // Thrown often enough, and always caught, so don't bother with a stack trace
+        super("Let ANTLR sing this one: " + message, null, false, false);
+    }
+}
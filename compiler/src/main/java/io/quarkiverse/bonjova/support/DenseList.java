@@ -0,0 +1,307 @@
+package io.quarkiverse.bonjova.support;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * The numerically indexed part of a {@link RockstarArray}. It's an array list which also keeps track of where its
+ * first element is, so that popping from the front just moves that along instead of shifting everything else down.
+ * Programs which fill an array and then pop it empty get linear time, rather than quadratic. The space freed up at the
+ * front gets reused the next time the array would otherwise have to grow.
+ * <p>
+ * Most arrays only ever hold numbers, so elements start off in a double[], which is a third of the size of boxed
+ * doubles and doesn't make garbage on writes. The first time anything else goes in, everything moves over to an
+ * Object[] for good.
+ * <p>
+ * With the {@value OffHeapList#OFF_HEAP_PROPERTY} system property set, lists which get really big move off the heap
+ * altogether, into an {@link OffHeapList}.
+ */
+public class DenseList extends AbstractList<Object> implements RandomAccess {
+
+    private static final int DEFAULT_CAPACITY = 10;
+    private static final double[] NO_NUMBERS = {};
+    // Small lists aren't worth the bother of moving
+    static final int OFF_HEAP_AFTER = 1 << 16;
+    private static final boolean OFF_HEAP = OffHeapList.configuredBudget() >= 0;
+
+    // Exactly one of these is in use; numbers until something which isn't a number turns up
+    private double[] numbers = NO_NUMBERS;
+    private Object[] elements;
+    // Where element 0 lives in the backing array
+    private int head;
+    private int size;
+    // Once this is set, everything lives in it instead
+    private OffHeapList offHeap;
+
+    @Override
+    public Object get(int index) {
+        if (offHeap != null) {
+            return offHeap.get(index);
+        }
+        checkIndex(index);
+        return numbers != null ? numbers[head + index] : elements[head + index];
+    }
+
+    /**
+     * Like {@link #get(int)}, but without boxing anything in a numeric list.
+     */
+    public double getNumber(int index) {
+        if (offHeap != null) {
+            return RockstarOps.toOperand(offHeap.get(index));
+        }
+        checkIndex(index);
+        return numbers != null ? numbers[head + index] : RockstarOps.toOperand(elements[head + index]);
+    }
+
+    @Override
+    public Object set(int index, Object element) {
+        if (offHeap != null) {
+            return offHeap.set(index, element);
+        }
+        checkIndex(index);
+        Object old = get(index);
+        if (numbers != null && element instanceof Double number) {
+            numbers[head + index] = number;
+        } else {
+            makeGeneric();
+            elements[head + index] = element;
+        }
+        return old;
+    }
+
+    public void set(int index, double element) {
+        if (offHeap != null) {
+            offHeap.set(index, element);
+            return;
+        }
+        checkIndex(index);
+        if (numbers != null) {
+            numbers[head + index] = element;
+        } else {
+            elements[head + index] = element;
+        }
+    }
+
+    @Override
+    public int size() {
+        return offHeap != null ? offHeap.size() : size;
+    }
+
+    /**
+     * Whether everything in the list is a number, and stored as one.
+     */
+    public boolean isNumeric() {
+        return numbers != null && offHeap == null;
+    }
+
+    @Override
+    public boolean add(Object element) {
+        if (isOffHeap(1)) {
+            return offHeap.add(element);
+        }
+        if (numbers != null && element instanceof Double number) {
+            add(number.doubleValue());
+        } else {
+            makeGeneric();
+            makeRoom(1);
+            elements[head + size] = element;
+            size++;
+            modCount++;
+        }
+        return true;
+    }
+
+    public void add(double element) {
+        if (isOffHeap(1)) {
+            offHeap.add(element);
+            return;
+        }
+        makeRoom(1);
+        if (numbers != null) {
+            numbers[head + size] = element;
+        } else {
+            elements[head + size] = element;
+        }
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public void add(int index, Object element) {
+        if (isOffHeap(1)) {
+            offHeap.add(index, element);
+            return;
+        }
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index " + index + " is out of the array, which has length " + size);
+        }
+        if (!(element instanceof Double)) {
+            makeGeneric();
+        }
+        makeRoom(1);
+        Object store = store();
+        System.arraycopy(store, head + index, store, head + index + 1, size - index);
+        size++;
+        modCount++;
+        set(index, element);
+    }
+
+    @Override
+    public boolean addAll(Collection<?> collection) {
+        Object[] added = collection.toArray();
+        if (isOffHeap(added.length)) {
+            return offHeap.addAll(Arrays.asList(added));
+        }
+        if (numbers != null) {
+            for (Object element : added) {
+                if (!(element instanceof Double)) {
+                    makeGeneric();
+                    break;
+                }
+            }
+        }
+        makeRoom(added.length);
+        if (numbers != null) {
+            for (int i = 0; i < added.length; i++) {
+                numbers[head + size + i] = (Double) added[i];
+            }
+        } else {
+            System.arraycopy(added, 0, elements, head + size, added.length);
+        }
+        size += added.length;
+        modCount++;
+        return added.length > 0;
+    }
+
+    @Override
+    public Object remove(int index) {
+        if (offHeap != null) {
+            return offHeap.remove(index);
+        }
+        checkIndex(index);
+        if (index == 0) {
+            return pop();
+        }
+        Object old = get(index);
+        Object store = store();
+        System.arraycopy(store, head + index + 1, store, head + index, size - index - 1);
+        size--;
+        if (elements != null) {
+            elements[head + size] = null;
+        }
+        modCount++;
+        return old;
+    }
+
+    /**
+     * Takes the first element off in constant time, or gives null if there isn't one.
+     */
+    public Object pop() {
+        if (offHeap != null) {
+            return offHeap.pop();
+        }
+        if (size == 0) {
+            return null;
+        }
+        Object first = get(0);
+        if (elements != null) {
+            // Let it be collected
+            elements[head] = null;
+        }
+        size--;
+        // An empty list can start again from the beginning for free
+        head = size == 0 ? 0 : head + 1;
+        modCount++;
+        return first;
+    }
+
+    @Override
+    public void clear() {
+        if (offHeap != null) {
+            offHeap.clear();
+            return;
+        }
+        if (elements != null) {
+            Arrays.fill(elements, head, head + size, null);
+        }
+        head = 0;
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Moves everything into the given list, and keeps it there from then on.
+     */
+    void moveOffHeap(OffHeapList target) {
+        target.addAll(this);
+        offHeap = target;
+        numbers = null;
+        elements = null;
+        head = 0;
+        size = 0;
+    }
+
+    public boolean isOffHeap() {
+        return offHeap != null;
+    }
+
+    // Moves off the heap first if adding this many would make the list too big to stay
+    private boolean isOffHeap(int adding) {
+        if (offHeap == null && OFF_HEAP && size + adding > OFF_HEAP_AFTER) {
+            moveOffHeap(new OffHeapList());
+        }
+        return offHeap != null;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " is out of the array, which has length " + size);
+        }
+    }
+
+    private Object store() {
+        return numbers != null ? numbers : elements;
+    }
+
+    private int capacity() {
+        return numbers != null ? numbers.length : elements.length;
+    }
+
+    private void makeGeneric() {
+        if (numbers == null) {
+            return;
+        }
+        elements = new Object[Math.max(numbers.length, DEFAULT_CAPACITY)];
+        for (int i = 0; i < size; i++) {
+            elements[i] = numbers[head + i];
+        }
+        numbers = null;
+        head = 0;
+    }
+
+    private void makeRoom(int extra) {
+        int needed = size + extra;
+        int capacity = capacity();
+        if (head + needed <= capacity) {
+            return;
+        }
+        Object store = store();
+        if (needed <= capacity && head >= size) {
+            // There's enough popped space at the front, and moving everything down costs no more than the pops did
+            System.arraycopy(store, head, store, 0, size);
+            if (elements != null) {
+                Arrays.fill(elements, head, head + size, null);
+            }
+        } else {
+            int grownCapacity = Math.max(Math.max(needed, capacity + (capacity >> 1)), DEFAULT_CAPACITY);
+            if (numbers != null) {
+                numbers = Arrays.copyOfRange(numbers, head, head + grownCapacity);
+            } else {
+                elements = Arrays.copyOfRange(elements, head, head + grownCapacity);
+            }
+        }
+        head = 0;
+    }
+}
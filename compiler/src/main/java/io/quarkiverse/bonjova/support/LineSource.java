@@ -0,0 +1,12 @@
+package io.quarkiverse.bonjova.support;
+
+import java.io.IOException;
+
+/**
+ * Somewhere listen can get lines from. Null means there's nothing more to hear, which programs see as mysterious.
+ */
+@FunctionalInterface
+public interface LineSource {
+
+    String readLine() throws IOException;
+}
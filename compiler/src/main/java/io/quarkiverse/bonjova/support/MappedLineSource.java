@@ -0,0 +1,106 @@
+package io.quarkiverse.bonjova.support;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads lines straight out of a memory-mapped file, for inputs far too big to want to push through a BufferedReader.
+ * Lines are found by scanning the mapped bytes, and each line is copied twice: once out of the mapping, into a byte
+ * array which is reused from line to line, and once more when that's decoded into the String that listen stores.
+ * Files bigger than a single mapping can cover are mapped a window at a time, and a line has to fit in one.
+ */
+public class MappedLineSource implements LineSource, Closeable {
+
+    // A mapping can't be bigger than this anyway
+    static final int DEFAULT_WINDOW_SIZE = Integer.MAX_VALUE;
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private final int windowSize;
+    private final int maxWindowSize;
+
+    private MappedByteBuffer window;
+    // Where the window starts in the file
+    private long windowStart;
+    private int position;
+    private byte[] line = new byte[128];
+
+    public MappedLineSource(Path file) throws IOException {
+        this(file, DEFAULT_WINDOW_SIZE);
+    }
+
+    MappedLineSource(Path file, int windowSize) throws IOException {
+        this(file, windowSize, DEFAULT_WINDOW_SIZE);
+    }
+
+    MappedLineSource(Path file, int windowSize, int maxWindowSize) throws IOException {
+        this.windowSize = windowSize;
+        this.maxWindowSize = maxWindowSize;
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        fileSize = channel.size();
+        map(0, windowSize);
+    }
+
+    @Override
+    public String readLine() throws IOException {
+        if (windowStart + position >= fileSize) {
+            return null;
+        }
+
+        int end = findEndOfLine();
+        while (end < 0 && windowStart + window.limit() < fileSize) {
+            // The line runs off the end of the window; slide the window up to the line, making it bigger if the line
+            // was there from the start
+            long lineStart = windowStart + position;
+            if (position == 0 && window.limit() >= maxWindowSize) {
+                throw new IOException("The line at byte " + lineStart + " goes on for more than " + maxWindowSize
+                        + " bytes without a break, which is longer than anyone can sing");
+            }
+            int size = position == 0 ? (int) Math.min((long) window.limit() * 2, maxWindowSize) : windowSize;
+            map(lineStart, size);
+            end = findEndOfLine();
+        }
+        if (end < 0) {
+            // Last line, with no newline at the end
+            end = window.limit();
+        }
+
+        int length = end - position;
+        if (length > 0 && window.get(end - 1) == '\r') {
+            length--;
+        }
+        if (length > line.length) {
+            line = new byte[Math.max(length, line.length * 2)];
+        }
+        window.get(position, line, 0, length);
+        position = end + 1;
+        return new String(line, 0, length, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private int findEndOfLine() {
+        MappedByteBuffer buffer = window;
+        for (int i = position, limit = buffer.limit(); i < limit; i++) {
+            if (buffer.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void map(long start, int size) throws IOException {
+        long length = Math.min(size, fileSize - start);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+        windowStart = start;
+        position = 0;
+    }
+}
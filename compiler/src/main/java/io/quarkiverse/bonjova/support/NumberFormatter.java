@@ -0,0 +1,90 @@
+package io.quarkiverse.bonjova.support;
+
+import java.nio.charset.StandardCharsets;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * Turns numbers into text the way Rockstar wants: integers without a decimal point, and everything else with at most
+ * nine decimal places, no trailing zeros, rounding half-even. That's what DecimalFormat("#.#########") does, but
+ * DecimalFormat isn't thread-safe, and it makes a lot of garbage. The common cases here make nothing except the
+ * string they return.
+ */
+public class NumberFormatter {
+
+    static final int FRACTION_DIGITS = 9;
+    private static final double FRACTION_SCALE = 1e9;
+    // Every integer below this is exactly representable, so its digits are the same however you work them out
+    private static final double TWO_TO_THE_53 = 0x1p53;
+    // Longest possible output is a sign, 16 integer digits, a point, and the fraction digits
+    private static final int MAX_LENGTH = 1 + 16 + 1 + FRACTION_DIGITS;
+
+    private static final ThreadLocal<byte[]> BUFFER = ThreadLocal.withInitial(() -> new byte[MAX_LENGTH]);
+    // For the awkward cases, defer to the original, but with a decimal point wherever in the world the JVM is
+    private static final ThreadLocal<DecimalFormat> FALLBACK = ThreadLocal
+            .withInitial(() -> new DecimalFormat("#.#########", DecimalFormatSymbols.getInstance(Locale.ROOT)));
+
+    private NumberFormatter() {
+    }
+
+    public static String format(double d) {
+        double magnitude = Math.abs(d);
+        if (!(magnitude < TWO_TO_THE_53)) {
+            // Huge numbers, infinity and NaN
+            return FALLBACK.get().format(d);
+        }
+
+        long integerPart = (long) magnitude;
+        boolean negative = Double.doubleToRawLongBits(d) < 0;
+        if (integerPart == magnitude && !(negative && integerPart == 0)) {
+            // The fast path; most numbers in most programs are integers
+            // -0 goes the long way round, so it keeps its sign
+            return Long.toString((long) d);
+        }
+
+        // This subtraction is exact
+        double fraction = magnitude - integerPart;
+        double scaled = fraction * FRACTION_SCALE;
+        // The scale factor is exact, so fma gives us the rounding error of the multiplication
+        double error = Math.fma(fraction, FRACTION_SCALE, -scaled);
+        double rounded = Math.rint(scaled);
+
+        // DecimalFormat rounds the shortest decimal which maps to the double, not the exact binary value; those can
+        // only round differently when the number is within an ulp of halfway between two billionths
+        double distanceFromHalfway = 0.5 - Math.abs(scaled - rounded) - Math.abs(error);
+        if (distanceFromHalfway <= Math.ulp(magnitude) * FRACTION_SCALE) {
+            return FALLBACK.get().format(d);
+        }
+
+        long fractionDigits = (long) rounded;
+        if (fractionDigits == (long) FRACTION_SCALE) {
+            integerPart++;
+            fractionDigits = 0;
+        }
+
+        byte[] buffer = BUFFER.get();
+        int position = MAX_LENGTH;
+        if (fractionDigits != 0) {
+            int digits = FRACTION_DIGITS;
+            // Trailing zeros don't get printed
+            while (fractionDigits % 10 == 0) {
+                fractionDigits /= 10;
+                digits--;
+            }
+            for (int i = 0; i < digits; i++) {
+                buffer[--position] = (byte) ('0' + fractionDigits % 10);
+                fractionDigits /= 10;
+            }
+            buffer[--position] = '.';
+        }
+        do {
+            buffer[--position] = (byte) ('0' + integerPart % 10);
+            integerPart /= 10;
+        } while (integerPart != 0);
+        if (negative) {
+            buffer[--position] = '-';
+        }
+        return new String(buffer, position, MAX_LENGTH - position, StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,131 @@
+package io.quarkiverse.bonjova.support;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hands out the chunks of memory which every {@link OffHeapList} keeps its elements in. There's one of these for the
+ * whole JVM, so the budget is shared between all the arrays rather than each of them getting its own. Chunks are direct
+ * buffers while there's budget left and the JVM will give us the memory, and after that they're mapped from a temp
+ * file, so the operating system can page them out to disk rather than the program running out of memory. The JVM's
+ * own limit on direct memory is usually the size of the heap, which is far less than the budget on exactly the
+ * setups which need this, so being turned down for a direct buffer just means going to the file from then on.
+ * <p>
+ * When a list is collected, its direct memory goes back into the budget and its bits of the file get reused. The file
+ * is deleted when the JVM exits.
+ */
+public class OffHeapArena {
+
+    private static final OffHeapArena SHARED = new OffHeapArena(OffHeapList.configuredBudget());
+
+    private long budgetLeft;
+    private boolean directRefused;
+
+    private FileChannel spill;
+    private long spillEnd;
+    // Bits of the file which collected lists have finished with, by size
+    private final Map<Integer, ArrayDeque<Long>> freeRegions = new HashMap<>();
+
+    OffHeapArena(long budget) {
+        this.budgetLeft = budget;
+    }
+
+    public static OffHeapArena shared() {
+        return SHARED;
+    }
+
+    /**
+     * Makes a chunk of the given size, and notes it down against the list which will use it.
+     */
+    public synchronized ByteBuffer allocate(int size, Allocations allocations) {
+        if (!directRefused && size <= budgetLeft) {
+            try {
+                ByteBuffer chunk = allocateDirect(size);
+                budgetLeft -= size;
+                allocations.directBytes += size;
+                return chunk;
+            } catch (OutOfMemoryError e) {
+                // The JVM has run out of direct memory, whatever we thought the budget was; it won't get better
+                directRefused = true;
+            }
+        }
+        return map(size, allocations);
+    }
+
+    /**
+     * Takes back everything a collected list had.
+     */
+    public synchronized void release(Allocations allocations) {
+        budgetLeft += allocations.directBytes;
+        allocations.directBytes = 0;
+        for (long[] region : allocations.spilledRegions) {
+            freeRegions.computeIfAbsent((int) region[1], size -> new ArrayDeque<>()).push(region[0]);
+        }
+        allocations.spilledRegions.clear();
+    }
+
+    // For a list which has copied itself into new chunks and is taking them over
+    synchronized void transfer(Allocations from, Allocations to) {
+        to.directBytes += from.directBytes;
+        from.directBytes = 0;
+        to.spilledRegions.addAll(from.spilledRegions);
+        from.spilledRegions.clear();
+    }
+
+    synchronized long budgetLeft() {
+        return budgetLeft;
+    }
+
+    synchronized boolean hasSpilled() {
+        return spill != null;
+    }
+
+    // Separate so tests can pretend the JVM is out of direct memory
+    ByteBuffer allocateDirect(int size) {
+        return ByteBuffer.allocateDirect(size);
+    }
+
+    private ByteBuffer map(int size, Allocations allocations) {
+        try {
+            if (spill == null) {
+                Path file = Files.createTempFile("bonjova-array", ".spill");
+                // This never gets closed, so the file goes when the JVM does
+                spill = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                        StandardOpenOption.DELETE_ON_CLOSE);
+            }
+            ArrayDeque<Long> free = freeRegions.get(size);
+            long offset;
+            if (free != null && !free.isEmpty()) {
+                offset = free.pop();
+            } else {
+                offset = spillEnd;
+                // Mapping past the end of the file makes it longer
+                spillEnd += size;
+            }
+            allocations.spilledRegions.add(new long[] { offset, size });
+            return spill.map(FileChannel.MapMode.READ_WRITE, offset, size);
+        } catch (IOException e) {
+            throw new RuntimeException("The array is too big to fit on the tour bus, and there's no room in the trailer: "
+                    + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * What one list has been given, so it can all be handed back once the list has gone. This mustn't refer to the list
+     * itself, or the list would never be collected.
+     */
+    public static final class Allocations {
+        private long directBytes;
+        // Offset and size of each bit of the file
+        private final List<long[]> spilledRegions = new ArrayList<>();
+    }
+}
@@ -0,0 +1,392 @@
+package io.quarkiverse.bonjova.support;
+
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Somewhere for a {@link DenseList} to keep its elements when there are too many of them for the heap, such as every
+ * line of a multi-gigabyte input. Elements are written out as bytes into chunks from the {@link OffHeapArena}, which
+ * spill over into a memory-mapped temp file past its budget, and a second set of chunks holds where each element
+ * starts, so indexing is still constant time. The first chunks are small, and each one is twice the size of the one
+ * before, up to a limit, so a list which only just got too big for the heap doesn't grab a lot of memory.
+ * <p>
+ * Numbers, strings, booleans, nulls and nothing get written out. Anything else (an array inside an array, say) stays on
+ * the heap, and the bytes just say where to find it. Strings are decoded every time they're read, which is the price of
+ * not keeping them on the heap.
+ * <p>
+ * An element gets overwritten where it is if the new one fits in its bytes, which numbers always do over numbers, so
+ * arrays of counters don't grow however often they're updated. Otherwise the old bytes are left behind, as are the
+ * slots and bytes of popped elements, and once there's more left behind than there is still in use, everything gets
+ * copied into new chunks and the old ones go back to the arena.
+ */
+public class OffHeapList extends AbstractList<Object> implements RandomAccess {
+
+    /**
+     * How many megabytes of memory big arrays can have between them outside the heap before they start spilling to
+     * disk. Arrays stay on the heap unless this is set.
+     */
+    public static final String OFF_HEAP_PROPERTY = "bonjova.array.offheap";
+    static final int FIRST_CHUNK_SIZE = 1 << 16;
+    static final int MAX_CHUNK_SIZE = 1 << 26;
+
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private static final byte NULL = 0;
+    private static final byte NUMBER = 1;
+    private static final byte FALSE = 2;
+    private static final byte TRUE = 3;
+    private static final byte STRING = 4;
+    private static final byte NOTHING = 5;
+    private static final byte ON_HEAP = 6;
+
+    private final OffHeapArena arena;
+    private final OffHeapArena.Allocations allocations = new OffHeapArena.Allocations();
+    private final int firstChunkSize;
+    private final int maxChunkSize;
+    // How many chunks it takes to get up to the biggest size, and how many bytes they hold between them
+    private final int growingChunks;
+    private final long growingBytes;
+    // Where each element's bytes start, eight bytes an element
+    private final List<ByteBuffer> indexChunks = new ArrayList<>();
+    // Chunks skipped over by something too big for them are left as null
+    private final List<ByteBuffer> dataChunks = new ArrayList<>();
+    private final List<Object> onHeap = new ArrayList<>();
+
+    // Slots before the head have been popped
+    private int head;
+    private int size;
+    private int dataChunk;
+    private int dataPosition;
+    // Bytes of elements written so far, and how many of them belong to elements which have gone
+    private long writtenBytes;
+    private long abandonedBytes;
+
+    public OffHeapList() {
+        this(OffHeapArena.shared(), FIRST_CHUNK_SIZE, MAX_CHUNK_SIZE);
+    }
+
+    // The chunk sizes have to be powers of two, and at least big enough for a number
+    OffHeapList(OffHeapArena arena, int firstChunkSize, int maxChunkSize) {
+        this.arena = arena;
+        this.firstChunkSize = firstChunkSize;
+        this.maxChunkSize = maxChunkSize;
+        growingChunks = Integer.numberOfTrailingZeros(maxChunkSize / firstChunkSize);
+        growingBytes = (long) firstChunkSize * ((1L << growingChunks) - 1);
+        // Only the arena and the allocations go in here, or the list would never be unreachable
+        OffHeapArena.Allocations allocations = this.allocations;
+        CLEANER.register(this, () -> arena.release(allocations));
+    }
+
+    /**
+     * The budget from the system property, in bytes, or -1 if arrays should stay on the heap.
+     */
+    static long configuredBudget() {
+        long megabytes = Long.getLong(OFF_HEAP_PROPERTY, -1);
+        return megabytes < 0 ? -1 : megabytes << 20;
+    }
+
+    @Override
+    public Object get(int index) {
+        checkIndex(index, size);
+        return read(slot(head + index));
+    }
+
+    @Override
+    public Object set(int index, Object element) {
+        checkIndex(index, size);
+        long offset = slot(head + index);
+        Object old = read(offset);
+        ByteBuffer chunk = dataChunks.get((int) (offset >>> 32));
+        int position = (int) offset;
+        byte[] bytes = encode(element);
+        int length = length(element, bytes);
+        int oldLength = length(chunk, position);
+        if (chunk.get(position) == ON_HEAP && bytes == null && length == 1 + Integer.BYTES) {
+            // Stays on the heap, in the same place
+            onHeap.set(chunk.getInt(position + 1), element);
+        } else if (length <= oldLength) {
+            abandon(chunk, position);
+            abandonedBytes -= length;
+            put(chunk, position, element, bytes);
+        } else {
+            abandon(chunk, position);
+            setSlot(head + index, write(element, bytes, length));
+            compactIfWasteful();
+        }
+        return old;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean add(Object element) {
+        setSlot(head + size, write(element));
+        size++;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public void add(int index, Object element) {
+        checkIndex(index, size + 1);
+        long offset = write(element);
+        for (int i = head + size; i > head + index; i--) {
+            setSlot(i, slot(i - 1));
+        }
+        setSlot(head + index, offset);
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public Object remove(int index) {
+        checkIndex(index, size);
+        if (index == 0) {
+            return pop();
+        }
+        long offset = slot(head + index);
+        Object old = read(offset);
+        abandon(offset);
+        for (int i = head + index; i < head + size - 1; i++) {
+            setSlot(i, slot(i + 1));
+        }
+        size--;
+        modCount++;
+        compactIfWasteful();
+        return old;
+    }
+
+    /**
+     * Takes the first element off in constant time, or gives null if there isn't one.
+     */
+    public Object pop() {
+        if (size == 0) {
+            return null;
+        }
+        long offset = slot(head);
+        Object first = read(offset);
+        abandon(offset);
+        head++;
+        size--;
+        if (size == 0) {
+            clear();
+        } else {
+            compactIfWasteful();
+        }
+        modCount++;
+        return first;
+    }
+
+    @Override
+    public void clear() {
+        // The chunks are kept for next time
+        head = 0;
+        size = 0;
+        dataChunk = 0;
+        dataPosition = 0;
+        writtenBytes = 0;
+        abandonedBytes = 0;
+        onHeap.clear();
+        modCount++;
+    }
+
+    // Bytes this list has had from the arena, for tests
+    long allocatedBytes() {
+        long bytes = 0;
+        for (ByteBuffer chunk : indexChunks) {
+            bytes += chunk.capacity();
+        }
+        for (ByteBuffer chunk : dataChunks) {
+            bytes += chunk == null ? 0 : chunk.capacity();
+        }
+        return bytes;
+    }
+
+    private void compactIfWasteful() {
+        // Either more popped slots than live ones, or more abandoned bytes than live ones, and enough to be worth it
+        boolean slotsWasted = head > size && (long) head * Long.BYTES >= firstChunkSize;
+        boolean bytesWasted = abandonedBytes > writtenBytes - abandonedBytes && abandonedBytes >= firstChunkSize;
+        if (slotsWasted || bytesWasted) {
+            compact();
+        }
+    }
+
+    // Copies everything still in the list into new chunks, and gives the old ones back
+    private void compact() {
+        OffHeapList fresh = new OffHeapList(arena, firstChunkSize, maxChunkSize);
+        for (int i = 0; i < size; i++) {
+            fresh.add(get(i));
+        }
+        arena.release(allocations);
+        arena.transfer(fresh.allocations, allocations);
+        indexChunks.clear();
+        indexChunks.addAll(fresh.indexChunks);
+        dataChunks.clear();
+        dataChunks.addAll(fresh.dataChunks);
+        onHeap.clear();
+        onHeap.addAll(fresh.onHeap);
+        head = 0;
+        dataChunk = fresh.dataChunk;
+        dataPosition = fresh.dataPosition;
+        writtenBytes = fresh.writtenBytes;
+        abandonedBytes = 0;
+    }
+
+    private static void checkIndex(int index, int limit) {
+        if (index < 0 || index >= limit) {
+            throw new IndexOutOfBoundsException("Index " + index + " is out of the array, which has length " + limit);
+        }
+    }
+
+    private int chunkSize(int chunk) {
+        return chunk < growingChunks ? firstChunkSize << chunk : maxChunkSize;
+    }
+
+    // Which index chunk a slot is in goes in the top half, and where in it in the bottom half
+    private long locate(int slot) {
+        long position = (long) slot * Long.BYTES;
+        if (position < growingBytes) {
+            int chunk = 63 - Long.numberOfLeadingZeros(position / firstChunkSize + 1);
+            return ((long) chunk << 32) | (position - firstChunkSize * ((1L << chunk) - 1));
+        }
+        long past = position - growingBytes;
+        return ((long) (growingChunks + past / maxChunkSize) << 32) | (past % maxChunkSize);
+    }
+
+    private long slot(int slot) {
+        long location = locate(slot);
+        return indexChunks.get((int) (location >>> 32)).getLong((int) location);
+    }
+
+    private void setSlot(int slot, long offset) {
+        long location = locate(slot);
+        int chunk = (int) (location >>> 32);
+        while (indexChunks.size() <= chunk) {
+            indexChunks.add(arena.allocate(chunkSize(indexChunks.size()), allocations));
+        }
+        indexChunks.get(chunk).putLong((int) location, offset);
+    }
+
+    // Offsets are made the same way as locations, with the data chunk in the top half
+    private Object read(long offset) {
+        ByteBuffer chunk = dataChunks.get((int) (offset >>> 32));
+        int position = (int) offset;
+        return switch (chunk.get(position)) {
+            case NULL -> null;
+            case NUMBER -> chunk.getDouble(position + 1);
+            case FALSE -> Boolean.FALSE;
+            case TRUE -> Boolean.TRUE;
+            case NOTHING -> Nothing.NOTHING;
+            case STRING -> {
+                byte[] bytes = new byte[chunk.getInt(position + 1)];
+                chunk.get(position + 1 + Integer.BYTES, bytes);
+                yield new String(bytes, StandardCharsets.UTF_8);
+            }
+            default -> onHeap.get(chunk.getInt(position + 1));
+        };
+    }
+
+    // Gives the offset the element was written at
+    private long write(Object element) {
+        byte[] bytes = encode(element);
+        return write(element, bytes, length(element, bytes));
+    }
+
+    private long write(Object element, byte[] bytes, int length) {
+        long offset = reserve(length);
+        put(dataChunks.get(dataChunk), (int) offset, element, bytes);
+        return offset;
+    }
+
+    // The UTF-8 for a string which can be written out, or null for anything else
+    private byte[] encode(Object element) {
+        if (element instanceof String string) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            // Strings too big for a chunk will have to take their chances on the heap
+            return 1 + Integer.BYTES + bytes.length <= maxChunkSize ? bytes : null;
+        }
+        return null;
+    }
+
+    private static int length(Object element, byte[] bytes) {
+        if (element == null || element instanceof Boolean || element == Nothing.NOTHING) {
+            return 1;
+        } else if (element instanceof Double) {
+            return 1 + Double.BYTES;
+        } else if (bytes != null) {
+            return 1 + Integer.BYTES + bytes.length;
+        }
+        return 1 + Integer.BYTES;
+    }
+
+    // How many bytes the element written here takes up
+    private static int length(ByteBuffer chunk, int position) {
+        return switch (chunk.get(position)) {
+            case NULL, FALSE, TRUE, NOTHING -> 1;
+            case NUMBER -> 1 + Double.BYTES;
+            case STRING -> 1 + Integer.BYTES + chunk.getInt(position + 1);
+            default -> 1 + Integer.BYTES;
+        };
+    }
+
+    private void put(ByteBuffer chunk, int position, Object element, byte[] bytes) {
+        if (element == null) {
+            chunk.put(position, NULL);
+        } else if (element instanceof Double number) {
+            chunk.put(position, NUMBER);
+            chunk.putDouble(position + 1, number);
+        } else if (element instanceof Boolean bool) {
+            chunk.put(position, bool ? TRUE : FALSE);
+        } else if (element == Nothing.NOTHING) {
+            chunk.put(position, NOTHING);
+        } else if (bytes != null) {
+            chunk.put(position, STRING);
+            chunk.putInt(position + 1, bytes.length);
+            chunk.put(position + 1 + Integer.BYTES, bytes);
+        } else {
+            chunk.put(position, ON_HEAP);
+            chunk.putInt(position + 1, onHeap.size());
+            onHeap.add(element);
+        }
+    }
+
+    // The element at this offset has gone, so its bytes are wasted, and anything it kept on the heap can be collected
+    private void abandon(long offset) {
+        abandon(dataChunks.get((int) (offset >>> 32)), (int) offset);
+    }
+
+    private void abandon(ByteBuffer chunk, int position) {
+        abandonedBytes += length(chunk, position);
+        if (chunk.get(position) == ON_HEAP) {
+            onHeap.set(chunk.getInt(position + 1), null);
+        }
+    }
+
+    // Finds room for an element, never splitting one across chunks
+    private long reserve(int length) {
+        while (dataPosition + length > chunkSize(dataChunk)) {
+            dataChunk++;
+            dataPosition = 0;
+        }
+        while (dataChunks.size() < dataChunk) {
+            dataChunks.add(null);
+        }
+        if (dataChunks.size() == dataChunk) {
+            dataChunks.add(arena.allocate(chunkSize(dataChunk), allocations));
+        } else if (dataChunks.get(dataChunk) == null) {
+            dataChunks.set(dataChunk, arena.allocate(chunkSize(dataChunk), allocations));
+        }
+        long offset = ((long) dataChunk << 32) | dataPosition;
+        dataPosition += length;
+        writtenBytes += length;
+        return offset;
+    }
+}
@@ -1,80 +1,131 @@
 package io.quarkiverse.bonjova.support;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class RockstarArray {
 
+    // Writes this far past the end, or as far as the list is long if that's further, get padded rather than going in
+    // the sparse part
+    private static final int MAX_PADDING = 16;
+
+    // Up to 10^15, which a double can hold exactly
+    private static final int MAX_INDEX_DIGITS = 15;
+
     // Exposed for ease of testing
     Map<Object, Object> map;
-    public List<Object> list;
+    public DenseList list;
+    // Indices past a gap at the end of the list; only made when needed
+    SparseElements sparse;
+    // Keys in the sparse part don't change when the front is popped off, so remember how far everything has moved
+    private long popped;
 
     public RockstarArray() {
         map = new HashMap<>();
-        list = new ArrayList<>();
+        list = new DenseList();
     }
 
     public void add(Object thing) {
-        list.add(thing);
+        if (sparse == null || sparse.isEmpty()) {
+            list.add(thing);
+        } else {
+            // The end of the array is past the sparse part
+            add(size(), thing);
+        }
     }
 
-    public Object get(double i) {
+    // Numbers don't need boxing on the way in, as long as everything else in the list is a number too
+    public void add(double thing) {
+        if (sparse == null || sparse.isEmpty()) {
+            list.add(thing);
+        } else {
+            add(size(), thing);
+        }
+    }
 
+    public Object get(double i) {
         if (i < list.size()) {
             return list.get((int) i);
+        } else if (sparse != null) {
+            return sparse.get(popped + (long) i);
         } else {
             return null;
         }
     }
 
+    /**
+     * For reads which are only going to be used as a number, such as one side of a subtraction. Numbers in a numeric
+     * list come straight out of the double[], without being boxed on the way.
+     */
+    public double getNumber(double i) {
+        if (i < list.size()) {
+            return list.getNumber((int) i);
+        }
+        return RockstarOps.toOperand(get(i));
+    }
+
     public Object get(Object key) {
         // Rockstar only has a small number of types, so we don't need to check every Java type
         if (key instanceof Double) {
             return get(((Double) key).doubleValue());
-        } else if (key instanceof String) {
-            try {
-                int num = Integer.parseInt((String) key);
-                return list.get(num);
-            } catch (NumberFormatException e) {
-                // Not a problem, carry on
-                return map.get(key);
-            }
+        } else if (key instanceof String string) {
+            long index = indexFor(string);
+            return index >= 0 ? get((double) index) : map.get(key);
         } else {
             return map.get(key);
         }
     }
 
-    private void ensureCapacity(int target) {
-        for (int i = list.size(); i < target; i++) {
-            // TODO it would be nice to use nothings
-            list.add(null);
+    public void add(double d, Object thing) {
+        long i = (long) d;
+        int end = list.size();
+        if (i < end) {
+            list.set((int) i, thing);
+        } else if (i - end <= Math.max(MAX_PADDING, end) && i < Integer.MAX_VALUE) {
+            // Near enough the end that filling the gap is no worse than the array growing anyway
+            while (end < i) {
+                list.add(takeFromSparse(end));
+                end++;
+            }
+            list.add(thing);
+            if (sparse != null) {
+                takeFromSparse(end);
+                gatherFromSparse();
+            }
+        } else {
+            if (sparse == null) {
+                sparse = new SparseElements();
+            }
+            sparse.put(popped + i, thing);
         }
     }
 
-    public void add(double d, Object thing) {
-        int i = (int) d;
-        ensureCapacity(i);
-        list.add(i, thing);
+    public void add(double d, double thing) {
+        int end = list.size();
+        if (d < end) {
+            list.set((int) d, thing);
+        } else if ((long) d == end && (sparse == null || sparse.isEmpty())) {
+            list.add(thing);
+        } else {
+            // Gaps and far-away indices aren't worth a special case
+            add(d, (Object) thing);
+        }
     }
 
     public void add(Object key, Object thing) {
         // Rockstar only has a small number of types, so we don't need to check every Java type
         if (key instanceof Double) {
-            // Use our method so we can ensure capacity
+            // Use our method so the index goes in the right part
             add(((Double) key).doubleValue(), thing);
-        } else if (key instanceof String) {
-            try {
-                double num = Double.parseDouble((String) key);
-                if (Math.round(num) == num) {
-                    add(num, thing);
-                } else {
-                    map.put(key, thing);
-                }
-            } catch (NumberFormatException e) {
-                // Not a problem, carry on
+        } else if (key instanceof String string) {
+            long index = indexFor(string);
+            if (index >= 0) {
+                add((double) index, thing);
+            } else {
                 map.put(key, thing);
             }
         } else {
@@ -82,20 +133,40 @@ public class RockstarArray {
         }
     }
 
+    public void add(Object key, double thing) {
+        if (key instanceof Double) {
+            add(((Double) key).doubleValue(), thing);
+        } else {
+            add(key, (Object) thing);
+        }
+    }
+
     public double size() {
-        return list.size();
+        if (sparse == null || sparse.isEmpty()) {
+            return list.size();
+        }
+        return sparse.highestKey() - popped + 1;
     }
 
     public Object pop() {
-        if (list.size() > 0) {
-            return list.remove(0);
-        } else {
-            return null;
+        if (sparse == null || sparse.isEmpty()) {
+            return list.pop();
         }
+        // Whatever was at the front, even a gap, goes, and everything else moves down one
+        Object popped = list.isEmpty() ? null : list.pop();
+        this.popped++;
+        gatherFromSparse();
+        return popped;
     }
 
     public void addAll(List inList) {
-        list.addAll(inList);
+        if (sparse == null || sparse.isEmpty()) {
+            list.addAll(inList);
+        } else {
+            for (Object thing : inList) {
+                add(thing);
+            }
+        }
     }
 
     public String join() {
@@ -103,6 +174,48 @@ public class RockstarArray {
     }
 
     public String join(String delimiter) {
-        return list.stream().map(Object::toString).collect(Collectors.joining(delimiter));
+        Stream<Object> elements = list.stream();
+        if (sparse != null && !sparse.isEmpty()) {
+            elements = Stream.concat(elements, Arrays.stream(sparse.valuesInOrder()));
+        }
+        return elements.map(Object::toString).collect(Collectors.joining(delimiter));
+    }
+
+    /**
+     * Works out whether a string key is really an index, meaning it's written the way the number would be, so "7" is
+     * an index but "07", "7.0", "+7" and "-7" are all just strings. Anything too long to be exact as a double is a
+     * string too. Gives -1 for strings. Looking through the characters once is a lot cheaper than parsing and catching
+     * the exception for every string key.
+     */
+    static long indexFor(String key) {
+        int length = key.length();
+        if (length == 0 || length > MAX_INDEX_DIGITS || (key.charAt(0) == '0' && length > 1)) {
+            return -1;
+        }
+        long index = 0;
+        for (int i = 0; i < length; i++) {
+            int digit = key.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            index = index * 10 + digit;
+        }
+        return index;
+    }
+
+    private Object takeFromSparse(int i) {
+        return sparse == null ? null : sparse.remove(popped + i);
+    }
+
+    // Anything in the sparse part which now carries straight on from the end of the list belongs in the list
+    private void gatherFromSparse() {
+        if (sparse == null) {
+            return;
+        }
+        long next = popped + list.size();
+        while (!sparse.isEmpty() && sparse.containsKey(next)) {
+            list.add(sparse.remove(next));
+            next++;
+        }
     }
 }
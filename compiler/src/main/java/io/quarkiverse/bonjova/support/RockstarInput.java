@@ -0,0 +1,126 @@
+package io.quarkiverse.bonjova.support;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Where listen gets its lines from. Normally that's stdin, read lazily a line at a time, so a program can chew through a
+ * file of any size without holding it all in memory. For compatibility, programs which are given command line arguments
+ * listen to those instead, one argument per listen.
+ * <p>
+ * The bonjova.input system property can force the choice, with a value of stdin or args. Any other value is the path
+ * of a file to listen to; regular files get memory-mapped, which is much the fastest way through a really big input.
+ * Anything else can be plugged in with {@link #use(LineSource)}, before the program starts or while it runs.
+ */
+public class RockstarInput {
+
+    public static final String INPUT_PROPERTY = "bonjova.input";
+    static final String STDIN = "stdin";
+    static final String ARGS = "args";
+
+    // Like the output, each thread gets its own, so programs running side by side don't steal each other's lines
+    private static final ThreadLocal<LineSource> SOURCE = new ThreadLocal<>();
+
+    private RockstarInput() {
+    }
+
+    /**
+     * Generated main methods call this before running the program. A source which has already been set up for this
+     * thread, by whoever is running the program, gets kept.
+     */
+    public static void start(String[] args) {
+        if (SOURCE.get() != null) {
+            return;
+        }
+        String mode = System.getProperty(INPUT_PROPERTY);
+        if (mode == null) {
+            use(args != null && args.length > 0 ? fromArgs(args) : fromStdin());
+        } else if (ARGS.equals(mode)) {
+            use(fromArgs(args));
+        } else if (STDIN.equals(mode)) {
+            use(fromStdin());
+        } else {
+            use(fromFile(Path.of(mode)));
+        }
+    }
+
+    /**
+     * ... and this once it has finished, however it finished.
+     */
+    public static void finish() {
+        LineSource source = SOURCE.get();
+        SOURCE.remove();
+        if (source instanceof Closeable closeable) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                // We've heard everything we wanted to by now
+            }
+        }
+    }
+
+    public static void use(LineSource source) {
+        SOURCE.set(source);
+    }
+
+    /**
+     * Listens to the given arguments and nothing else, not even stdin once they run out. This is for running programs
+     * somewhere stdin isn't theirs, like a server.
+     */
+    public static void useArgs(String[] args) {
+        use(fromArgs(args));
+    }
+
+    public static String readLine() {
+        LineSource source = SOURCE.get();
+        if (source == null) {
+            // Not started by a generated main, so do what main would have done
+            source = fromStdin();
+            use(source);
+        }
+        try {
+            return source.readLine();
+        } catch (IOException e) {
+            throw new RuntimeException("Can't hear you: " + e.getMessage(), e);
+        }
+    }
+
+    static LineSource fromArgs(String[] args) {
+        String[] lines = args == null ? new String[0] : args;
+        int[] next = { 0 };
+        return () -> next[0] < lines.length ? lines[next[0]++] : null;
+    }
+
+    static LineSource fromFile(Path file) {
+        try {
+            if (Files.isRegularFile(file)) {
+                return new MappedLineSource(file);
+            }
+            // Pipes and the like can't be mapped
+            BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+            return reader::readLine;
+        } catch (IOException e) {
+            throw new RuntimeException("Can't hear you: " + e.getMessage(), e);
+        }
+    }
+
+    static LineSource fromStdin() {
+        // Nothing gets read until the first listen, so programs which never listen leave stdin alone
+        BufferedReader[] reader = { null };
+        return () -> {
+            if (reader[0] == null) {
+                reader[0] = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+            }
+            if (!reader[0].ready()) {
+                // We might be about to block waiting for a person, so make sure they can see what they're answering
+                RockstarOutput.flush();
+            }
+            return reader[0].readLine();
+        };
+    }
+}
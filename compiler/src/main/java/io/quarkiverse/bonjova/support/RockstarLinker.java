@@ -0,0 +1,144 @@
+package io.quarkiverse.bonjova.support;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.MutableCallSite;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bootstrap for the invokedynamic operator sites. Rockstar is dynamically typed, but any given 'plus' almost always sees
+ * the same types every time round a loop, so each site remembers the types it saw last and links straight to a version
+ * of the operation for those types. If the types change, the guard fails and the site relinks, as it does after a
+ * mysterious value, which counts as a change; if they keep changing, the site gives up and sticks with the general purpose
+ * version in {@link RockstarOps}.
+ */
+public class RockstarLinker {
+
+    // After this many relinks, a site is probably megamorphic, and the guards are just overhead
+    static final int MAX_RELINKS = 8;
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodHandle RELINK;
+    private static final MethodHandle GUARD;
+
+    static {
+        try {
+            RELINK = LOOKUP.findStatic(RockstarLinker.class, "relink",
+                    MethodType.methodType(Object.class, MutableCallSite.class, String.class, AtomicInteger.class,
+                            Object.class, Object.class));
+            GUARD = LOOKUP.findStatic(RockstarLinker.class, "hasClasses",
+                    MethodType.methodType(boolean.class, Class.class, Class.class, Object.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException("Linker lost the plot: " + e.getMessage(), e);
+        }
+    }
+
+    private RockstarLinker() {
+    }
+
+    public static CallSite bootstrap(MethodHandles.Lookup lookup, String name, MethodType type) {
+        MutableCallSite site = new MutableCallSite(type);
+        site.setTarget(relinker(site, name, new AtomicInteger()));
+        return site;
+    }
+
+    private static MethodHandle relinker(MutableCallSite site, String name, AtomicInteger relinks) {
+        return MethodHandles.insertArguments(RELINK, 0, site, name, relinks)
+                .asType(site.type());
+    }
+
+    private static Object relink(MutableCallSite site, String name, AtomicInteger relinks, Object a, Object b)
+            throws Throwable {
+        MethodHandle target;
+        if (relinks.incrementAndGet() > MAX_RELINKS) {
+            // Megamorphic sites need no guard at all
+            target = general(name, site.type());
+        } else if (a == null || b == null) {
+            // Mysterious values are rare enough that it's not worth a guard, so leave the site to link on the next values
+            return general(name, site.type()).invoke(a, b);
+        } else {
+            MethodHandle guard = MethodHandles.insertArguments(GUARD, 0, a.getClass(), b.getClass());
+            target = MethodHandles.guardWithTest(
+                    guard.asType(site.type().changeReturnType(boolean.class)),
+                    specialise(name, a.getClass(), b.getClass(), site.type()),
+                    relinker(site, name, relinks));
+        }
+        site.setTarget(target);
+        return target.invoke(a, b);
+    }
+
+    private static boolean hasClasses(Class<?> aClass, Class<?> bClass, Object a, Object b) {
+        return a != null && b != null && a.getClass() == aClass && b.getClass() == bClass;
+    }
+
+    static MethodHandle specialise(String name, Class<?> aClass, Class<?> bClass, MethodType type)
+            throws ReflectiveOperationException {
+        String specialised = null;
+        if (aClass == Double.class && bClass == Double.class) {
+            specialised = name + "Numbers";
+        } else if (aClass == String.class && bClass == String.class) {
+            specialised = name + "Strings";
+        }
+
+        if (specialised != null) {
+            try {
+                return LOOKUP.findStatic(RockstarLinker.class, specialised, type);
+            } catch (NoSuchMethodException e) {
+                // Not every operation has a shortcut for every type
+            }
+        }
+        return general(name, type);
+    }
+
+    private static MethodHandle general(String name, MethodType type) throws ReflectiveOperationException {
+        return LOOKUP.findStatic(RockstarOps.class, name, type);
+    }
+
+    // The specialisations; the guards mean these can cast without checking
+
+    private static Object addNumbers(Object a, Object b) {
+        return (Double) a + (Double) b;
+    }
+
+    private static Object addStrings(Object a, Object b) {
+        return ((String) a).concat((String) b);
+    }
+
+    private static double subtractNumbers(Object a, Object b) {
+        return (Double) a - (Double) b;
+    }
+
+    private static double multiplyNumbers(Object a, Object b) {
+        return (Double) a * (Double) b;
+    }
+
+    private static double divideNumbers(Object a, Object b) {
+        return (Double) a / (Double) b;
+    }
+
+    private static int compareNumbers(Object a, Object b) {
+        return RockstarOps.compareNumbers((Double) a, (Double) b, false);
+    }
+
+    private static int compareNanIsGreaterNumbers(Object a, Object b) {
+        return RockstarOps.compareNumbers((Double) a, (Double) b, true);
+    }
+
+    private static int compareStrings(Object a, Object b) {
+        return ((String) a).compareTo((String) b);
+    }
+
+    private static int compareNanIsGreaterStrings(Object a, Object b) {
+        return ((String) a).compareTo((String) b);
+    }
+
+    private static boolean equalNumbers(Object a, Object b) {
+        return RockstarOps.equalNumbers((Double) a, (Double) b);
+    }
+
+    private static boolean equalStrings(Object a, Object b) {
+        return ((String) a).equals(b);
+    }
+}
@@ -0,0 +1,181 @@
+package io.quarkiverse.bonjova.support;
+
+import static io.quarkiverse.bonjova.support.Nothing.ZERO;
+
+/**
+ * The operators, for when the compiler can't work out the types in advance. Generated code calls these, rather than
+ * inlining a tree of type checks at every site, which keeps methods small enough for the JIT to like them.
+ */
+public class RockstarOps {
+
+    public static final String MYSTERIOUS = "mysterious";
+
+    private RockstarOps() {
+    }
+
+    public static Object add(Object a, Object b) {
+        Object safeA = coerceNothingWithVisibleNulls(a, b);
+        Object safeB = coerceNothingWithVisibleNulls(b, a);
+        if (safeA instanceof String || safeB instanceof String) {
+            return toRockString(safeA).concat(toRockString(safeB));
+        }
+        return toNumber(safeA) + toNumber(safeB);
+    }
+
+    public static double subtract(Object a, Object b) {
+        Object safeA = coerceNothing(a, b);
+        Object safeB = coerceNothing(b, a);
+        if (safeA instanceof String || safeB instanceof String) {
+            throw new UnsupportedOperationException("Subtraction of strings is not possible.");
+        }
+        return toNumber(safeA) - toNumber(safeB);
+    }
+
+    public static double multiply(Object a, Object b) {
+        Object safeA = coerceNothing(a, b);
+        Object safeB = coerceNothing(b, a);
+        if (safeA instanceof String || safeB instanceof String) {
+            throw new UnsupportedOperationException("Multiplication of strings not yet implemented.");
+        }
+        return toNumber(safeA) * toNumber(safeB);
+    }
+
+    public static double divide(Object a, Object b) {
+        Object safeA = coerceNothing(a, b);
+        Object safeB = coerceNothing(b, a);
+        if (safeA instanceof String || safeB instanceof String) {
+            throw new UnsupportedOperationException("Divided we fall: Division of strings is not possible.");
+        }
+        return toNumber(safeA) / toNumber(safeB);
+    }
+
+    /**
+     * For greater than checks; a NaN anywhere makes the answer negative, so the check fails.
+     */
+    public static int compare(Object a, Object b) {
+        return compare(a, b, false);
+    }
+
+    /**
+     * For less than checks; a NaN anywhere makes the answer positive, so the check fails.
+     */
+    public static int compareNanIsGreater(Object a, Object b) {
+        return compare(a, b, true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compare(Object a, Object b, boolean nanIsGreater) {
+        Object safeA = coerceNothing(a, b);
+        Object safeB = coerceNothing(b, a);
+        if (safeA instanceof Double l && safeB instanceof Double r) {
+            return compareNumbers(l, r, nanIsGreater);
+        }
+        return ((Comparable<Object>) safeA).compareTo(safeB);
+    }
+
+    public static boolean equal(Object a, Object b) {
+        // Mysterious is only ever equal to itself
+        if (a == null) {
+            return b == null;
+        }
+        if (a instanceof Double l && b instanceof Double r) {
+            return equalNumbers(l, r);
+        }
+        return a.equals(b);
+    }
+
+    // These two are the only place numbers get compared, whether the compiler knew they were numbers, the linker
+    // found out they were, or constant folding worked the answer out in advance, so all three always agree. They go
+    // by the primitive operators rather than Double.equals and Double.compare, so NaN isn't equal to anything, not
+    // even itself, and makes every ordering false, and -0 is equal to 0.
+
+    public static boolean equalNumbers(double a, double b) {
+        return a == b;
+    }
+
+    /**
+     * Like the dcmpl and dcmpg instructions; which way NaN goes depends on which check the answer is for.
+     */
+    public static int compareNumbers(double a, double b, boolean nanIsGreater) {
+        if (a < b) {
+            return -1;
+        } else if (a > b) {
+            return 1;
+        } else if (a == b) {
+            return 0;
+        }
+        return nanIsGreater ? 1 : -1;
+    }
+
+    public static boolean truthy(Object o) {
+        if (o instanceof Boolean b) {
+            return b;
+        }
+        return o != null && !ZERO.equals(o);
+    }
+
+    // Arrays turn into their length when used as a scalar
+    public static Object toScalar(Object o) {
+        if (o instanceof RockstarArray array) {
+            return array.size();
+        }
+        return o;
+    }
+
+    public static String toRockString(Object o) {
+        if (o == null) {
+            return MYSTERIOUS;
+        } else if (o instanceof Double d) {
+            return toRockString(d.doubleValue());
+        }
+        return o.toString();
+    }
+
+    // We want to do a special toString on numbers, to avoid tacking decimal points onto integers
+    public static String toRockString(double d) {
+        return NumberFormatter.format(d);
+    }
+
+    public static double toNumber(Object o) {
+        if (o instanceof Boolean b) {
+            return b ? 1d : 0d;
+        }
+        // Mysterious and other oddities fail here, as they should
+        return (Double) o;
+    }
+
+    /**
+     * What a value comes to as one side of a subtraction, multiplication or division. Nothing is zero whatever is on
+     * the other side, unless that's a string, and then the sum was never going to work anyway.
+     */
+    public static double toOperand(Object o) {
+        if (o instanceof String s) {
+            throw new UnsupportedOperationException("You can't do sums with \"" + s + "\", it's a string.");
+        }
+        return toNumber(coerceNothingToNumber(o));
+    }
+
+    public static Object coerceNothing(Object original, Object reference) {
+        return original instanceof Nothing nothing ? nothing.coerce(reference) : original;
+    }
+
+    public static Object coerceNothingWithVisibleNulls(Object original, Object reference) {
+        return original instanceof Nothing nothing ? nothing.coerceWithVisibleNulls(reference) : original;
+    }
+
+    public static Object coerceNothingToString(Object original) {
+        return original instanceof Nothing nothing ? nothing.coerceToString() : original;
+    }
+
+    public static Object coerceNothingToNumber(Object original) {
+        return original instanceof Nothing nothing ? nothing.coerceToNumber() : original;
+    }
+
+    public static Object coerceNothingToBoolean(Object original) {
+        return original instanceof Nothing nothing ? nothing.coerceToBoolean() : original;
+    }
+
+    public static Object coerceNothingToSomething(Object original) {
+        return original instanceof Nothing nothing ? nothing.coerceToSomething() : original;
+    }
+}
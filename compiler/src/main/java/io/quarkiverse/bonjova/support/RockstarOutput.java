@@ -0,0 +1,53 @@
+package io.quarkiverse.bonjova.support;
+
+/**
+ * Where say and shout go. System.out flushes and takes a lock on every line, which is most of the cost of a program which
+ * prints a lot, so lines collect here and go out in big chunks instead. Generated code flushes on the way out of main,
+ * whether it got there normally or not.
+ * <p>
+ * The buffer size, in characters, comes from the bonjova.output.buffer system property. Interactive programs can set it
+ * to 0, which sends every line straight out.
+ */
+public class RockstarOutput {
+
+    public static final String BUFFER_SIZE_PROPERTY = "bonjova.output.buffer";
+    static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private static final int BUFFER_SIZE = Integer.getInteger(BUFFER_SIZE_PROPERTY, DEFAULT_BUFFER_SIZE);
+    // A program only ever has one thread, but several programs can run at once (in a server, say); giving each thread its
+    // own buffer means none of them have to lock
+    private static final ThreadLocal<RockstarOutput> OUT = ThreadLocal.withInitial(() -> new RockstarOutput(BUFFER_SIZE));
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final int bufferSize;
+    private final StringBuilder buffer;
+
+    RockstarOutput(int bufferSize) {
+        this.bufferSize = bufferSize;
+        buffer = new StringBuilder();
+    }
+
+    public static void println(String line) {
+        OUT.get().write(line);
+    }
+
+    public static void flush() {
+        OUT.get().flushBuffer();
+    }
+
+    void write(String line) {
+        buffer.append(line).append(LINE_SEPARATOR);
+        if (buffer.length() >= bufferSize) {
+            flushBuffer();
+        }
+    }
+
+    void flushBuffer() {
+        if (!buffer.isEmpty()) {
+            // Look up System.out every time, in case someone has swapped it
+            System.out.append(buffer);
+            System.out.flush();
+            buffer.setLength(0);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package io.quarkiverse.bonjova.support;
+
+import java.util.Arrays;
+
+/**
+ * The far-flung numeric indices of a {@link RockstarArray}, for when a program writes way past the end of an array and
+ * padding it out to there with nulls would be silly. It's an open-addressing hash map on primitive long keys, so there's
+ * no boxing of the indices, with linear probing and back-shift deletion so there are no tombstones to clean up.
+ * Indices are never negative, which frees up a key to mark empty slots.
+ */
+public class SparseElements {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] keys;
+    private Object[] values;
+    private int size;
+    // Kept up to date on puts; removals only ever take the smallest key, and the last one resets it
+    private long highestKey = EMPTY;
+
+    public SparseElements() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    public Object get(long key) {
+        int slot = find(key);
+        return slot < 0 ? null : values[slot];
+    }
+
+    public boolean containsKey(long key) {
+        return find(key) >= 0;
+    }
+
+    public void put(long key, Object value) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+        highestKey = Math.max(highestKey, key);
+        // Keep it no more than half full, so probes stay short
+        if (size * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+    }
+
+    public Object remove(long key) {
+        int slot = find(key);
+        if (slot < 0) {
+            return null;
+        }
+        Object value = values[slot];
+        size--;
+        if (size == 0) {
+            highestKey = EMPTY;
+        }
+
+        // Shift anything which probed past this slot back into it, so lookups never have to skip over a gap
+        int mask = keys.length - 1;
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (keys[next] != EMPTY) {
+            int home = hash(keys[next]) & mask;
+            // Only move entries whose home slot isn't between the gap and where they are now
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = EMPTY;
+        values[gap] = null;
+        return value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * The biggest key in the map, only meaningful when there's something in it.
+     */
+    public long highestKey() {
+        return highestKey;
+    }
+
+    /**
+     * Everything in the map, in order of key.
+     */
+    public Object[] valuesInOrder() {
+        long[] sortedKeys = new long[size];
+        int i = 0;
+        for (long key : keys) {
+            if (key != EMPTY) {
+                sortedKeys[i++] = key;
+            }
+        }
+        Arrays.sort(sortedKeys);
+        Object[] sorted = new Object[size];
+        for (i = 0; i < size; i++) {
+            sorted[i] = get(sortedKeys[i]);
+        }
+        return sorted;
+    }
+
+    private int find(long key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        values = new Object[capacity];
+    }
+
+    private static int hash(long key) {
+        // Indices tend to be runs of consecutive numbers, so spread them out before masking
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -17,6 +17,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class ArrayTest {
 
@@ -114,6 +116,28 @@ public class ArrayTest {
         assertEquals(Arrays.asList(contents), execute(ctx, new Array(ctx)).list);
     }
 
+    @Test
+    public void shouldKeepArraysOfNumbersAsNumbers() {
+        String program = """
+                Rock 1, 2, 3 + 4 into arr
+                """;
+        Rockstar.ArrayStmtContext ctx = new ParseHelper().getArray(program);
+        RockstarArray array = execute(ctx, new Array(ctx));
+        assertTrue(array.list.isNumeric());
+        assertEquals(Arrays.asList(1d, 2d, 7d), array.list);
+    }
+
+    @Test
+    public void shouldStopKeepingArraysAsNumbersWhenSomethingElseGoesIn() {
+        String program = """
+                Rock 1, "two", 3 into arr
+                """;
+        Rockstar.ArrayStmtContext ctx = new ParseHelper().getArray(program);
+        RockstarArray array = execute(ctx, new Array(ctx));
+        assertFalse(array.list.isNumeric());
+        assertEquals(Arrays.asList(1d, "two", 3d), array.list);
+    }
+
     @Test
     public void shouldPopulateArrayOnInitialisationAtAIndexNextToTheBeginning() {
         String program = """
@@ -121,7 +145,9 @@ public class ArrayTest {
                 """;
         Rockstar.ArrayStmtContext ctx = new ParseHelper().getArray(program);
         Object[] contents = { 2d };
-        assertEquals(Arrays.asList(contents), execute(ctx, new Array(ctx)).list);
+        RockstarArray array = execute(ctx, new Array(ctx));
+        assertEquals(Arrays.asList(contents), array.list);
+        assertTrue(array.list.isNumeric());
     }
 
     @Test
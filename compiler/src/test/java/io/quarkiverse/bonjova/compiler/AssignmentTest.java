@@ -51,7 +51,7 @@ public class AssignmentTest {
         Assignment a = new Assignment(ctx);
         // The number should be stored as a double, even though it was entered as an integer
         assertEquals(5d, a.getValue());
-        //     @Disabled("type chaos")     assertEquals(double.class, a.getVariableClass());
+        assertEquals(double.class, a.getVariableClass());
     }
 
     /* Numbers in Rockstar are double-precision floating point numbers, stored according to the IEEE 754 standard. */
@@ -60,7 +60,7 @@ public class AssignmentTest {
         Rockstar.AssignmentStmtContext ctx = new ParseHelper().getAssignment("My thing is 3.141");
         Assignment a = new Assignment(ctx);
         assertEquals(3.141, a.getValue());
-        //     @Disabled("type chaos")     assertEquals(double.class, a.getVariableClass());
+        assertEquals(double.class, a.getVariableClass());
     }
 
     @Test
@@ -68,7 +68,7 @@ public class AssignmentTest {
         Rockstar.AssignmentStmtContext ctx = new ParseHelper().getAssignment("My thing is \"Yes hello\"");
         Assignment a = new Assignment(ctx);
         assertEquals("Yes hello", a.getValue());
-        //     @Disabled("type chaos")        assertEquals(String.class, a.getVariableClass());
+        assertEquals(String.class, a.getVariableClass());
     }
 
     /*
@@ -79,7 +79,7 @@ public class AssignmentTest {
         Rockstar.AssignmentStmtContext ctx = new ParseHelper().getAssignment("My thing is silence");
         Assignment a = new Assignment(ctx);
         assertEquals("", a.getValue());
-        //     @Disabled("type chaos")  assertEquals(String.class, a.getVariableClass());
+        assertEquals(String.class, a.getVariableClass());
 
         ctx = new ParseHelper().getAssignment("My thing is silent");
         a = new Assignment(ctx);
@@ -124,7 +124,7 @@ public class AssignmentTest {
         Rockstar.AssignmentStmtContext ctx = new ParseHelper().getAssignment("My thing is true");
         Assignment a = new Assignment(ctx);
         assertEquals(true, a.getValue());
-        //    @Disabled("type chaos")     assertEquals(boolean.class, a.getVariableClass());
+        assertEquals(boolean.class, a.getVariableClass());
 
         ctx = new ParseHelper().getAssignment("My thing is right");
         a = new Assignment(ctx);
@@ -144,7 +144,7 @@ public class AssignmentTest {
         Rockstar.AssignmentStmtContext ctx = new ParseHelper().getAssignment("My thing is false");
         Assignment a = new Assignment(ctx);
         assertEquals(false, a.getValue());
-        //     @Disabled("type chaos")        assertEquals(boolean.class, a.getVariableClass());
+        assertEquals(boolean.class, a.getVariableClass());
 
         ctx = new ParseHelper().getAssignment("My thing is lies");
         a = new Assignment(ctx);
@@ -255,7 +255,7 @@ public class AssignmentTest {
                 """;
         Rockstar.AssignmentStmtContext ctx = new ParseHelper().getAssignment(program);
         Assignment a = new Assignment(ctx);
-        //     @Disabled("type chaos") assertEquals(double.class, a.getVariableClass());
+        assertEquals(double.class, a.getVariableClass());
 
     }
 
@@ -279,14 +279,14 @@ public class AssignmentTest {
                 """;
         Rockstar.AssignmentStmtContext ctx = new ParseHelper().getAssignment(program);
         Assignment a = new Assignment(ctx);
-        //     @Disabled("type chaos")   assertEquals(double.class, a.getVariableClass());
+        assertEquals(double.class, a.getVariableClass());
 
         program = """
                 Let X be "foo" with "bar", and "baz"
                 """;
         ctx = new ParseHelper().getAssignment(program);
         a = new Assignment(ctx);
-        //     @Disabled("type chaos")        assertEquals(String.class, a.getVariableClass());
+        assertEquals(String.class, a.getVariableClass());
     }
 
     @Test
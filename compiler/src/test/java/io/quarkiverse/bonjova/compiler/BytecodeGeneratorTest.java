@@ -16,6 +16,7 @@ import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -232,6 +233,24 @@ public class BytecodeGeneratorTest {
             assertEquals("mysterious\n", output);
         }
 
+        @Test
+        public void shouldOutputEachKindOfValueWhenTheTypeIsOnlyKnownAtRuntime() {
+            // The loop makes the type of my world unpredictable, so the output has to work it out as it goes
+            String program = """
+                    My world is mysterious
+                    My heart is 0
+                    While my heart is less than 4
+                    Say my world
+                    Build my heart up
+                    If my heart is 1
+                    My world is 1.5
+                    Else if my heart is 2
+                    My world is "hello"
+                    Else My world is right
+                    """;
+            assertEquals("mysterious\n1.5\nhello\ntrue\n", compileAndLaunch(program));
+        }
+
         @Test
         public void shouldKeepMysteriousAsFalseyThroughVariableAssignment() {
             String program = """
@@ -926,8 +945,22 @@ public class BytecodeGeneratorTest {
                 """;
         String output = compileAndLaunch(program);
 
-        var expected = BigDecimal.valueOf(2.0 / 3);
-        assertEquals("%.7f%n".formatted(expected), output);
+        assertEquals("0.666666667\n", output);
+    }
+
+    @Test
+    public void shouldDivideWhenTheTypesAreOnlyKnownAtRuntime() {
+
+        String program = """
+                Midnight takes your heart and your soul
+                Give back your heart over your soul
+
+                Say Midnight taking 7, 2
+                Say Midnight taking 1, 3
+                """;
+        String output = compileAndLaunch(program);
+
+        assertEquals("3.5\n0.333333333\n", output);
     }
 
     @Test
@@ -940,9 +973,72 @@ public class BytecodeGeneratorTest {
         assertEquals("false\n", output);
     }
 
+    // Whether or not the compiler can tell a variable only ever holds numbers, comparisons should give the same answer
+    @Test
+    public void shouldCompareNaNTheSameWayWhetherOrNotTheTypeIsKnown() {
+        String known = """
+                Let my heart be 0 over 0
+                Say my heart is my heart
+                Say my heart ain't my heart
+                Say my heart is greater than 1
+                Say my heart is less than 1
+                Say my heart is as high as my heart
+                Say my heart is as low as my heart
+                """;
+        String unknown = """
+                My soul is "hello"
+                Let my soul be 0 over 0
+                Say my soul is my soul
+                Say my soul ain't my soul
+                Say my soul is greater than 1
+                Say my soul is less than 1
+                Say my soul is as high as my soul
+                Say my soul is as low as my soul
+                """;
+        String expected = "false\ntrue\nfalse\nfalse\nfalse\nfalse\n";
+        assertEquals(expected, compileAndLaunch(known));
+        assertEquals(expected, compileAndLaunch(unknown));
+    }
+
+    @Test
+    public void shouldCompareNegativeZeroTheSameWayWhetherOrNotTheTypeIsKnown() {
+        String known = """
+                Let my heart be 0 times -1
+                Say my heart is 0
+                Say my heart is less than 0
+                Say my heart is as high as 0
+                """;
+        String unknown = """
+                My soul is "hello"
+                Let my soul be 0 times -1
+                Say my soul is 0
+                Say my soul is less than 0
+                Say my soul is as high as 0
+                """;
+        String expected = "true\nfalse\ntrue\n";
+        assertEquals(expected, compileAndLaunch(known));
+        assertEquals(expected, compileAndLaunch(unknown));
+    }
+
     @Nested
     @DisplayName("Type conversions")
     class TypeConversions {
+        @Test
+        public void shouldCopeWhenTheTypesAtAnOperatorChange() {
+            // The same 'plus' sees numbers, and then strings
+            String program = """
+                    My world is 1
+                    My heart is 0
+                    While my heart is less than 4
+                    Let my soul be my world plus 1
+                    Say my soul
+                    Build my heart up
+                    If my heart is 2
+                    My world is "hello"
+                    """;
+            assertEquals("2\n2\nhello1\nhello1\n", compileAndLaunch(program));
+        }
+
         @Test
         public void shouldConvertBooleansToNumbersOnAddition() {
             // Addition needs numbers, so convert to a number, even though the docs say ...
@@ -953,6 +1049,50 @@ public class BytecodeGeneratorTest {
 
             assertEquals("11\n", compileAndLaunch(program));
         }
+
+        @Test
+        public void shouldHandleVariablesKnownToBeNumbers() {
+            String program = """
+                    My heart is 0
+                    Your love is 2
+                    Say my heart is as high as 5
+                    Knock your love down
+                    If your love
+                    Say "still beating"
+                    While my heart is less than 5
+                    Build my heart up
+                    Let your love be your love times my heart
+                    Knock your love down
+                    Say your love
+                    """;
+            assertEquals("false\nstill beating\n0\n-1\n-4\n-17\n-86\n", compileAndLaunch(program));
+        }
+
+        @Test
+        public void shouldHandleVariablesKnownToBeBooleansAndStrings() {
+            String program = """
+                    My dream is right
+                    Your dream is wrong
+                    Tommy says hold on
+                    Say my dream and your dream
+                    Say not your dream
+                    Say Tommy with my dream
+                    """;
+            assertEquals("false\ntrue\nhold ontrue\n", compileAndLaunch(program));
+        }
+
+        @Test
+        public void shouldHandleVariablesWhichChangeType() {
+            String program = """
+                    My heart is 5
+                    Say my heart plus 1
+                    My heart is "broken"
+                    Say my heart plus 1
+                    Build my heart up
+                    Say my heart
+                    """;
+            assertEquals("6\nbroken1\nbroken1\n", compileAndLaunch(program));
+        }
     }
 
     @Nested
@@ -1401,6 +1541,24 @@ public class BytecodeGeneratorTest {
             assertEquals("3\nbefore the break\n", output);
         }
 
+        @Test
+        public void shouldBreakOutOfTheOuterLoopAfterAnInnerLoopHasFinished() {
+            String program = """
+                    Tommy was shy
+                    While Tommy ain't 0,
+                    Say Tommy
+                    Gina is 2
+                    While Gina ain't 0,
+                    Knock Gina down
+
+                    Knock Tommy down
+                    Break it down
+                    """;
+            String output = compileAndLaunch(program);
+
+            assertEquals("3\n", output);
+        }
+
         @Test
         public void shouldHandleContinueInWhileLoops() {
             String program = """
@@ -2003,6 +2161,57 @@ public class BytecodeGeneratorTest {
             assertEquals("false\n", compileAndLaunch(program));
         }
 
+        @Test
+        public void shouldNotLetRecursiveCallsTrampleEachOthersVariables() {
+            String program = """
+                    Midnight takes your heart
+                    Let my love be your heart
+                    If your heart is greater than 0
+                    Let my life be Midnight taking your heart without 1
+                    Let my love be my love with my life
+
+                    Give back my love
+
+                    Say Midnight taking 4
+                    """;
+            // 4 + 3 + 2 + 1
+            assertEquals("10\n", compileAndLaunch(program));
+        }
+
+        @Test
+        public void shouldTreatVariablesOnlyWrittenInBranchesWhichNeverRunAsMysterious() {
+            String program = """
+                    Midnight takes your heart
+                    If 1 is greater than 2
+                    Let my love be your heart
+
+                    Give back my love
+
+                    Say Midnight taking 4
+                    """;
+            assertEquals("mysterious\n", compileAndLaunch(program));
+        }
+
+        @Test
+        public void shouldAddToGlobalArraysFromInsideFunctions() {
+            String program = """
+                    Rock the names
+                    Remember takes the name
+                    Rock the name into the names
+                    Let the names at the name be "seen"
+                    Give back the name
+
+                    Let the first be remember taking "Tommy"
+                    Let the second be remember taking "Gina"
+                    Say the names
+                    Let the last be the names at 1
+                    Say the last
+                    Let the flag be the names at "Tommy"
+                    Say the flag
+                    """;
+            assertEquals("2\nGina\nseen\n", compileAndLaunch(program));
+        }
+
         public void shouldHandleFunctionInvocationsIfTheFunctionReturnsNothing() {
             // Another hard version, with null coming back from the function
             String program = """
@@ -2352,6 +2561,33 @@ public class BytecodeGeneratorTest {
             assertEquals("1\n1\n", output);
         }
 
+        @Test
+        public void shouldDoSumsWithArrayElements() {
+            String program = """
+                    rock 6, 3 into arr
+                    rock nothing into arr
+                    rock true into arr
+                    say 10 minus arr at 0
+                    say 2 times arr at 1
+                    say 12 over arr at 0
+                    say 10 minus arr at 2
+                    say 10 minus arr at 3
+                                        """;
+
+            assertEquals("4\n6\n2\n10\n9\n", compileAndLaunch(program));
+        }
+
+        @Test
+        public void shouldRefuseToDoSumsWithStringArrayElements() {
+            String program = """
+                    rock "six" into arr
+                    say 7 minus arr at 0
+                                        """;
+
+            RuntimeException e = assertThrows(RuntimeException.class, () -> compileAndLaunch(program));
+            assertInstanceOf(UnsupportedOperationException.class, e.getCause().getCause());
+        }
+
         @Test
         public void shouldAccessFirstElementOfTheArrayUsingPop() {
             String program = """
@@ -2622,14 +2858,13 @@ public class BytecodeGeneratorTest {
             assertEquals(".\n", compileAndLaunch(program));
         }
 
-        @Disabled("A problem with assigning a double to an object")
         @Test
         public void shouldCastLiteralsIntoStringsAsUnicode() {
             String program = """
                     Cast 65 into result
                     Say result
                     """;
-            assertEquals("A\nA2\nЖ\n", compileAndLaunch(program));
+            assertEquals("A\n", compileAndLaunch(program));
         }
 
         @Test
@@ -0,0 +1,101 @@
+package io.quarkiverse.bonjova.compiler;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CompilationCacheTest {
+
+    @TempDir
+    Path dir;
+
+    private CompilationCache cache;
+    private File source;
+    private File outFile;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        cache = CompilationCache.forOutputDirectory(dir.resolve("classes").toFile());
+        source = dir.resolve("hello.rock").toFile();
+        Files.writeString(source.toPath(), "Say \"hello\"\n");
+        outFile = dir.resolve("classes/hello.class").toFile();
+    }
+
+    @Test
+    public void shouldLiveNextToTheOutputDirectory() {
+        assertEquals(dir.resolve(CompilationCache.DEFAULT_DIRECTORY), cache.getDirectory());
+    }
+
+    @Test
+    public void shouldCopyUnchangedProgramsOutOfTheCache() throws IOException {
+        compile();
+        String key = cache.key(Files.readAllBytes(source.toPath()), "hello");
+        // Plant something in the cache that the compiler would never make, to see where the class comes from
+        Files.write(cache.getDirectory().resolve(key + ".class"), new byte[] { 1, 9, 8, 4 });
+        Files.delete(outFile.toPath());
+
+        compile();
+
+        assertArrayEquals(new byte[] { 1, 9, 8, 4 }, Files.readAllBytes(outFile.toPath()));
+    }
+
+    @Test
+    public void shouldLeaveClassesWhichAreAlreadyRightAlone() throws IOException {
+        compile();
+        FileTime longAgo = FileTime.fromMillis(0);
+        Files.setLastModifiedTime(outFile.toPath(), longAgo);
+
+        compile();
+
+        assertEquals(longAgo, Files.getLastModifiedTime(outFile.toPath()));
+    }
+
+    @Test
+    public void shouldRecompileEditedPrograms() throws IOException {
+        compile();
+        byte[] before = Files.readAllBytes(outFile.toPath());
+        // Same size, same timestamp, different song
+        Files.writeString(source.toPath(), "Say \"hullo\"\n");
+        Files.setLastModifiedTime(source.toPath(), FileTime.fromMillis(0));
+
+        compile();
+
+        assertNotEquals(-1, Arrays.mismatch(before, Files.readAllBytes(outFile.toPath())));
+        try (var entries = Files.list(cache.getDirectory())) {
+            assertEquals(2, entries.count());
+        }
+    }
+
+    @Test
+    public void shouldKeyOnTheClassNameAsWellAsTheSource() {
+        byte[] source = "Say \"hello\"\n".getBytes();
+        assertEquals(cache.key(source, "hello"), cache.key(source, "hello"));
+        assertNotEquals(cache.key(source, "hello"), cache.key(source, "goodbye"));
+    }
+
+    @Test
+    public void shouldMissWhenThereIsNothingCached() throws IOException {
+        assertFalse(cache.restore(cache.key(new byte[0], "nothing"), outFile));
+        assertFalse(outFile.exists());
+        compile();
+        assertTrue(outFile.exists());
+    }
+
+    private void compile() throws IOException {
+        new RockFileCompiler(cache).compileAll(Map.of(source, outFile));
+    }
+}
@@ -0,0 +1,149 @@
+package io.quarkiverse.bonjova.compiler;
+
+import io.quarkiverse.bonjova.compiler.util.ParseHelper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConstantFoldingTest {
+
+    @Test
+    public void shouldFoldArithmetic() {
+        assertEquals(14d, foldOutput("Say 2 plus 3 times 4"));
+        assertEquals(0.5d, foldOutput("Say 1 over 2"));
+        assertEquals(3d, foldOutput("Say 6 minus 2, 1"));
+        assertEquals(0d, foldOutput("Say 1 without 1"));
+    }
+
+    @Test
+    public void shouldFoldStringConcatenation() {
+        assertEquals("hello5", foldOutput("Say \"hello\" with 5"));
+        assertEquals("sunrise", foldOutput("Say \"sun\" plus \"rise\""));
+        assertEquals("1.5true", foldOutput("Say 1.5 with \"\" with true"));
+    }
+
+    @Test
+    public void shouldFoldComparisons() {
+        assertEquals(true, foldOutput("Say 5 is greater than 3"));
+        assertEquals(false, foldOutput("Say 5 is less than 3"));
+        assertEquals(true, foldOutput("Say \"a\" is \"a\""));
+        assertEquals(false, foldOutput("Say 2 is \"2\""));
+        assertEquals(true, foldOutput("Say 2 ain't 3"));
+    }
+
+    @Test
+    public void shouldFoldLogic() {
+        assertEquals(false, foldOutput("Say true and false"));
+        assertEquals(true, foldOutput("Say true or false"));
+        assertEquals(true, foldOutput("Say false nor false"));
+        assertEquals(false, foldOutput("Say not true"));
+        assertEquals(true, foldOutput("Say not 0"));
+    }
+
+    @Test
+    public void shouldLeaveAnythingWhichDependsOnVariablesAlone() {
+        Expression expression = output(fold("Say my heart with 5"));
+        assertEquals(Expression.Operation.ADD, expression.getOperation());
+    }
+
+    @Test
+    public void shouldLeaveAnythingWhichWouldFailForTheRuntimeToReport() {
+        Expression expression = output(fold("Say \"hello\" minus 3"));
+        assertEquals(Expression.Operation.SUBTRACT, expression.getOperation());
+    }
+
+    @Test
+    public void shouldLeaveNothingAndMysteriousAlone() {
+        Expression expression = output(fold("Say nothing with 3"));
+        assertEquals(Expression.Operation.ADD, expression.getOperation());
+    }
+
+    @Test
+    public void shouldKeepOnlyTheBranchWhichRuns() {
+        List<Statement> statements = statements(fold("""
+                If 5 is greater than 3
+                Say "yes"
+                Else
+                Say "no"
+                """));
+        StatementList branch = assertInstanceOf(StatementList.class, statements.get(0));
+        assertEquals("yes", ((Output) branch.statements().get(0)).getExpression().getValue());
+
+        statements = statements(fold("""
+                If 5 is less than 3
+                Say "yes"
+                """));
+        assertTrue(statements.isEmpty());
+    }
+
+    @Test
+    public void shouldDropLoopsWhichNeverRun() {
+        Program program = fold("""
+                While false
+                Let my heart be 5
+                """);
+        assertTrue(statements(program).isEmpty());
+        assertEquals(Set.of("my__heart"), program.getRemovedVariables());
+
+        program = fold("""
+                Until 1
+                Let my heart be 5
+                """);
+        assertTrue(statements(program).isEmpty());
+    }
+
+    @Test
+    public void shouldDropStatementsAfterABreak() {
+        List<Statement> statements = statements(fold("""
+                While my heart is 0
+                Say "hello"
+                Break it down
+                Say "goodbye"
+                """));
+        Loop loop = assertInstanceOf(Loop.class, statements.get(0));
+        assertEquals(2, loop.getBody().size());
+        assertInstanceOf(Break.class, loop.getBody().get(1));
+    }
+
+    @Test
+    public void shouldKeepFunctionsDeclaredAfterAReturn() {
+        Program program = fold("""
+                Say "first"
+                Give back 1
+                Say "never"
+                Midnight takes your love
+                Give back your love
+                """);
+        List<Statement> statements = program.getStatements();
+        assertEquals(3, statements.size());
+        assertInstanceOf(StatementList.class, statements.get(0));
+        assertInstanceOf(Return.class, statements.get(1));
+        assertInstanceOf(Function.class, statements.get(2));
+    }
+
+    private Object foldOutput(String program) {
+        Expression expression = output(fold(program));
+        assertNull(expression.getOperation());
+        return assertInstanceOf(Literal.class, expression.getValueHolder()).getValue();
+    }
+
+    private static Expression output(Program program) {
+        return assertInstanceOf(Output.class, statements(program).get(0)).getExpression();
+    }
+
+    private static List<Statement> statements(Program program) {
+        return assertInstanceOf(StatementList.class, program.getStatements().get(0)).statements();
+    }
+
+    private static Program fold(String program) {
+        Program folded = new Program(new ParseHelper().getProgram(program));
+        ConstantFolding.fold(folded);
+        return folded;
+    }
+}
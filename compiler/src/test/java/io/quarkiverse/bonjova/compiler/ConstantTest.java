@@ -39,7 +39,6 @@ public class ConstantTest {
         assertEquals("", a.getValue());
     }
 
-    @Disabled("type chaos")
     @Test
     public void shouldParseBooleanConstantsForTrueCase() {
         Rockstar.ConstantContext ctx = new ParseHelper().getConstant("life is true");
@@ -60,7 +59,6 @@ public class ConstantTest {
         assertEquals(true, a.getValue());
     }
 
-    @Disabled("type chaos")
     @Test
     public void shouldParseBooleanConstantsForFalseCase() {
         Rockstar.ConstantContext ctx = new ParseHelper().getConstant("life is false");
@@ -1,6 +1,7 @@
 package io.quarkiverse.bonjova.compiler;
 
 import io.quarkiverse.bonjova.compiler.util.ParseHelper;
+import io.quarkiverse.bonjova.support.RockstarInput;
 import io.quarkus.gizmo.ClassCreator;
 import io.quarkus.gizmo.MethodCreator;
 import io.quarkus.gizmo.ResultHandle;
@@ -19,7 +20,6 @@ public class InputTest {
 
     @BeforeEach
     public void clearState() throws InterruptedException {
-        Input.clearState();
         Variable.clearState();
     }
 
@@ -61,7 +61,7 @@ public class InputTest {
     }
 
     private Object execute(Input a, String[] args) {
-        TestClassLoader cl = new TestClassLoader(this.getClass().getClassLoader().getParent());
+        TestClassLoader cl = new TestClassLoader(this.getClass().getClassLoader());
 
         // The auto-close on this triggers the write
         String className = "com.InputRock";
@@ -76,7 +76,7 @@ public class InputTest {
             // Cheat and pass null for the context and hope it doesn't blow up
             Block block = new Block(null, method, creator, new VariableScope(), null);
 
-            Variable v = a.toCode(block, method);
+            Variable v = a.toCode(block);
             ResultHandle rh = v.getResultHandle(block);
             method.returnValue(rh);
         }
@@ -84,10 +84,14 @@ public class InputTest {
         Class<?> clazz = null;
         try {
             clazz = cl.loadClass(className);
+            // There's no generated main here to hook up the input, so do it by hand
+            RockstarInput.start(args);
             return clazz.getMethod(methodName, String[].class)
                     .invoke(null, new Object[] { args });
         } catch (ClassNotFoundException | NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
             throw new RuntimeException(e);
+        } finally {
+            RockstarInput.finish();
         }
     }
 
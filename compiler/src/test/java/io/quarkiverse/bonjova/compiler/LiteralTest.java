@@ -6,7 +6,6 @@ import io.quarkus.gizmo.MethodCreator;
 import io.quarkus.gizmo.ResultHandle;
 import io.quarkus.gizmo.TestClassLoader;
 import org.antlr.v4.runtime.ParserRuleContext;
-import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.objectweb.asm.Opcodes;
 import rock.Rockstar;
@@ -21,7 +20,6 @@ grammar.
  Note also that poetic string and poetic literals are not handled by the literal class. */
 public class LiteralTest {
 
-    @Disabled("type chaos")
     @Test
     public void shouldParseIntegerLiterals() {
         Rockstar.LiteralContext ctx = new ParseHelper().getLiteral("thing is 5");
@@ -32,7 +30,6 @@ public class LiteralTest {
     }
 
     /* Numbers in Rockstar are double-precision floating point numbers, stored according to the IEEE 754 standard. */
-    @Disabled("type chaos")
     @Test
     public void shouldParseFloatingPointLiterals() {
         Rockstar.LiteralContext ctx = new ParseHelper().getLiteral("thing is 3.141");
@@ -41,7 +38,6 @@ public class LiteralTest {
         assertEquals(double.class, a.getValueClass());
     }
 
-    @Disabled("type chaos")
     @Test
     public void shouldParseNegativeLiterals() {
         Rockstar.LiteralContext ctx = new ParseHelper().getLiteral("thing is -5");
@@ -51,7 +47,6 @@ public class LiteralTest {
         assertEquals(double.class, a.getValueClass());
     }
 
-    @Disabled("type chaos")
     @Test
     public void shouldIdentifyTypeOfStringLiterals() {
         Rockstar.LiteralContext ctx = new ParseHelper().getLiteral("thing is \"Yes hello\"");
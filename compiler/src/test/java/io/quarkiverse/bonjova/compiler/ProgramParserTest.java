@@ -0,0 +1,83 @@
+package io.quarkiverse.bonjova.compiler;
+
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+import org.junit.jupiter.api.Test;
+import rock.Rockstar;
+import rock.RockstarLexer;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+public class ProgramParserTest {
+
+    @Test
+    public void shouldWarmUpOnAProgramWithoutMistakes() throws IOException {
+        // A warm-up program with syntax errors would send the parser down paths real programs never take
+        Rockstar parser = new Rockstar(
+                new CommonTokenStream(new RockstarLexer(CharStreams.fromString(ProgramParser.WARM_UP_PROGRAM))));
+        parser.addErrorListener(new BaseErrorListener() {
+            @Override
+            public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line, int charPositionInLine,
+                    String msg, RecognitionException e) {
+                fail("Line " + line + ": " + msg);
+            }
+        });
+        parser.program();
+
+        int[] classes = new int[1];
+        new BytecodeGenerator().generateBytecode(
+                new ByteArrayInputStream(ProgramParser.WARM_UP_PROGRAM.getBytes(StandardCharsets.UTF_8)), "WarmUp",
+                (name, bytes) -> classes[0]++);
+        assertEquals(1, classes[0]);
+    }
+
+    @Test
+    public void shouldParseTheSameAfterWarmingUp() {
+        String program = """
+                My heart is 5
+                If my heart is greater than 0
+                Knock my heart down
+
+                Else
+                Say my heart
+                """;
+        String before = ProgramParser.parse(CharStreams.fromString(program)).toStringTree();
+        ProgramParser.warmUp();
+        ProgramParser.warmUp();
+        String after = ProgramParser.parse(CharStreams.fromString(program)).toStringTree();
+        assertEquals(before, after);
+        assertTrue(after.contains("Say"));
+    }
+
+    @Test
+    public void shouldFallBackToAntlrWhenThePrattParserGivesUp() {
+        String program = """
+                My heart is 5
+                If my heart is greater than 0
+                Knock my heart down
+
+                Else
+                Say my heart
+                """;
+        String antlr = ProgramParser.parse(CharStreams.fromString(program)).toStringTree();
+        System.setProperty(ProgramParser.PARSER_PROPERTY, ProgramParser.PRATT);
+        try {
+            assertEquals(antlr, ProgramParser.parse(CharStreams.fromString(program)).toStringTree());
+            String poetic = "Tommy was nothin' but trouble\n";
+            assertEquals(ProgramParser.parse(CharStreams.fromString(poetic)).toStringTree(),
+                    ProgramParser.parse(new CommonTokenStream(new RockstarLexer(CharStreams.fromString(poetic))))
+                            .toStringTree());
+        } finally {
+            System.clearProperty(ProgramParser.PARSER_PROPERTY);
+        }
+    }
+}
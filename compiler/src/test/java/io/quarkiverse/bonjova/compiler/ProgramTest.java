@@ -0,0 +1,116 @@
+package io.quarkiverse.bonjova.compiler;
+
+import io.quarkiverse.bonjova.compiler.util.ParseHelper;
+import org.junit.jupiter.api.Test;
+import rock.Rockstar;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ProgramTest {
+
+    @Test
+    public void shouldBuildStatementsInOrder() {
+        Program program = program("""
+                My heart is 5
+                Say my heart
+                """);
+
+        List<Statement> statements = program.getStatements();
+        assertEquals(1, statements.size());
+        List<Statement> list = assertInstanceOf(StatementList.class, statements.get(0)).statements();
+        assertInstanceOf(Assignment.class, list.get(0));
+        assertInstanceOf(Output.class, list.get(1));
+    }
+
+    @Test
+    public void shouldPutConditionalBodiesInsideTheCondition() {
+        Program program = program("""
+                If my heart is 5
+                Say "yes"
+                Else
+                Say "no"
+                Say "really no"
+                """);
+
+        Statement first = ((StatementList) program.getStatements().get(0)).statements().get(0);
+        Condition condition = assertInstanceOf(Condition.class, first);
+        assertEquals(1, condition.getBody().size());
+        assertEquals(2, condition.getElseBody().size());
+    }
+
+    @Test
+    public void shouldKeepFunctionsOpenUntilTheReturn() {
+        Program program = program("""
+                Midnight takes your love
+                Say your love
+                Let my heart be your love
+                Give back my heart
+
+                Say Midnight taking 3
+                """);
+
+        List<Statement> statements = program.getStatements();
+        assertEquals(2, statements.size());
+        Function function = assertInstanceOf(Function.class, statements.get(0));
+        assertEquals("midnight", function.getName());
+        assertEquals(1, function.getParameters().size());
+
+        // The return is not part of the declaration, but it does belong to the function
+        List<Statement> body = function.getBody();
+        assertEquals(2, body.size());
+        assertEquals(2, assertInstanceOf(StatementList.class, body.get(0)).statements().size());
+        assertInstanceOf(Return.class, body.get(1));
+
+        assertInstanceOf(StatementList.class, statements.get(1));
+    }
+
+    @Test
+    public void shouldResolvePronounsWhileBuilding() {
+        Program program = program("""
+                My heart is 5
+                Say it
+                Your love is 6
+                Say it
+                """);
+
+        List<Statement> list = ((StatementList) program.getStatements().get(0)).statements();
+        assertEquals("my__heart", ((Output) list.get(1)).getExpression().getVariable().getVariableName());
+        assertEquals("your__love", ((Output) list.get(3)).getExpression().getVariable().getVariableName());
+    }
+
+    @Test
+    public void shouldComplainAboutPronounsWithNothingToReferTo() {
+        assertThrows(RuntimeException.class, () -> program("""
+                Say it
+                """));
+    }
+
+    @Test
+    public void shouldNotSeePronounsFromProgramsOnOtherThreads() throws InterruptedException {
+        Variable.clearState();
+        Variable.named("my heart").track();
+
+        AtomicReference<Program> other = new AtomicReference<>();
+        Thread thread = new Thread(() -> other.set(program("""
+                Your love is 6
+                Say it
+                """)));
+        thread.start();
+        thread.join();
+
+        List<Statement> list = ((StatementList) other.get().getStatements().get(0)).statements();
+        assertEquals("your__love", ((Output) list.get(1)).getExpression().getVariable().getVariableName());
+        Rockstar.VariableContext pronoun = new ParseHelper().getVariable("Say it\n");
+        assertEquals("my__heart", new Variable(pronoun).getVariableName());
+        Variable.clearState();
+    }
+
+    private Program program(String program) {
+        return new Program(new ParseHelper().getProgram(program));
+    }
+}
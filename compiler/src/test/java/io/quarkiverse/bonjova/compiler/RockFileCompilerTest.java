@@ -2,16 +2,28 @@ package io.quarkiverse.bonjova.compiler;
 
 import io.quarkiverse.bonjova.compiler.util.FileLauncher;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -61,4 +73,81 @@ public class RockFileCompilerTest {
         String output = FileLauncher.compileAndLaunch("/hello-world.rock");
         assertEquals("Hello World\n", output);
     }
+
+    @Test
+    public void shouldCompileProgramsConcurrently() throws Exception {
+        List<String> programs = List.of("/99-bottles.rock", "/fizzbuzz.rock", "/mandelbrot.rock",
+                "/concept-demo-2-the-tide-is-low.rock", "/concept-demo-6-mama-taking-charge.rock");
+        Map<String, byte[]> expected = new HashMap<>();
+        for (String program : programs) {
+            expected.put(program, compile(program));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<byte[]>> results = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                String program = programs.get(i % programs.size());
+                results.add(executor.submit(() -> compile(program)));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                assertArrayEquals(expected.get(programs.get(i % programs.size())), results.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldCompileAWholeDirectoryInParallel(@TempDir Path dir) throws Exception {
+        List<String> programs = List.of("99-bottles", "fizzbuzz", "hello-world", "leet-tommy", "mandelbrot");
+        Map<File, File> outFiles = new LinkedHashMap<>();
+        for (String program : programs) {
+            File source = dir.resolve(program + ".rock").toFile();
+            try (InputStream stream = this.getClass().getResourceAsStream("/" + program + ".rock")) {
+                Files.copy(stream, source.toPath());
+            }
+            outFiles.put(source, dir.resolve(program + ".class").toFile());
+        }
+
+        new RockFileCompiler().compileAll(outFiles);
+
+        Path sequential = Files.createDirectory(dir.resolve("sequential"));
+        for (String program : programs) {
+            File outFile = sequential.resolve(program + ".class").toFile();
+            try (InputStream stream = new FileInputStream(dir.resolve(program + ".rock").toFile())) {
+                new RockFileCompiler().compile(stream, outFile);
+            }
+            assertArrayEquals(Files.readAllBytes(outFile.toPath()), Files.readAllBytes(dir.resolve(program + ".class")),
+                    program);
+        }
+        assertTrue(Files.exists(dir.resolve("io/quarkiverse/bonjova/support/RockstarArray.class")));
+        assertEquals("Hello World\n", FileLauncher.launch(dir.resolve("hello-world.class").toFile()));
+    }
+
+    @Test
+    public void shouldReportEveryBrokenProgramInOrder(@TempDir Path dir) throws IOException {
+        Map<File, File> outFiles = new LinkedHashMap<>();
+        for (String program : List.of("zebra", "fine", "aardvark")) {
+            Path source = dir.resolve(program + ".rock");
+            Files.writeString(source, program.equals("fine") ? "Say \"fine\"\n" : "Say it\n");
+            outFiles.put(source.toFile(), dir.resolve(program + ".class").toFile());
+        }
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> new RockFileCompiler().compileAll(outFiles));
+
+        String message = e.getMessage();
+        assertTrue(message.startsWith("2 of 3 programs"), message);
+        assertTrue(message.indexOf("aardvark.rock") < message.indexOf("zebra.rock"), message);
+        assertEquals(1, e.getCause().getSuppressed().length);
+        assertTrue(Files.exists(dir.resolve("fine.class")));
+    }
+
+    private byte[] compile(String program) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (InputStream stream = this.getClass().getResourceAsStream(program)) {
+            new BytecodeGenerator().generateBytecode(stream, "Concurrent", (name, data) -> bytes.writeBytes(data));
+        }
+        return bytes.toByteArray();
+    }
 }
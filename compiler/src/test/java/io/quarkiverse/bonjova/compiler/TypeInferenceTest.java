@@ -0,0 +1,200 @@
+package io.quarkiverse.bonjova.compiler;
+
+import io.quarkiverse.bonjova.compiler.util.ParseHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TypeInferenceTest {
+
+    @BeforeEach
+    public void clearState() {
+        Variable.clearState();
+    }
+
+    @Test
+    public void shouldDefaultToObjectForUnknownVariables() {
+        SymbolTable types = new SymbolTable();
+        assertEquals(Object.class, types.getVariableClass("anything"));
+
+        types = infer("say 5");
+        assertEquals(Object.class, types.getVariableClass("anything"));
+    }
+
+    @Test
+    public void shouldInferNumbers() {
+        SymbolTable types = infer("""
+                My heart is 5
+                Your love is a lovestruck ladykiller
+                Let the night be my heart times your love
+                Build my heart up
+                """);
+        assertEquals(double.class, types.getVariableClass("my__heart"));
+        assertEquals(double.class, types.getVariableClass("your__love"));
+        assertEquals(double.class, types.getVariableClass("the__night"));
+    }
+
+    @Test
+    public void shouldInferBooleans() {
+        SymbolTable types = infer("""
+                Tommy is right
+                Let Gina be Tommy and wrong
+                Let the bet be 3 is greater than 2
+                """);
+        assertEquals(boolean.class, types.getVariableClass("tommy"));
+        assertEquals(boolean.class, types.getVariableClass("gina"));
+        assertEquals(boolean.class, types.getVariableClass("the__bet"));
+    }
+
+    @Test
+    public void shouldInferStrings() {
+        SymbolTable types = infer("""
+                Tommy says hold on
+                Let Gina be Tommy with 5
+                """);
+        assertEquals(String.class, types.getVariableClass("tommy"));
+        assertEquals(String.class, types.getVariableClass("gina"));
+    }
+
+    @Test
+    public void shouldFollowVariablesThroughOtherVariables() {
+        // The first pass can't know the type of the thing being copied until it has seen the loop body
+        SymbolTable types = infer("""
+                My heart is 5
+                Your heart is 6
+                While my heart is less than 10
+                Let your heart be my heart
+                Build my heart up
+
+                """);
+        assertEquals(double.class, types.getVariableClass("my__heart"));
+        assertEquals(double.class, types.getVariableClass("your__heart"));
+    }
+
+    @Test
+    public void shouldFollowPronouns() {
+        SymbolTable types = infer("""
+                My heart is 5
+                Build it up
+                Tommy says hello
+                Let Gina be it
+                """);
+        assertEquals(double.class, types.getVariableClass("my__heart"));
+        assertEquals(String.class, types.getVariableClass("gina"));
+    }
+
+    @Test
+    public void shouldUseObjectForVariablesWhichChangeType() {
+        SymbolTable types = infer("""
+                My heart is 5
+                My heart is "broken"
+                """);
+        assertEquals(Object.class, types.getVariableClass("my__heart"));
+    }
+
+    @Test
+    public void shouldUseObjectForVariablesWhichMightBeMysterious() {
+        // Read on a branch which did not assign it
+        SymbolTable types = infer("""
+                If true
+                My heart is 5
+                Else say my heart
+                """);
+        assertEquals(Object.class, types.getVariableClass("my__heart"));
+
+        // Assigned before the branch
+        types = infer("""
+                My heart is 4
+                If true
+                My heart is 5
+                Else say my heart
+                """);
+        assertEquals(double.class, types.getVariableClass("my__heart"));
+
+        // Assigned on both branches
+        types = infer("""
+                If true
+                My heart is 5
+                Else my heart is 6
+                """);
+        assertEquals(double.class, types.getVariableClass("my__heart"));
+
+        // Read by a loop before the body gets a chance to write it
+        types = infer("""
+                While my heart is less than 5
+                My heart is 5
+                """);
+        assertEquals(Object.class, types.getVariableClass("my__heart"));
+    }
+
+    @Test
+    public void shouldUseObjectForThingsWeCannotPredict() {
+        SymbolTable types = infer("""
+                Listen to your heart
+                Rock the night
+                My love is nothing
+                My hope is mysterious
+                Midnight takes your heart
+                Give back your heart
+
+                Let my life be Midnight taking 5
+                """);
+        assertEquals(Object.class, types.getVariableClass("your__heart"));
+        assertEquals(Object.class, types.getVariableClass("the__night"));
+        assertEquals(Object.class, types.getVariableClass("my__love"));
+        assertEquals(Object.class, types.getVariableClass("my__hope"));
+        assertEquals(Object.class, types.getVariableClass("my__life"));
+    }
+
+    @Test
+    public void shouldUseObjectForVariablesUsedAsArrays() {
+        SymbolTable types = infer("""
+                My heart is 5
+                Let my love be my heart at 0
+                """);
+        assertEquals(Object.class, types.getVariableClass("my__heart"));
+        assertEquals(Object.class, types.getVariableClass("my__love"));
+    }
+
+    @Test
+    public void shouldUseObjectForGlobalsReadInFunctions() {
+        SymbolTable types = infer("""
+                My heart is 5
+                Midnight takes your love
+                Give back my heart
+
+                Say Midnight taking 3
+                """);
+        assertEquals(Object.class, types.getVariableClass("my__heart"));
+    }
+
+    @Test
+    public void shouldKnowWhichVariablesBelongOnlyToAFunction() {
+        Program program = new Program(new ParseHelper().getProgram("""
+                My heart is 5
+                Midnight takes your love
+                Let my heart be your love
+                Let my soul be your love with 2
+                Give back my soul
+
+                Say Midnight taking 3
+                """));
+        SymbolTable types = TypeInference.infer(program);
+        Function function = program.getStatements()
+                .stream()
+                .filter(Function.class::isInstance)
+                .map(Function.class::cast)
+                .findFirst()
+                .orElseThrow();
+
+        // The parameter counts, but the global does not
+        assertEquals(Set.of("your__love", "my__soul"), types.getLocalVariables(function));
+    }
+
+    private SymbolTable infer(String program) {
+        return TypeInference.infer(new Program(new ParseHelper().getProgram(program)));
+    }
+}
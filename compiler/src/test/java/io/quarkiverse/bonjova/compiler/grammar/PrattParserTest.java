@@ -0,0 +1,210 @@
+package io.quarkiverse.bonjova.compiler.grammar;
+
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import rock.Rockstar;
+import rock.RockstarLexer;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PrattParserTest {
+
+    // ANTLR can't parse the first two either, and the others have poetic numbers with punctuation in the middle
+    private static final Set<String> LEFT_TO_ANTLR = Set.of("/complex-hello-world.rock", "/factorization.rock",
+            "/concept-demo-2-the-tide-is-low.rock", "/mandelbrot.rock");
+
+    // Enough to get into most corners without slowing the build down; turn it up when changing the parser
+    private static final int RANDOM_PROGRAMS = 100;
+
+    @ParameterizedTest
+    @MethodSource("io.quarkiverse.bonjova.compiler.grammar.RockstarScannerTest#programs")
+    public void shouldParseProgramsTheSameAsAntlrOrLeaveThemToIt(String name) throws IOException, URISyntaxException {
+        String program = Files.readString(Path.of(getClass().getResource(name).toURI()));
+        if (LEFT_TO_ANTLR.contains(name)) {
+            assertThrows(UnsupportedSyntaxException.class, () -> PrattParser.parse(CharStreams.fromString(program)));
+        } else {
+            assertEquals(describe(antlr(program)), describe(PrattParser.parse(CharStreams.fromString(program))));
+        }
+    }
+
+    @Test
+    public void shouldParseRandomProgramsTheSameAsAntlrOrNotAtAll() {
+        RandomPrograms programs = new RandomPrograms(1);
+        int parsed = 0;
+        for (int i = 0; i < RANDOM_PROGRAMS; i++) {
+            String program = programs.program();
+            List<String> errors = new ArrayList<>();
+            Rockstar.ProgramContext expected = antlr(program, errors);
+            Rockstar.ProgramContext tree;
+            try {
+                tree = PrattParser.parse(CharStreams.fromString(program));
+            } catch (UnsupportedSyntaxException e) {
+                continue;
+            }
+            assertEquals(List.of(), errors, program);
+            assertEquals(describe(expected), describe(tree), program);
+            parsed++;
+        }
+        // Most of the others aren't valid Rockstar, but if hardly anything gets through, this isn't testing much
+        assertTrue(parsed > RANDOM_PROGRAMS / 4, parsed + " parsed");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "/hello-world.rock", "/leet-tommy.rock", "/99-bottles.rock", "/1brc-streaming.rock",
+            "/concept-demo-1-sing-it.rock", "/concept-demo-3-open.rock", "/concept-demo-5-trustworthy-friend.rock",
+            "/concept-demo-6-mama-taking-charge.rock" })
+    public void shouldParseTheDemoPrograms(String name) throws IOException, URISyntaxException {
+        String program = Files.readString(Path.of(getClass().getResource(name).toURI()));
+        assertEquals(describe(antlr(program)), describe(PrattParser.parse(CharStreams.fromString(program))));
+    }
+
+    @Test
+    public void shouldParseGeneratedProgramsTheSameAsAntlr() {
+        StringBuilder program = new StringBuilder("Rock the crowd\n");
+        for (int i = 0; i < 20; i++) {
+            program.append("Song ").append("ABCDEFGHIJKLMNOPQRST".charAt(i)).append("ville takes the input and the chorus\n")
+                    .append("let the verse be the input times ").append(i % 7 + 1).append('\n')
+                    .append("put the verse plus the chorus into the bridge\n")
+                    .append("build the bridge up\n")
+                    .append("rock \"a\" with the bridge into the crowd\n")
+                    .append("let the crowd at \"a\" be the bridge\n")
+                    .append("if the bridge is greater than ").append(i).append('\n')
+                    .append("    let the bridge be the bridge over 2, 3\n")
+                    .append("    turn the bridge round\n")
+                    .append("give back the bridge\n")
+                    .append('\n')
+                    .append("Tour was a lovestruck ladykiller\n")
+                    .append("let Tour be Song Aville taking Tour, ").append(i).append('\n')
+                    .append("while Tour ain't nothing and not Tour is as high as 3\n")
+                    .append("    knock Tour down, down\n")
+                    .append("\n");
+        }
+        assertEquals(describe(antlr(program.toString())),
+                describe(PrattParser.parse(CharStreams.fromString(program.toString()))));
+    }
+
+    @Test
+    public void shouldFollowAntlrOnTheAwkwardBits() {
+        String program = """
+                Midnight takes your heart and your soul
+                If your heart is nothing
+                Say your heart plus your soul, 3
+                Else Say Midnight taking 1, your heart plus 2, 3
+                Give back your heart with your soul
+
+                Cast 5 with 16
+                Split "a,b" into the parts with ","
+                Cast the night with the day into the morning
+                The beers were numbering fa'too'many
+                My love is all-consuming. power-hungry
+                """;
+        assertEquals(describe(antlr(program)), describe(PrattParser.parse(CharStreams.fromString(program))));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "While my heart\nKnock my heart down\n\nSay my heart\n",
+            "While my heart\nKnock my heart down\n\nSay my heart",
+            "While my heart\nKnock my heart down\n\nSay my heart\n ",
+            "While my heart\nWhile my soul\nSay my soul\n\n\nSay my heart\n",
+            "While my heart\nSay my heart\n\nSay it\nWhile my soul\nSay my soul\n",
+            "While my heart\nSay my heart\n\nSay it\nMidnight takes your love\nSay your love\n",
+            "If my heart\nSay my heart\n\nSay it\nElse\nSay my soul\n",
+            "If my heart\nWhile my soul\nSay my soul\n\nSay it\nElse\nSay my heart\n",
+    })
+    public void shouldShareOutBlankLinesLikeAntlr(String program) {
+        assertEquals(describe(antlr(program)), describe(PrattParser.parse(CharStreams.fromString(program))));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "If my heart\nKnock my heart down\n\nElse\nSay my heart\n",
+            "Say it Say it again\n",
+            "Split Johnny B Goode is 5\n",
+            "Split it with Johnny B Goode is 5 into my heart\n",
+            "Tommy was nothin' but trouble\n",
+    })
+    public void shouldLeaveAnythingAmbiguousToAntlr(String program) {
+        assertThrows(UnsupportedSyntaxException.class, () -> PrattParser.parse(CharStreams.fromString(program)));
+    }
+
+    @Test
+    public void shouldLinkTheTreeUpLikeAntlr() {
+        Rockstar.ProgramContext tree = PrattParser.parse(CharStreams.fromString("If 1 is 2 plus 3\nSay it\n"));
+        Rockstar.IfStmtContext ifStmt = tree.terminatedStatementList(0).statementList(0).statement(0).ifStmt();
+        Rockstar.ExpressionContext is = ifStmt.expr;
+        assertSame(ifStmt, is.getParent());
+        assertSame(is, is.lhe.getParent());
+        assertEquals("1", is.lhe.getText());
+        assertEquals("2 plus 3", is.rhe.getText());
+        assertEquals("plus", is.rhe.op.getText());
+    }
+
+    private static Rockstar.ProgramContext antlr(String program) {
+        return new Rockstar(new CommonTokenStream(new RockstarLexer(CharStreams.fromString(program)))).program();
+    }
+
+    private static Rockstar.ProgramContext antlr(String program, List<String> errors) {
+        BaseErrorListener listener = new BaseErrorListener() {
+            @Override
+            public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line, int charPositionInLine,
+                    String msg, RecognitionException e) {
+                errors.add(line + ":" + charPositionInLine + " " + msg);
+            }
+        };
+        RockstarLexer lexer = new RockstarLexer(CharStreams.fromString(program));
+        lexer.removeErrorListeners();
+        lexer.addErrorListener(listener);
+        Rockstar parser = new Rockstar(new CommonTokenStream(lexer));
+        parser.removeErrorListeners();
+        parser.addErrorListener(listener);
+        return parser.program();
+    }
+
+    // Everything downstream might look at: rules, tokens and where they are, and the labelled children
+    private static String describe(ParseTree tree) {
+        if (tree instanceof TerminalNode terminal) {
+            return describe(terminal.getSymbol());
+        }
+        ParserRuleContext ctx = (ParserRuleContext) tree;
+        StringBuilder description = new StringBuilder(ctx.getClass().getSimpleName())
+                .append(" [").append(describe(ctx.start)).append(" to ").append(describe(ctx.stop)).append(']');
+        if (ctx instanceof Rockstar.ExpressionContext expression) {
+            description.append(" lhe=").append(ctx.children.indexOf(expression.lhe))
+                    .append(" rhe=").append(ctx.children.indexOf(expression.rhe))
+                    .append(" op=").append(describe(expression.op));
+        }
+        description.append(" (");
+        for (int i = 0; i < ctx.getChildCount(); i++) {
+            description.append(' ').append(describe(ctx.getChild(i)));
+        }
+        return description.append(" )").toString();
+    }
+
+    private static String describe(Token token) {
+        return token == null ? "nothing" : token.getType() + "@" + token.getTokenIndex() + ":" + token.getStartIndex();
+    }
+}
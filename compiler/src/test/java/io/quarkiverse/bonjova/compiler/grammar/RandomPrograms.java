@@ -0,0 +1,180 @@
+package io.quarkiverse.bonjova.compiler.grammar;
+
+import java.util.Random;
+
+/**
+ * Makes up programs for checking the hand-written parser against ANTLR. They're heavy on the awkward bits, like blank
+ * lines in blocks, Elses, proper nouns, and poetic literals, and plenty of them aren't valid Rockstar at all, which is
+ * the point; the parser should give up on those, rather than make something up.
+ */
+class RandomPrograms {
+
+    private final Random random;
+
+    RandomPrograms(long seed) {
+        this.random = new Random(seed);
+    }
+
+    String program() {
+        StringBuilder program = new StringBuilder();
+        if (random.nextInt(10) == 0) {
+            program.append(pick("\n", " ", "\n\n"));
+        }
+        int parts = 1 + random.nextInt(4);
+        for (int i = 0; i < parts; i++) {
+            if (random.nextInt(3) == 0) {
+                function(program);
+            } else {
+                block(program, 0, 1 + random.nextInt(4));
+            }
+        }
+        switch (random.nextInt(6)) {
+            case 0 -> {
+                while (!program.isEmpty() && program.charAt(program.length() - 1) == '\n') {
+                    program.setLength(program.length() - 1);
+                }
+            }
+            case 1 -> program.append(' ');
+            default -> {
+            }
+        }
+        return program.toString();
+    }
+
+    private void function(StringBuilder program) {
+        program.append(pick("Midnight", "Tommy", "My song"))
+                .append(" takes ")
+                .append(pick("x", "x and y", "x, y", "x, and y", "x & y", "x 'n' y", "x , y"))
+                .append('\n');
+        block(program, 0, random.nextInt(3));
+        if (random.nextInt(4) != 0) {
+            program.append(pick("", " "))
+                    .append(pick("Give back ", "Return ", "Give ", "Send "))
+                    .append(expression(0))
+                    .append(pick("", " back"))
+                    .append(newlines());
+        }
+    }
+
+    private void block(StringBuilder program, int depth, int statements) {
+        for (int i = 0; i < statements; i++) {
+            if (random.nextInt(12) == 0) {
+                program.append(pick(" ", "  ", "\t"));
+            }
+            switch (depth < 3 ? random.nextInt(10) : 9) {
+                case 0 -> {
+                    program.append(pick("If ", "if ")).append(expression(0)).append('\n');
+                    block(program, depth + 1, 1 + random.nextInt(3));
+                    if (random.nextInt(3) == 0) {
+                        program.append(pick("Else\n", "Else ", "  Else\n"));
+                        block(program, depth + 1, 1 + random.nextInt(3));
+                    }
+                }
+                case 1 -> {
+                    program.append(pick("While ", "Until ")).append(expression(0)).append('\n');
+                    block(program, depth + 1, 1 + random.nextInt(3));
+                }
+                default -> program.append(statement()).append(newlines());
+            }
+        }
+    }
+
+    private String statement() {
+        return switch (random.nextInt(24)) {
+            case 0 -> "Say" + space() + expression(0);
+            case 1 -> "Shout " + expression(0);
+            case 2 -> "Put " + expression(0) + " into " + variable();
+            case 3 -> "Let " + variable() + " be " + expression(0);
+            case 4 -> variable() + pick(" is ", "'s ", " was ", " are ", "'re ")
+                    + pick("5", "\"s\"", "nothing", "empty", poeticNumber(), poeticNumber());
+            case 5 -> variable() + pick(" says ", " say ", " says  ")
+                    + pick("hello world", "it's a-me", "a, b & c!", "the end.", "give back it");
+            case 6 -> "Listen to " + variable();
+            case 7 -> pick("Build ", "Knock ") + variable() + pick(" up", " down", " up, up", " up up", " down, down down");
+            case 8 -> "Turn " + pick("up ", "down ", "round ") + variable();
+            case 9 -> "Turn " + variable() + pick(" up", " down", " round", " around");
+            case 10 -> "Rock " + variable();
+            case 11 -> "Rock " + variable() + " with " + expression(0);
+            case 12 -> "Rock " + expression(0) + " into " + variable();
+            case 13 -> "Roll " + variable() + " into " + variable();
+            case 14 -> "Let " + variable() + " at " + expression(0) + " be " + expression(0);
+            case 15 -> pick("Split ", "Cut ", "Shatter ") + expression(0) + pick("", " into " + variable(),
+                    " with " + expression(0), " into " + variable() + " with " + expression(0),
+                    " with " + expression(0) + " into " + variable());
+            case 16 -> pick("Cast ", "Burn ") + expression(0) + pick("", " into " + variable(), " with " + expression(0),
+                    " into " + variable() + " with " + expression(0));
+            case 17 -> pick("Join ", "Unite ") + variable() + pick("", " into " + variable(), " with " + expression(0),
+                    " into " + variable() + " with " + expression(0));
+            case 18 -> pick("Break", "Continue", "Break it down", "Take it to the top");
+            case 19 -> "Say " + pick("Midnight", "Tommy") + " taking " + arguments(0);
+            case 20 -> variable() + " is " + expression(0);
+            default -> random.nextBoolean() ? "Say " + expression(0) : "Put " + expression(0) + " into y";
+        };
+    }
+
+    private String expression(int depth) {
+        StringBuilder expression = new StringBuilder(operand(depth));
+        int operators = depth > 3 ? 0 : random.nextInt(3);
+        for (int i = 0; i < operators; i++) {
+            expression.append(pick(" plus ", " with ", " minus ", " times ", " over ", " + ", " - ", "*", " / ", "/",
+                    " is ", " ain't ", "'s ", " is greater than ", " is less than ", " is as high as ",
+                    " is as low as ", " and ", " or ", " nor ", " isn't "))
+                    .append(operand(depth + 1));
+        }
+        if (random.nextInt(8) == 0) {
+            expression.append(", ").append(random.nextInt(4) == 0 ? "and " : "").append(operand(depth + 1));
+        }
+        return expression.toString();
+    }
+
+    private String operand(int depth) {
+        return switch (random.nextInt(depth > 2 ? 6 : 12)) {
+            case 0 -> pick("5", "0.5", "-3", "\"hi\"", "\"\"");
+            case 1 -> pick("nothing", "mysterious", "true", "wrong", "empty", "gone");
+            case 6 -> "not" + space() + operand(depth + 1);
+            case 7 -> "roll" + space() + variable();
+            case 8 -> pick("Midnight", "Tommy", "x") + " taking " + arguments(depth + 1);
+            case 9 -> variable() + space() + "at" + space() + expression(depth + 1);
+            default -> variable();
+        };
+    }
+
+    private String arguments(int depth) {
+        StringBuilder arguments = new StringBuilder(expression(depth + 1));
+        int more = random.nextInt(3);
+        for (int i = 0; i < more; i++) {
+            arguments.append(pick(", ", " and ", " & ", " 'n' "))
+                    .append(random.nextInt(3) == 0 ? expression(depth + 1) : operand(depth + 1));
+        }
+        return arguments.toString();
+    }
+
+    private String poeticNumber() {
+        StringBuilder number = new StringBuilder(pick("a", "lean", "Mean", "wrecking", "if", "nothing", "it",
+                "fa'too'many", "flung-about", "rock'n'roll", "it's", "we're", "a-b-c", "nothin'", "'cause", "true-love"));
+        int words = random.nextInt(4);
+        for (int i = 0; i < words; i++) {
+            number.append(pick(" ", " ", ". ", "  "))
+                    .append(pick("machine", "true", "lies", "of", "the", "with", "Rock", "up", "'s", "fa'too-many",
+                            "all-consuming", "power-hungry", "you're", "rock'n'roll", "x-", "ain't", "it's-a'b"));
+        }
+        return number.toString();
+    }
+
+    private String variable() {
+        return pick("x", "my heart", "the night", "Tommy", "Johnny B Goode", "it", "her", "your love", "y", "Midnight");
+    }
+
+    private String space() {
+        return random.nextInt(12) == 0 ? "  " : random.nextInt(20) == 0 ? "\t" : " ";
+    }
+
+    private String newlines() {
+        int k = random.nextInt(10);
+        return k < 6 ? "\n" : k < 9 ? "\n\n" : "\n\n\n";
+    }
+
+    private String pick(String... choices) {
+        return choices[random.nextInt(choices.length)];
+    }
+}
@@ -0,0 +1,86 @@
+package io.quarkiverse.bonjova.compiler.grammar;
+
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.Token;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import rock.RockstarLexer;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class RockstarScannerTest {
+
+    @ParameterizedTest
+    @MethodSource("programs")
+    public void shouldScanProgramsTheSameAsTheLexer(String name) throws IOException, URISyntaxException {
+        String program = Files.readString(Path.of(getClass().getResource(name).toURI()));
+        assertEquals(lex(program), scan(program));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "Tommy ain't nothin'",
+            "It isn''t right",
+            "Take it to the top\nTake  it to\tthe top",
+            "Break it down, breaking",
+            "My heart's 5. 6 . ,\r\nYour love's -2.5",
+            "Let the sky be \"blue\" (and the sea) ;",
+            "Rock 'n' roll, Joe & Jim + Pete",
+            "(a comment with no end of line)",
+            "",
+    })
+    public void shouldScanTrickyLinesTheSameAsTheLexer(String line) {
+        assertEquals(lex(line), scan(line));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "Say \"never ending", "Say 5 (and then", "Say 5\rSay 6", "Say €" })
+    public void shouldGiveUpOnThingsTheLexerWouldComplainAbout(String line) {
+        assertThrows(UnsupportedSyntaxException.class, () -> RockstarScanner.scan(CharStreams.fromString(line)));
+    }
+
+    @Test
+    public void shouldEndWithEOF() {
+        List<Token> tokens = RockstarScanner.scan(CharStreams.fromString("Say it"));
+        assertEquals(Token.EOF, tokens.get(tokens.size() - 1).getType());
+        assertEquals(4, tokens.size());
+    }
+
+    static Stream<String> programs() throws IOException, URISyntaxException {
+        try (Stream<Path> files = Files.list(Path.of(RockstarScannerTest.class.getResource("/hello-world.rock").toURI())
+                .getParent())) {
+            return files.map(file -> "/" + file.getFileName())
+                    .filter(name -> name.endsWith(".rock"))
+                    .sorted()
+                    .toList()
+                    .stream();
+        }
+    }
+
+    private static List<String> lex(String program) {
+        CommonTokenStream tokens = new CommonTokenStream(new RockstarLexer(CharStreams.fromString(program)));
+        tokens.fill();
+        return tokens.getTokens().stream().map(RockstarScannerTest::describe).toList();
+    }
+
+    private static List<String> scan(String program) {
+        return RockstarScanner.scan(CharStreams.fromString(program)).stream().map(RockstarScannerTest::describe).toList();
+    }
+
+    private static String describe(Token token) {
+        return token.getTokenIndex() + ": " + RockstarLexer.VOCABULARY.getSymbolicName(token.getType()) + " '"
+                + token.getText() + "' at " + token.getStartIndex() + "-" + token.getStopIndex() + ", " + token.getLine()
+                + ":" + token.getCharPositionInLine();
+    }
+}
@@ -23,6 +23,12 @@ public class CapturingListener extends RockstarBaseListener {
     private Rockstar.ArrayStmtContext array;
     private Rockstar.StringStmtContext stringSplit;
     private Rockstar.CastStmtContext cast;
+    private Rockstar.ProgramContext program;
+
+    @Override
+    public void enterProgram(Rockstar.ProgramContext program) {
+        this.program = program;
+    }
 
     @Override
     public void enterAssignmentStmt(Rockstar.AssignmentStmtContext assignmentStatement) {
@@ -135,4 +141,8 @@ public class CapturingListener extends RockstarBaseListener {
     public RuleContext getCast() {
         return cast;
     }
+
+    public RuleContext getProgram() {
+        return program;
+    }
 }
@@ -6,6 +6,7 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -46,6 +47,11 @@ public class FileLauncher {
 
     public static String launch(File file, String... args) throws IOException,
             InterruptedException {
+        return launchWithInput(file, null, args);
+    }
+
+    public static String launchWithInput(File file, String input, String... args) throws IOException,
+            InterruptedException {
         List<String> arguments = new ArrayList<>();
         arguments.add(getJreExecutable().toString());
         arguments.add(getBasename(file));
@@ -60,6 +66,13 @@ public class FileLauncher {
         processBuilder.redirectErrorStream(true);
         Process process = processBuilder.start();
 
+        // Feed stdin before reading anything back; the program may be holding all its output until it has heard everything
+        try (OutputStream stdin = process.getOutputStream()) {
+            if (input != null) {
+                stdin.write(input.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
         InputStream in = process.getInputStream();
         int code = process.waitFor();
         String output = new String(in.readAllBytes(), StandardCharsets.UTF_8);
@@ -74,13 +87,17 @@ public class FileLauncher {
     }
 
     public static String compileAndLaunch(String filename, String... args) throws IOException {
+        return compileAndLaunchWithInput(filename, null, args);
+    }
+
+    public static String compileAndLaunchWithInput(String filename, String input, String... args) throws IOException {
         InputStream stream = FileLauncher.class
                 .getResourceAsStream(filename);
         RockFileCompiler compiler = new RockFileCompiler();
         File outFile = createTempClassFile(filename);
         try {
             compiler.compile(stream, outFile);
-            return FileLauncher.launch(outFile, args);
+            return FileLauncher.launchWithInput(outFile, input, args);
         } catch (Throwable e) {
             fail(e);
             return null;
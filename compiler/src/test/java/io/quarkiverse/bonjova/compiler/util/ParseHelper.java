@@ -73,6 +73,10 @@ public class ParseHelper {
         return (Rockstar.CastStmtContext) getGrammarElement(program, CapturingListener::getCast);
     }
 
+    public Rockstar.ProgramContext getProgram(String program) {
+        return (Rockstar.ProgramContext) getGrammarElement(program, CapturingListener::getProgram);
+    }
+
     private RuleContext getGrammarElement(String program, Function<CapturingListener, RuleContext> getter) {
         /*
          * Rather than mocking the syntax tree, which will be hard work and not necessarily reliable,
@@ -0,0 +1,139 @@
+package io.quarkiverse.bonjova.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DenseListTest {
+
+    @Test
+    public void shouldPopInTheOrderThingsWereAdded() {
+        DenseList list = new DenseList();
+        list.add("a");
+        list.add("b");
+        list.add("c");
+        assertEquals("a", list.pop());
+        assertEquals("b", list.pop());
+        assertEquals("c", list.pop());
+        assertNull(list.pop());
+        assertEquals(0, list.size());
+    }
+
+    @Test
+    public void shouldIndexFromTheFirstUnpoppedElement() {
+        DenseList list = new DenseList();
+        list.addAll(List.of(1, 2, 3, 4));
+        list.pop();
+        assertEquals(2, list.get(0));
+        assertEquals(4, list.get(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(3));
+    }
+
+    @Test
+    public void shouldBehaveLikeAnArrayListWhenUsedAsAQueue() {
+        // Enough adding and popping to make it reuse the popped space as well as grow
+        DenseList list = new DenseList();
+        List<Object> expected = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            double value = i;
+            list.add(value);
+            expected.add(value);
+            if (i % 3 == 0) {
+                assertEquals(expected.remove(0), list.pop());
+            }
+            if (i % 100 == 0) {
+                list.add(list.size() / 2, "inserted");
+                expected.add(expected.size() / 2, "inserted");
+            }
+        }
+        assertEquals(expected, list);
+        assertEquals(list, expected);
+
+        while (!expected.isEmpty()) {
+            assertEquals(expected.remove(0), list.pop());
+        }
+        assertEquals(0, list.size());
+    }
+
+    @Test
+    public void shouldOverwriteWithSet() {
+        DenseList list = new DenseList();
+        list.addAll(List.of("a", "b"));
+        list.pop();
+        assertEquals("b", list.set(0, "c"));
+        assertEquals(List.of("c"), list);
+    }
+
+    @Test
+    public void shouldRemoveFromTheMiddle() {
+        DenseList list = new DenseList();
+        list.addAll(List.of("a", "b", "c", "d"));
+        list.pop();
+        assertEquals("c", list.remove(1));
+        assertEquals(List.of("b", "d"), list);
+    }
+
+    @Test
+    public void shouldStoreNumbersAsNumbers() {
+        DenseList list = new DenseList();
+        list.add(1d);
+        list.add(2.5);
+        list.addAll(List.of(3d, 4d));
+        list.set(0, 7d);
+        list.add(1, 8d);
+        assertTrue(list.isNumeric());
+        assertEquals(List.of(7d, 8d, 2.5, 3d, 4d), list);
+        assertEquals(7d, list.pop());
+    }
+
+    @Test
+    public void shouldStopStoringNumbersAsNumbersWhenSomethingElseGoesIn() {
+        DenseList list = new DenseList();
+        list.addAll(List.of(1d, 2d, 3d));
+        list.pop();
+        list.add("four");
+        assertFalse(list.isNumeric());
+        assertEquals(List.of(2d, 3d, "four"), list);
+
+        // It doesn't go back
+        list.pop();
+        list.pop();
+        list.pop();
+        list.add(5d);
+        assertFalse(list.isNumeric());
+        assertEquals(List.of(5d), list);
+    }
+
+    @Test
+    public void shouldReadNumbersAsNumbersWhateverTheListIsStoringThemAs() {
+        DenseList list = new DenseList();
+        list.addAll(List.of(1d, 2.5));
+        list.pop();
+        assertEquals(2.5, list.getNumber(0));
+
+        list.add(true);
+        list.add(Nothing.NOTHING);
+        list.add("four");
+        assertEquals(2.5, list.getNumber(0));
+        assertEquals(1, list.getNumber(1));
+        assertEquals(0, list.getNumber(2));
+        assertThrows(UnsupportedOperationException.class, () -> list.getNumber(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.getNumber(4));
+    }
+
+    @Test
+    public void shouldStopStoringNumbersAsNumbersForNulls() {
+        DenseList list = new DenseList();
+        list.add(1d);
+        list.set(0, null);
+        assertFalse(list.isNumeric());
+        assertNull(list.get(0));
+    }
+}
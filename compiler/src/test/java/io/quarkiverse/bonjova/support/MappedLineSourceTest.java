@@ -0,0 +1,84 @@
+package io.quarkiverse.bonjova.support;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MappedLineSourceTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void shouldReadLines() throws IOException {
+        assertEquals(List.of("Abha;5.0", "Zürich;-3.2"), readAll("Abha;5.0\nZürich;-3.2\n", 1024));
+    }
+
+    @Test
+    public void shouldReadALastLineWithNoNewline() throws IOException {
+        assertEquals(List.of("Abha;5.0", "Zürich;-3.2"), readAll("Abha;5.0\nZürich;-3.2", 1024));
+    }
+
+    @Test
+    public void shouldDropCarriageReturns() throws IOException {
+        assertEquals(List.of("Abha;5.0", "", "Zürich;-3.2"), readAll("Abha;5.0\r\n\r\nZürich;-3.2\r\n", 1024));
+    }
+
+    @Test
+    public void shouldHearNothingInAnEmptyFile() throws IOException {
+        assertEquals(List.of(), readAll("", 1024));
+    }
+
+    @Test
+    public void shouldReadLinesWhichCrossWindows() throws IOException {
+        StringBuilder contents = new StringBuilder();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            String line = "İzmir;" + i;
+            expected.add(line);
+            contents.append(line).append('\n');
+        }
+        assertEquals(expected, readAll(contents.toString(), 16));
+    }
+
+    @Test
+    public void shouldReadLinesLongerThanAWindow() throws IOException {
+        String longLine = "Livin' on a prayer ".repeat(100);
+        assertEquals(List.of("short", longLine, "short"), readAll("short\n" + longLine + "\nshort\n", 8));
+    }
+
+    @Test
+    public void shouldGiveUpOnALineBiggerThanAMappingCanBe() throws IOException {
+        String longLine = "Livin' on a prayer ".repeat(100);
+        IOException e = assertThrows(IOException.class,
+                () -> readAll("short\n" + longLine + "\nshort\n", 8, 64));
+        assertTrue(e.getMessage().contains("more than 64 bytes"), e.getMessage());
+    }
+
+    private List<String> readAll(String contents, int windowSize) throws IOException {
+        return readAll(contents, windowSize, MappedLineSource.DEFAULT_WINDOW_SIZE);
+    }
+
+    private List<String> readAll(String contents, int windowSize, int maxWindowSize) throws IOException {
+        Path file = dir.resolve("input.txt");
+        Files.writeString(file, contents, StandardCharsets.UTF_8);
+        List<String> lines = new ArrayList<>();
+        try (MappedLineSource source = new MappedLineSource(file, windowSize, maxWindowSize)) {
+            String line;
+            while ((line = source.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+}
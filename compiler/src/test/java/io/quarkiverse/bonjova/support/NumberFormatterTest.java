@@ -0,0 +1,91 @@
+package io.quarkiverse.bonjova.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class NumberFormatterTest {
+
+    @Test
+    public void shouldFormatIntegersWithoutADecimalPoint() {
+        assertEquals("0", NumberFormatter.format(0));
+        assertEquals("42", NumberFormatter.format(42));
+        assertEquals("-7", NumberFormatter.format(-7));
+        assertEquals("1000000000000000", NumberFormatter.format(1e15));
+    }
+
+    @Test
+    public void shouldFormatFractions() {
+        assertEquals("0.5", NumberFormatter.format(0.5));
+        assertEquals("-2.25", NumberFormatter.format(-2.25));
+        assertEquals("0.3", NumberFormatter.format(0.1 + 0.2));
+        assertEquals("0.333333333", NumberFormatter.format(1 / 3d));
+        assertEquals("0.666666667", NumberFormatter.format(2 / 3d));
+    }
+
+    @Test
+    public void shouldDropDigitsPastTheNinthDecimalPlace() {
+        assertEquals("0", NumberFormatter.format(1e-10));
+        assertEquals("-0", NumberFormatter.format(-1e-10));
+        assertEquals("1", NumberFormatter.format(0.9999999999));
+        assertEquals("123456789.12345679", NumberFormatter.format(123456789.123456791));
+    }
+
+    @Test
+    public void shouldRoundLikeDecimalFormatNearHalfway() {
+        // Neither of these is exactly halfway once it's in binary, which DecimalFormat takes into account
+        assertEquals("0", NumberFormatter.format(0.0000000005));
+        assertEquals("0.000000001", NumberFormatter.format(0.0000000015));
+        assertEquals("1.000000001", NumberFormatter.format(1.0000000005));
+    }
+
+    @Test
+    public void shouldHandleSpecialValues() {
+        assertEquals("-0", NumberFormatter.format(-0d));
+        assertEquals("NaN", NumberFormatter.format(Double.NaN));
+        assertEquals("∞", NumberFormatter.format(Double.POSITIVE_INFINITY));
+        assertEquals("-∞", NumberFormatter.format(Double.NEGATIVE_INFINITY));
+    }
+
+    @Test
+    public void shouldUseAPointWhateverTheLocale() throws InterruptedException {
+        Locale original = Locale.getDefault();
+        List<String> formatted = new ArrayList<>();
+        try {
+            Locale.setDefault(Locale.GERMANY);
+            // A new thread, so the fallback gets made under the German locale
+            Thread thread = new Thread(() -> {
+                for (double d : new double[] { 1.0000000005, -0d, 1.5e20, -2.5 }) {
+                    formatted.add(NumberFormatter.format(d));
+                }
+            });
+            thread.start();
+            thread.join();
+        } finally {
+            Locale.setDefault(original);
+        }
+        assertEquals(List.of("1.000000001", "-0", "150000000000000000000", "-2.5"), formatted);
+    }
+
+    @Test
+    public void shouldMatchDecimalFormat() {
+        DecimalFormat df = new DecimalFormat("#.#########", DecimalFormatSymbols.getInstance(Locale.ROOT));
+        Random random = new Random(1984);
+        for (int i = 0; i < 100_000; i++) {
+            double d = switch (i % 4) {
+                case 0 -> random.nextDouble();
+                case 1 -> (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(30) - 10);
+                case 2 -> random.nextInt(100000) / 1000d;
+                default -> Double.longBitsToDouble(random.nextLong());
+            };
+            assertEquals(df.format(d), NumberFormatter.format(d), "Formatting " + d);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package io.quarkiverse.bonjova.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OffHeapListTest {
+
+    // Tiny chunks, so a handful of elements is enough to fill a few and spill the rest to disk
+    private final OffHeapArena arena = new OffHeapArena(256);
+
+    private OffHeapList newList() {
+        return newList(arena);
+    }
+
+    private static OffHeapList newList(OffHeapArena arena) {
+        return new OffHeapList(arena, 16, 64);
+    }
+
+    @Test
+    public void shouldGiveBackWhatWentIn() {
+        OffHeapList list = newList();
+        RockstarArray inner = new RockstarArray();
+        List<Object> things = Arrays.asList(1.5d, "Tommy", "Gina, who works the diner all day ☕", true, false, null,
+                Nothing.NOTHING, inner, "");
+        list.addAll(things);
+        assertEquals(things, list);
+        assertSame(inner, list.get(7));
+        assertSame(Nothing.NOTHING, list.get(6));
+    }
+
+    @Test
+    public void shouldSpillToDiskPastTheBudget() {
+        OffHeapList list = newList();
+        List<Object> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Object thing = i % 2 == 0 ? (Object) (double) i : "line " + i;
+            list.add(thing);
+            expected.add(thing);
+        }
+        assertTrue(arena.hasSpilled());
+        assertEquals(expected, list);
+    }
+
+    @Test
+    public void shouldSpillWhenTheJvmWontGiveUsDirectMemory() {
+        // However big the budget, the JVM has its own limit, which is usually the size of the heap
+        OffHeapArena refusing = new OffHeapArena(Long.MAX_VALUE) {
+            @Override
+            ByteBuffer allocateDirect(int size) {
+                throw new OutOfMemoryError("Cannot reserve " + size + " bytes of direct buffer memory");
+            }
+        };
+        OffHeapList list = newList(refusing);
+        List<Object> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            list.add("line " + i);
+            expected.add("line " + i);
+        }
+        assertTrue(refusing.hasSpilled());
+        assertEquals(expected, list);
+    }
+
+    @Test
+    public void shouldShareTheBudgetBetweenLists() {
+        // Just enough for the first chunk of index and the first chunk of data
+        OffHeapArena small = new OffHeapArena(32);
+        OffHeapList first = newList(small);
+        first.add("a");
+        assertFalse(small.hasSpilled());
+        OffHeapList second = newList(small);
+        second.add("b");
+        assertTrue(small.hasSpilled());
+        assertEquals(List.of("a"), first);
+        assertEquals(List.of("b"), second);
+    }
+
+    @Test
+    public void shouldGetMemoryBackWhenAListHasGone() {
+        OffHeapArena small = new OffHeapArena(16);
+        OffHeapArena.Allocations allocations = new OffHeapArena.Allocations();
+        small.allocate(16, allocations);
+        small.allocate(16, allocations);
+        assertEquals(0, small.budgetLeft());
+        small.release(allocations);
+        assertEquals(16, small.budgetLeft());
+    }
+
+    @Test
+    public void shouldKeepStringsBiggerThanAChunk() {
+        OffHeapList list = newList();
+        String big = "Livin' on a prayer ".repeat(10);
+        list.add("skipping the small chunks");
+        list.add(big);
+        list.add("small");
+        assertEquals(List.of("skipping the small chunks", big, "small"), list);
+    }
+
+    @Test
+    public void shouldPopInTheOrderThingsWereAdded() {
+        OffHeapList list = newList();
+        list.addAll(List.of("a", 2d, "c"));
+        assertEquals("a", list.pop());
+        assertEquals(2d, list.get(0));
+        assertEquals(2d, list.pop());
+        assertEquals("c", list.pop());
+        assertNull(list.pop());
+        assertEquals(0, list.size());
+
+        // And start again once it's empty
+        list.add("d");
+        assertEquals(List.of("d"), list);
+        assertFalse(arena.hasSpilled());
+    }
+
+    @Test
+    public void shouldOverwriteInsertAndRemove() {
+        OffHeapList list = newList();
+        list.addAll(List.of("a", "b", "c"));
+        assertEquals("b", list.set(1, 7d));
+        list.add(1, "inserted");
+        assertEquals(List.of("a", "inserted", 7d, "c"), list);
+        assertEquals(7d, list.remove(2));
+        assertEquals(List.of("a", "inserted", "c"), list);
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(3));
+    }
+
+    @Test
+    public void shouldNotGrowWhenTheSameElementKeepsChanging() {
+        OffHeapArena big = new OffHeapArena(1 << 20);
+        OffHeapList list = newList(big);
+        for (int i = 0; i < 20; i++) {
+            list.add((double) i);
+        }
+        for (int i = 0; i < 100_000; i++) {
+            // Counters get overwritten where they are, and anything else gets tidied up now and again
+            list.set(3, (double) i);
+            list.set(5, i % 3 == 0 ? "verse " + i % 50 : i % 3 == 1 ? (Object) (double) i : new RockstarArray());
+            list.set(7, i % 2 == 0);
+        }
+        assertEquals(99_999d, list.get(3));
+        assertEquals("verse 49", list.get(5));
+        assertEquals(false, list.get(7));
+        assertEquals(19d, list.get(19));
+        assertTrue(list.allocatedBytes() <= 1024, list.allocatedBytes() + " bytes");
+        assertTrue((1 << 20) - big.budgetLeft() <= 1024, (1 << 20) - big.budgetLeft() + " bytes");
+    }
+
+    @Test
+    public void shouldNotGrowWhenItsUsedAsAQueueWhichNeverEmpties() {
+        OffHeapArena big = new OffHeapArena(1 << 20);
+        OffHeapList list = newList(big);
+        ArrayDeque<Object> expected = new ArrayDeque<>();
+        for (int i = 0; i < 1_000_000; i++) {
+            Object thing = i % 2 == 0 ? (Object) (double) i : "line " + i;
+            list.add(thing);
+            expected.add(thing);
+            if (expected.size() > 10) {
+                assertEquals(expected.poll(), list.pop());
+            }
+        }
+        assertEquals(new ArrayList<>(expected), list);
+        assertTrue(list.allocatedBytes() <= 1024, list.allocatedBytes() + " bytes");
+        assertTrue((1 << 20) - big.budgetLeft() <= 1024, (1 << 20) - big.budgetLeft() + " bytes");
+    }
+
+    @Test
+    public void shouldTakeOverFromADenseList() {
+        DenseList list = new DenseList();
+        list.addAll(List.of(1d, 2d, 3d));
+        list.pop();
+        list.moveOffHeap(newList());
+        assertTrue(list.isOffHeap());
+        assertFalse(list.isNumeric());
+        list.add("four");
+        list.add(5d);
+        assertEquals(List.of(2d, 3d, "four", 5d), list);
+        assertEquals(2d, list.pop());
+        assertEquals(3, list.size());
+    }
+
+    @Test
+    public void shouldKeepTheArrayContract() {
+        RockstarArray ra = new RockstarArray();
+        ra.list.moveOffHeap(newList());
+        ra.add("first");
+        ra.add(1d, 2d);
+        ra.add("2", "third");
+        assertEquals(3, ra.size());
+        assertEquals("third", ra.get(2));
+        assertEquals("first", ra.pop());
+        assertEquals(2d, ra.get(0));
+        assertEquals("2.0third", ra.join());
+    }
+}
@@ -6,6 +6,7 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class RockstarArrayTest {
 
@@ -57,6 +58,97 @@ class RockstarArrayTest {
 
     }
 
+    @Test
+    public void shouldOverwriteRatherThanInsertAtAnExistingIndex() {
+        RockstarArray ra = new RockstarArray();
+        ra.addAll(List.of("a", "b", "c"));
+        ra.add(1, "d");
+        assertEquals("d", ra.get(1));
+        assertEquals("c", ra.get(2));
+        assertEquals(3, ra.size());
+    }
+
+    @Test
+    public void shouldNotPadOutToAFarAwayIndex() {
+        RockstarArray ra = new RockstarArray();
+        String thing = "thing";
+        ra.add(1000000, thing);
+        assertEquals(thing, ra.get(1000000));
+        assertNull(ra.get(999999));
+        assertEquals(1000001, ra.size());
+        assertEquals(0, ra.list.size());
+
+        ra.add(1000000, "another thing");
+        assertEquals("another thing", ra.get(1000000));
+        assertEquals(1000001, ra.size());
+    }
+
+    @Test
+    public void shouldMoveFarAwayElementsIntoTheListOnceTheGapIsFilled() {
+        RockstarArray ra = new RockstarArray();
+        ra.add(100, "hundred");
+        ra.add(101, "hundred and one");
+        for (int i = 0; i < 100; i++) {
+            ra.add(i, (Object) "filler");
+        }
+        assertEquals(102, ra.list.size());
+        assertEquals("hundred and one", ra.get(101));
+        assertEquals(102, ra.size());
+    }
+
+    @Test
+    public void shouldPushOntoTheEndOfASparseArray() {
+        RockstarArray ra = new RockstarArray();
+        ra.add("first");
+        ra.add(500, "far away");
+        ra.add("last");
+        assertEquals("last", ra.get(501));
+        assertEquals(502, ra.size());
+    }
+
+    @Test
+    public void shouldPopThroughTheGapsOfASparseArray() {
+        RockstarArray ra = new RockstarArray();
+        ra.add("first");
+        ra.add(100, "far away");
+        assertEquals("first", ra.pop());
+        assertEquals("far away", ra.get(99));
+        for (int i = 0; i < 99; i++) {
+            assertNull(ra.pop());
+        }
+        assertEquals(1, ra.size());
+        assertEquals("far away", ra.get(0));
+        assertEquals("far away", ra.pop());
+        assertEquals(0, ra.size());
+        assertNull(ra.pop());
+    }
+
+    @Test
+    public void shouldAddNumbersWithoutBoxingThem() {
+        RockstarArray ra = new RockstarArray();
+        ra.add(1d);
+        ra.add(1d, 2d);
+        ra.add((Object) 2d, 3d);
+        ra.add(0d, 4d);
+        assertEquals(List.of(4d, 2d, 3d), ra.list);
+        assertTrue(ra.list.isNumeric());
+
+        ra.add("key", 5d);
+        assertEquals(5d, ra.get("key"));
+        ra.add(100d, 6d);
+        assertEquals(6d, ra.get(100));
+        assertEquals(101, ra.size());
+    }
+
+    @Test
+    public void shouldGetNumbersWithoutBoxingThem() {
+        RockstarArray ra = new RockstarArray();
+        ra.add(1.5);
+        ra.add(1000, 2.5);
+        assertEquals(1.5, ra.getNumber(0));
+        assertEquals(2.5, ra.getNumber(1000));
+    }
+
     @Test
     public void shouldAddAndGetUsingNonNumericKeys() {
         RockstarArray ra = new RockstarArray();
@@ -119,6 +211,35 @@ class RockstarArrayTest {
         assertEquals(5, ra.size());
     }
 
+    @Test
+    public void shouldOnlyTreatTextWrittenLikeAnIndexAsAnIndex() {
+        assertEquals(0, RockstarArray.indexFor("0"));
+        assertEquals(7, RockstarArray.indexFor("7"));
+        assertEquals(123456789012345L, RockstarArray.indexFor("123456789012345"));
+        assertEquals(-1, RockstarArray.indexFor(""));
+        assertEquals(-1, RockstarArray.indexFor("07"));
+        assertEquals(-1, RockstarArray.indexFor("7.0"));
+        assertEquals(-1, RockstarArray.indexFor("+7"));
+        assertEquals(-1, RockstarArray.indexFor("-7"));
+        assertEquals(-1, RockstarArray.indexFor(" 7"));
+        assertEquals(-1, RockstarArray.indexFor("1e3"));
+        assertEquals(-1, RockstarArray.indexFor("seven"));
+        assertEquals(-1, RockstarArray.indexFor("1234567890123456"));
+    }
+
+    @Test
+    public void shouldPutAndGetTextKeysTheSameWay() {
+        RockstarArray ra = new RockstarArray();
+        ra.add("07", "oh seven");
+        ra.add("-1", "minus one");
+        ra.add("7", "seven");
+        assertEquals("oh seven", ra.get("07"));
+        assertEquals("minus one", ra.get("-1"));
+        assertEquals("seven", ra.get("7"));
+        assertEquals("seven", ra.get(7));
+        assertEquals(8, ra.size());
+    }
+
     @Test
     public void shouldTreatObjectNumbersAsNumericKeys() {
         RockstarArray ra = new RockstarArray();
@@ -186,6 +307,18 @@ class RockstarArrayTest {
         assertNull(ra.pop());
     }
 
+    @Test
+    public void shouldKeepIndexesAndAppendsRightAfterPopping() {
+        RockstarArray ra = new RockstarArray();
+        ra.addAll(List.of("a", "b", "c"));
+        assertEquals("a", ra.pop());
+        assertEquals("b", ra.get(0));
+        assertEquals("c", ra.get(1d));
+        ra.add("d");
+        assertEquals("d", ra.get(2));
+        assertEquals(3, ra.size());
+    }
+
     @Test
     public void shouldSupportAddAll() {
         RockstarArray ra = new RockstarArray();
@@ -0,0 +1,92 @@
+package io.quarkiverse.bonjova.support;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RockstarInputTest {
+
+    private InputStream originalIn;
+
+    @BeforeEach
+    public void saveInput() {
+        originalIn = System.in;
+    }
+
+    @AfterEach
+    public void restoreInput() {
+        System.setIn(originalIn);
+        RockstarInput.finish();
+    }
+
+    @Test
+    public void shouldReadLinesFromStdinWhenThereAreNoArgs() {
+        System.setIn(new ByteArrayInputStream("Tommy\nGina\r\n".getBytes(StandardCharsets.UTF_8)));
+        RockstarInput.start(new String[0]);
+        assertEquals("Tommy", RockstarInput.readLine());
+        assertEquals("Gina", RockstarInput.readLine());
+        assertNull(RockstarInput.readLine());
+    }
+
+    @Test
+    public void shouldReadArgsWhenThereAreSome() {
+        System.setIn(new ByteArrayInputStream("ignored\n".getBytes(StandardCharsets.UTF_8)));
+        RockstarInput.start(new String[] { "Tommy", "Gina" });
+        assertEquals("Tommy", RockstarInput.readLine());
+        assertEquals("Gina", RockstarInput.readLine());
+        assertNull(RockstarInput.readLine());
+        assertNull(RockstarInput.readLine());
+    }
+
+    @Test
+    public void shouldListenToAFileWhenToldTo(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("input.txt");
+        Files.writeString(file, "Tommy\nGina\n");
+        System.setProperty(RockstarInput.INPUT_PROPERTY, file.toString());
+        try {
+            RockstarInput.start(new String[] { "ignored" });
+        } finally {
+            System.clearProperty(RockstarInput.INPUT_PROPERTY);
+        }
+        assertEquals("Tommy", RockstarInput.readLine());
+        assertEquals("Gina", RockstarInput.readLine());
+        assertNull(RockstarInput.readLine());
+    }
+
+    @Test
+    public void shouldUseWhateverSourceItIsGiven() {
+        RockstarInput.use(() -> "livin' on a prayer");
+        assertEquals("livin' on a prayer", RockstarInput.readLine());
+    }
+
+    @Test
+    public void shouldKeepASourceSetUpBeforeTheProgramStarts() {
+        System.setIn(new ByteArrayInputStream("not for you\n".getBytes(StandardCharsets.UTF_8)));
+        RockstarInput.useArgs(new String[0]);
+        RockstarInput.start(new String[0]);
+        assertNull(RockstarInput.readLine());
+        RockstarInput.finish();
+
+        // ... but only for the one program
+        RockstarInput.start(new String[0]);
+        assertEquals("not for you", RockstarInput.readLine());
+    }
+
+    @Test
+    public void shouldFallBackToStdinIfNeverStarted() {
+        System.setIn(new ByteArrayInputStream("halfway there\n".getBytes(StandardCharsets.UTF_8)));
+        assertEquals("halfway there", RockstarInput.readLine());
+        assertNull(RockstarInput.readLine());
+    }
+}
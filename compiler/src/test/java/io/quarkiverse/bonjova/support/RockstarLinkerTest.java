@@ -0,0 +1,112 @@
+package io.quarkiverse.bonjova.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+import static io.quarkiverse.bonjova.support.Nothing.NOTHING;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RockstarLinkerTest {
+
+    private static final MethodType OBJECT_BINARY = MethodType.methodType(Object.class, Object.class, Object.class);
+
+    @Test
+    public void shouldAddThroughACallSite() throws Throwable {
+        MethodHandle add = link("add", OBJECT_BINARY);
+        assertEquals(5d, add.invoke((Object) 2d, (Object) 3d));
+        assertEquals("hello world", add.invoke((Object) "hello ", (Object) "world"));
+    }
+
+    @Test
+    public void shouldKeepTheSameTargetWhileTheTypesStayTheSame() throws Throwable {
+        CallSite site = bootstrap("add", OBJECT_BINARY);
+        site.dynamicInvoker().invoke((Object) 2d, (Object) 3d);
+        MethodHandle linked = site.getTarget();
+
+        assertEquals(7d, site.dynamicInvoker().invoke((Object) 3d, (Object) 4d));
+        assertSame(linked, site.getTarget());
+    }
+
+    @Test
+    public void shouldRelinkWhenTheTypesChange() throws Throwable {
+        CallSite site = bootstrap("add", OBJECT_BINARY);
+        MethodHandle add = site.dynamicInvoker();
+        assertEquals(5d, add.invoke((Object) 2d, (Object) 3d));
+        MethodHandle linked = site.getTarget();
+
+        assertEquals("2 apples", add.invoke((Object) 2d, (Object) " apples"));
+        assertNotSame(linked, site.getTarget());
+        assertEquals(4d, add.invoke(NOTHING, (Object) 4d));
+        assertEquals(6d, add.invoke((Object) 2d, (Object) 4d));
+    }
+
+    @Test
+    public void shouldHandleMysterious() throws Throwable {
+        MethodHandle equal = link("equal", MethodType.methodType(boolean.class, Object.class, Object.class));
+        assertTrue((boolean) equal.invoke((Object) null, (Object) null));
+        assertFalse((boolean) equal.invoke((Object) 2d, (Object) null));
+        assertTrue((boolean) equal.invoke((Object) 2d, (Object) 2d));
+    }
+
+    @Test
+    public void shouldStillSpecialiseAfterStartingWithMysterious() throws Throwable {
+        CallSite site = bootstrap("equal", MethodType.methodType(boolean.class, Object.class, Object.class));
+        MethodHandle equal = site.dynamicInvoker();
+        MethodHandle unlinked = site.getTarget();
+        assertFalse((boolean) equal.invoke((Object) null, (Object) 1d));
+        assertSame(unlinked, site.getTarget());
+
+        assertTrue((boolean) equal.invoke((Object) 2d, (Object) 2d));
+        MethodHandle linked = site.getTarget();
+        assertNotSame(unlinked, linked);
+        assertFalse((boolean) equal.invoke((Object) 3d, (Object) 4d));
+        assertSame(linked, site.getTarget());
+    }
+
+    @Test
+    public void shouldGiveUpOnMegamorphicSites() throws Throwable {
+        CallSite site = bootstrap("compare", MethodType.methodType(int.class, Object.class, Object.class));
+        MethodHandle compare = site.dynamicInvoker();
+        for (int i = 0; i <= RockstarLinker.MAX_RELINKS; i++) {
+            assertTrue((int) compare.invoke((Object) 1d, (Object) 2d) < 0);
+            assertTrue((int) compare.invoke((Object) "b", (Object) "a") > 0);
+        }
+        MethodHandle linked = site.getTarget();
+
+        assertEquals(0, (int) compare.invoke((Object) 1d, (Object) 1d));
+        assertEquals(0, (int) compare.invoke((Object) "a", (Object) "a"));
+        assertSame(linked, site.getTarget());
+    }
+
+    @Test
+    public void shouldReturnPrimitivesWhenTheOperationDoes() throws Throwable {
+        MethodType numeric = MethodType.methodType(double.class, Object.class, Object.class);
+        assertEquals(-1d, (double) link("subtract", numeric).invoke((Object) 2d, (Object) 3d));
+        assertEquals(6d, (double) link("multiply", numeric).invoke((Object) 2d, (Object) 3d));
+        assertEquals(2d, (double) link("multiply", numeric).invoke((Object) true, (Object) 2d));
+    }
+
+    @Test
+    public void shouldKeepTheErrorsOfTheOperations() {
+        MethodType numeric = MethodType.methodType(double.class, Object.class, Object.class);
+        assertThrows(UnsupportedOperationException.class,
+                () -> link("subtract", numeric).invoke((Object) "a", (Object) "b"));
+    }
+
+    private static MethodHandle link(String name, MethodType type) {
+        return bootstrap(name, type).dynamicInvoker();
+    }
+
+    private static CallSite bootstrap(String name, MethodType type) {
+        return RockstarLinker.bootstrap(MethodHandles.lookup(), name, type);
+    }
+}
@@ -0,0 +1,102 @@
+package io.quarkiverse.bonjova.support;
+
+import org.junit.jupiter.api.Test;
+
+import static io.quarkiverse.bonjova.support.Nothing.NOTHING;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RockstarOpsTest {
+
+    @Test
+    public void shouldAddNumbers() {
+        assertEquals(5d, RockstarOps.add(2d, 3d));
+        assertEquals(3d, RockstarOps.add(true, 2d));
+    }
+
+    @Test
+    public void shouldAddStrings() {
+        assertEquals("hello world", RockstarOps.add("hello ", "world"));
+        assertEquals("7 days", RockstarOps.add(7d, " days"));
+        assertEquals("0.5", RockstarOps.add("", 0.5d));
+        assertEquals("is true", RockstarOps.add("is ", true));
+        assertEquals("mysterious", RockstarOps.add(null, ""));
+    }
+
+    @Test
+    public void shouldCoerceNothingWhenAdding() {
+        assertEquals(4d, RockstarOps.add(NOTHING, 4d));
+        assertEquals("nullhello", RockstarOps.add(NOTHING, "hello"));
+    }
+
+    @Test
+    public void shouldSubtractAndMultiplyNumbers() {
+        assertEquals(-1d, RockstarOps.subtract(2d, 3d));
+        assertEquals(6d, RockstarOps.multiply(2d, 3d));
+        assertEquals(0d, RockstarOps.multiply(NOTHING, 3d));
+    }
+
+    @Test
+    public void shouldRefuseToSubtractOrMultiplyStrings() {
+        assertThrows(UnsupportedOperationException.class, () -> RockstarOps.subtract("hello", 3d));
+        assertThrows(UnsupportedOperationException.class, () -> RockstarOps.multiply(2d, "hello"));
+    }
+
+    @Test
+    public void shouldDivideWithoutLosingPrecision() {
+        assertEquals(2 / 3d, RockstarOps.divide(2d, 3d));
+        assertEquals(0.5d, RockstarOps.divide(true, 2d));
+        assertEquals(Double.POSITIVE_INFINITY, RockstarOps.divide(1d, NOTHING));
+        assertThrows(UnsupportedOperationException.class, () -> RockstarOps.divide("hello", 2d));
+    }
+
+    @Test
+    public void shouldFailOnMysteriousArithmetic() {
+        assertThrows(NullPointerException.class, () -> RockstarOps.subtract(null, 3d));
+    }
+
+    @Test
+    public void shouldCompare() {
+        assertTrue(RockstarOps.compare(2d, 3d) < 0);
+        assertTrue(RockstarOps.compare("b", "a") > 0);
+        assertEquals(0, RockstarOps.compare(NOTHING, 0d));
+    }
+
+    @Test
+    public void shouldCheckEquality() {
+        assertTrue(RockstarOps.equal(2d, 2d));
+        assertTrue(RockstarOps.equal(null, null));
+        assertFalse(RockstarOps.equal(null, "mysterious"));
+        assertFalse(RockstarOps.equal("2", 2d));
+    }
+
+    @Test
+    public void shouldWorkOutTruthiness() {
+        assertTrue(RockstarOps.truthy(true));
+        assertFalse(RockstarOps.truthy(false));
+        assertFalse(RockstarOps.truthy(null));
+        assertFalse(RockstarOps.truthy(0d));
+        assertTrue(RockstarOps.truthy(0.1d));
+        assertTrue(RockstarOps.truthy("hello"));
+    }
+
+    @Test
+    public void shouldTurnArraysIntoTheirLength() {
+        RockstarArray array = new RockstarArray();
+        array.add("a");
+        array.add("b");
+        assertEquals(2d, RockstarOps.toScalar(array));
+        assertEquals("a", RockstarOps.toScalar("a"));
+    }
+
+    @Test
+    public void shouldFormatIntegersWithoutDecimals() {
+        assertEquals("4", RockstarOps.toRockString(4d));
+        assertEquals("4.5", RockstarOps.toRockString(4.5d));
+        assertEquals("4", RockstarOps.toRockString((Object) 4d));
+        assertEquals("mysterious", RockstarOps.toRockString(null));
+        assertEquals("false", RockstarOps.toRockString(false));
+    }
+}
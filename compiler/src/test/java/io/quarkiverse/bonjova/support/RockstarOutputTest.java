@@ -0,0 +1,66 @@
+package io.quarkiverse.bonjova.support;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RockstarOutputTest {
+
+    private static final String NL = System.lineSeparator();
+
+    private PrintStream originalOut;
+    private ByteArrayOutputStream captured;
+
+    @BeforeEach
+    public void captureOutput() {
+        originalOut = System.out;
+        captured = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(captured));
+    }
+
+    @AfterEach
+    public void restoreOutput() {
+        System.setOut(originalOut);
+    }
+
+    @Test
+    public void shouldHoldOnToLinesUntilFlushed() {
+        RockstarOutput output = new RockstarOutput(1024);
+        output.write("hello");
+        output.write("world");
+        assertEquals("", captured.toString());
+
+        output.flushBuffer();
+        assertEquals("hello" + NL + "world" + NL, captured.toString());
+    }
+
+    @Test
+    public void shouldFlushWhenTheBufferFills() {
+        RockstarOutput output = new RockstarOutput(12);
+        output.write("hello");
+        assertEquals("", captured.toString());
+        output.write("world");
+        assertEquals("hello" + NL + "world" + NL, captured.toString());
+    }
+
+    @Test
+    public void shouldSendEveryLineStraightOutWithNoBuffer() {
+        RockstarOutput output = new RockstarOutput(0);
+        output.write("hello");
+        assertEquals("hello" + NL, captured.toString());
+    }
+
+    @Test
+    public void shouldNotWriteAnythingWhenFlushingNothing() {
+        RockstarOutput.flush();
+        RockstarOutput.println("hello");
+        RockstarOutput.flush();
+        RockstarOutput.flush();
+        assertEquals("hello" + NL, captured.toString());
+    }
+}
@@ -0,0 +1,74 @@
+package io.quarkiverse.bonjova.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SparseElementsTest {
+
+    @Test
+    public void shouldPutAndGet() {
+        SparseElements elements = new SparseElements();
+        elements.put(1000000, "thing");
+        assertEquals("thing", elements.get(1000000));
+        assertNull(elements.get(999999));
+        assertEquals(1, elements.size());
+    }
+
+    @Test
+    public void shouldOverwriteExistingKeys() {
+        SparseElements elements = new SparseElements();
+        elements.put(42, "thing");
+        elements.put(42, "other thing");
+        assertEquals("other thing", elements.get(42));
+        assertEquals(1, elements.size());
+    }
+
+    @Test
+    public void shouldTellNullsFromMissingKeys() {
+        SparseElements elements = new SparseElements();
+        elements.put(7, null);
+        assertTrue(elements.containsKey(7));
+        assertFalse(elements.containsKey(8));
+    }
+
+    @Test
+    public void shouldTrackTheHighestKey() {
+        SparseElements elements = new SparseElements();
+        elements.put(50, "a");
+        elements.put(3000, "b");
+        elements.put(70, "c");
+        assertEquals(3000, elements.highestKey());
+        assertArrayEquals(new Object[] { "a", "c", "b" }, elements.valuesInOrder());
+    }
+
+    @Test
+    public void shouldBehaveLikeAMapThroughGrowingAndRemoving() {
+        // Clustered keys, to get plenty of probing and shifting back on removal
+        Random random = new Random(1984);
+        SparseElements elements = new SparseElements();
+        Map<Long, Object> expected = new HashMap<>();
+        for (int i = 0; i < 20000; i++) {
+            long key = random.nextInt(2000) * 64L;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), elements.remove(key));
+            } else {
+                expected.put(key, i);
+                elements.put(key, i);
+            }
+        }
+        assertEquals(expected.size(), elements.size());
+        for (long key = 0; key < 2000 * 64L; key += 64) {
+            assertEquals(expected.containsKey(key), elements.containsKey(key));
+            assertEquals(expected.get(key), elements.get(key));
+        }
+    }
+}
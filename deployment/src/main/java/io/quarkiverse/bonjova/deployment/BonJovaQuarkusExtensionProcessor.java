@@ -1,5 +1,6 @@
 package io.quarkiverse.bonjova.deployment;
 
+import io.quarkiverse.bonjova.compiler.CompilationCache;
 import io.quarkiverse.bonjova.compiler.RockFileCompiler;
 import io.quarkiverse.bonjova.deployment.rockscore.RockScoreCalculator;
 import io.quarkiverse.bonjova.runtime.RockstarResource;
@@ -17,13 +18,14 @@ import io.quarkus.devui.spi.page.CardPageBuildItem;
 import io.quarkus.devui.spi.page.Page;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -33,7 +35,6 @@ import static io.quarkiverse.bonjova.compiler.RockFileCompiler.DOT_ROCK;
 class BonJovaQuarkusExtensionProcessor {
 
     private static final String FEATURE = "quarkus-bon-jova";
-    private static final int MINUTES = 60 * 1000;
     public static final String DEFAULT_RESOURCES_PATH = "src/main/rockstar";
 
     @BuildStep
@@ -85,46 +86,35 @@ class BonJovaQuarkusExtensionProcessor {
 
     // Returns a stream of file names of the compiled output
     private Stream<String> compileEverythingInDir(SourceDir sourceDir) {
-        final RockFileCompiler compiler = new RockFileCompiler();
-
-        try {
-            return Files.list(sourceDir.getDir())
-
-                    .filter(file -> file.toString()
-                            .endsWith(DOT_ROCK))
+        // Unchanged programs come out of the cache, and a class that's already right doesn't get touched, or the compile
+        // would trigger a restart, which triggers a compile, which triggers a restart, which ... well, you get the idea.
+        final RockFileCompiler compiler = new RockFileCompiler(
+                CompilationCache.forOutputDirectory(sourceDir.getOutputDir().toFile()));
+
+        Map<File, File> outFiles = new LinkedHashMap<>();
+        try (Stream<Path> files = Files.list(sourceDir.getDir())) {
+            files.filter(file -> file.toString()
+                    .endsWith(DOT_ROCK))
                     .map(java.nio.file.Path::toFile)
-                    .map(file -> compile(sourceDir.getOutputDir(),
-                            file, compiler))
-                    .map(file -> file.getAbsolutePath());
+                    .forEach(file -> outFiles.put(file, outFile(sourceDir.getOutputDir(), file)));
 
-            // compiler for the filter, instead
+            // The programs are independent, so the compiler can do them all at once
+            if (!outFiles.isEmpty()) {
+                compiler.compileAll(outFiles);
+            }
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
 
+        return outFiles.values()
+                .stream()
+                .map(file -> file.getAbsolutePath());
     }
 
-    private File compile(Path buildDir, File file, RockFileCompiler compiler) {
+    private File outFile(Path buildDir, File file) {
         String outFilename = file.getName()
                 .replace(DOT_ROCK, RockFileCompiler.DOT_CLASS);
-        File outFile = new File(buildDir.toFile(), outFilename);
-
-        // Check if the file is up to date before compiling, or the compile will trigger a restart, which triggers a compile, which
-        // triggers a restart, which ... well, you get the idea.
-        if (!isUpToDate(outFile, file)) {
-
-            try (FileInputStream stream = new FileInputStream(file)) {
-                compiler.compile(stream, outFile);
-            } catch (IOException e) {
-                throw new RuntimeException(e);
-            }
-        }
-        return outFile;
-    }
-
-    private boolean isUpToDate(File outFile, File sourceFile) {
-        // Check the file exists, and also that it's not significantly older than the source file
-        return outFile.exists() && outFile.lastModified() > (sourceFile.lastModified() - 2 * MINUTES);
+        return new File(buildDir.toFile(), outFilename);
     }
 
     @BuildStep
@@ -1,15 +1,18 @@
 package io.quarkiverse.bonjova.deployment;
 
+import io.quarkiverse.bonjova.compiler.CompilationCache;
+import io.quarkiverse.bonjova.compiler.ProgramParser;
 import io.quarkiverse.bonjova.compiler.RockFileCompiler;
 import io.quarkus.deployment.dev.CompilationProvider;
 import io.quarkus.paths.PathCollection;
 import org.apache.commons.io.FilenameUtils;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 
 import static io.quarkiverse.bonjova.compiler.RockFileCompiler.DOT_CLASS;
@@ -17,6 +20,11 @@ import static io.quarkiverse.bonjova.compiler.RockFileCompiler.DOT_ROCK;
 
 public class RockstarCompilationProvider implements CompilationProvider {
 
+    public RockstarCompilationProvider() {
+        // Dev mode makes us long before the first edit, so get the parser up to speed while nobody is waiting
+        ProgramParser.warmUpInBackground();
+    }
+
     @Override
     public Set<String> handledExtensions() {
         return Collections.singleton(DOT_ROCK);
@@ -34,18 +42,22 @@ public class RockstarCompilationProvider implements CompilationProvider {
         context.getOutputDirectory()
                 .mkdirs();
 
-        final var compiler = new RockFileCompiler();
+        // Undoing an edit puts back a program we've compiled before
+        final var compiler = new RockFileCompiler(CompilationCache.forOutputDirectory(context.getOutputDirectory()));
 
+        final Map<File, File> outFiles = new LinkedHashMap<>();
         for (var file : files) {
             final var outFile = new File(context.getOutputDirectory()
                     .getPath(),
                     FilenameUtils.getBaseName(file.getName()) + DOT_CLASS);
+            outFiles.put(file, outFile);
+        }
 
-            try {
-                compiler.compile(new FileInputStream(file), outFile);
-            } catch (IOException e) {
-                throw new RuntimeException(e);
-            }
+        // A hot reload can change lots of files at once, and they don't depend on each other
+        try {
+            compiler.compileAll(outFiles);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
         }
     }
 
@@ -17,6 +17,9 @@ import static jakarta.ws.rs.core.Response.Status.NOT_FOUND;
 
 @Path("/rockstar")
 public class RockstarResource {
+
+    private static final String INPUT_CLASS = "io.quarkiverse.bonjova.support.RockstarInput";
+
     @GET
     @Path("/{programName}")
     public Response runRockstarProgram(@PathParam("programName") String programName, @QueryParam("arg") List<String> args) {
@@ -34,16 +37,24 @@ public class RockstarResource {
         var baos = new ByteArrayOutputStream();
         var ps = new PrintStream(baos);
 
-        var systemOut = System.out;
-        System.setOut(ps);
-
-        Class<?> rockstarClass = Class.forName(className, true, Thread.currentThread().getContextClassLoader());
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        Class<?> rockstarClass = Class.forName(className, true, loader);
         Method main = rockstarClass.getMethod("main", String[].class);
+        // The support classes get generated into the application along with the programs, so find them the same way
+        Class<?> input = Class.forName(INPUT_CLASS, true, loader);
 
-        main.invoke(null, new Object[] { args });
-
-        System.out.flush();
-        System.setOut(systemOut);
+        var systemOut = System.out;
+        System.setOut(ps);
+        try {
+            // Programs listen to stdin when they have no args, and the server's stdin isn't for them; this is only for
+            // the current thread, so it can't get mixed up with other requests
+            input.getMethod("useArgs", String[].class).invoke(null, (Object) args);
+            main.invoke(null, new Object[] { args });
+        } finally {
+            input.getMethod("finish").invoke(null);
+            System.out.flush();
+            System.setOut(systemOut);
+        }
 
         return baos.toString();
     }